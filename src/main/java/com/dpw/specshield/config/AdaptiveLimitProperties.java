@@ -0,0 +1,18 @@
+package com.dpw.specshield.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "specshield.executor.adaptive-limit")
+public class AdaptiveLimitProperties {
+    private boolean enabled = true; // off: a host runs at its bulkhead's fixed maximum
+    private int initialLimit = 16;
+    private int minLimit = 2;
+    private double rttTolerance = 1.5; // latency inflation over the baseline tolerated before the limit shrinks
+    private double smoothing = 0.2; // weight of each new estimate in the limit
+    private double backoffRatio = 0.9; // limit multiplier on a 5xx, 429 or transport failure
+    private int baselineWindow = 600; // samples the baseline latency is averaged over
+}
@@ -0,0 +1,17 @@
+package com.dpw.specshield.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "specshield.executor.bulkhead")
+public class BulkheadProperties {
+    private Integer defaultMaxConcurrent; // unset: a host gets as many as its HTTP pool connections
+    private Map<String, Integer> maxConcurrentPerHost = new HashMap<>(); // e.g. "https://api.staging.example:443" -> 32
+    private int maxQueue = 1000; // test cases allowed to wait per host; further ones are held back until the queue drains
+}
@@ -0,0 +1,20 @@
+package com.dpw.specshield.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "specshield.executor.circuit-breaker")
+public class CircuitBreakerProperties {
+    private boolean enabled = true;
+    private int consecutiveConnectFailures = 5; // connect failures in a row that open the circuit
+    private int failureRateThreshold = 50; // percent of failed calls in the window that opens the circuit
+    private int windowSize = 50; // most recent calls the failure rate is computed over
+    private int minimumCalls = 20; // calls needed in the window before the rate is considered
+    private Duration openDuration = Duration.ofSeconds(30); // how long an open circuit short-circuits before probing
+    private int halfOpenProbes = 3; // successful probes needed to close the circuit again
+}
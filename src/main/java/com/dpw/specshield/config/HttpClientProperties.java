@@ -0,0 +1,23 @@
+package com.dpw.specshield.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "specshield.http")
+public class HttpClientProperties {
+    private int maxTotal = 1024;
+    private int defaultMaxPerHost = 64;
+    private Map<String, Integer> maxPerHost = new HashMap<>(); // e.g. "https://api.staging.example:443" -> 200
+    private Duration connectTimeout = Duration.ofSeconds(5);
+    private Duration readTimeout = Duration.ofSeconds(30);
+    private Duration connectionRequestTimeout = Duration.ofSeconds(30);
+    private Duration connectionTimeToLive = Duration.ofMinutes(5);
+    private Duration idleTimeout = Duration.ofSeconds(60);
+}
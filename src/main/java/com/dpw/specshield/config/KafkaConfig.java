@@ -1,8 +1,10 @@
 package com.dpw.specshield.config;
 
+import com.dpw.specshield.dto.RunProgressEvent;
 import com.dpw.specshield.model.TestExecutionRequest;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
@@ -11,6 +13,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
 import org.springframework.kafka.listener.ContainerProperties;
@@ -22,6 +25,7 @@ import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 @Configuration
 @EnableKafka
@@ -36,6 +40,49 @@ public class KafkaConfig {
     @Value("${specshield.kafka.topics.test-execution}")
     private String testExecutionTopic;
 
+    @Value("${specshield.kafka.topics.test-execution-priority}")
+    private String testExecutionPriorityTopic;
+
+    @Value("${specshield.kafka.topics.test-execution-partitions:12}")
+    private int testExecutionPartitions;
+
+    @Value("${specshield.kafka.topics.run-progress:run-progress}")
+    private String runProgressTopic;
+
+    @Value("${specshield.kafka.producer.compression-type:zstd}")
+    private String compressionType;
+
+    @Value("${specshield.kafka.producer.linger-ms:10}")
+    private int lingerMs;
+
+    @Value("${specshield.kafka.producer.batch-size:131072}")
+    private int batchSize;
+
+    // Suites are sharded into chunk messages, so partitions bound how many nodes can share one run
+    @Bean
+    public NewTopic testExecutionTopic() {
+        return TopicBuilder.name(testExecutionTopic)
+                .partitions(testExecutionPartitions)
+                .build();
+    }
+
+    // High priority runs are small, but get as many partitions so every node can take one
+    @Bean
+    public NewTopic testExecutionPriorityTopic() {
+        return TopicBuilder.name(testExecutionPriorityTopic)
+                .partitions(testExecutionPartitions)
+                .build();
+    }
+
+    // Live progress is only of use for a few minutes, so it is not kept for long
+    @Bean
+    public NewTopic runProgressTopic() {
+        return TopicBuilder.name(runProgressTopic)
+                .partitions(testExecutionPartitions)
+                .config("retention.ms", "600000")
+                .build();
+    }
+
     // Producer Configuration
     @Bean
     public ProducerFactory<String, TestExecutionRequest> producerFactory() {
@@ -43,6 +90,10 @@ public class KafkaConfig {
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        // Chunk messages of a run are sent back to back, so a short linger lets them share compressed batches
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
 
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
@@ -70,6 +121,8 @@ public class KafkaConfig {
         configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
         configProps.put(ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG, 10000);
         configProps.put(ConsumerConfig.HEARTBEAT_INTERVAL_MS_CONFIG, 3000);
+        // One chunk per poll, so a pause after admitting it takes effect before the next one is handed out
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 1);
 
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
@@ -87,8 +140,10 @@ public class KafkaConfig {
         ConcurrentKafkaListenerContainerFactory<String, TestExecutionRequest> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
 
-        // Manual acknowledgment to prevent reprocessing
-        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        // Messages are acknowledged when their chunk completes, in whatever order chunks finish;
+        // offsets are committed only up to the oldest chunk still running
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setAsyncAcks(true);
 
         // Error handler with retry - max 1 retry with 1 second interval
         DefaultErrorHandler errorHandler = new DefaultErrorHandler(new FixedBackOff(1000L, 1));
@@ -100,7 +155,53 @@ public class KafkaConfig {
         return factory;
     }
 
+    @Bean
+    public KafkaTemplate<String, RunProgressEvent> progressKafkaTemplate() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        // Losing an update only makes a live view skip ahead, the next event carries on
+        configProps.put(ProducerConfig.ACKS_CONFIG, "1");
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(),
+                new JsonSerializer<RunProgressEvent>(objectMapper)));
+    }
+
+    // Every node reads every progress event, so each consumes in a group of its own, from the latest offset
+    @Bean("progressListenerContainerFactory")
+    public ConcurrentKafkaListenerContainerFactory<String, RunProgressEvent> progressListenerContainerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, groupId + "-progress-" + UUID.randomUUID());
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, true);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+
+        JsonDeserializer<RunProgressEvent> jsonDeserializer = new JsonDeserializer<>(RunProgressEvent.class, objectMapper);
+        jsonDeserializer.addTrustedPackages("com.dpw.specshield.dto");
+        jsonDeserializer.setUseTypeHeaders(false);
+
+        ConcurrentKafkaListenerContainerFactory<String, RunProgressEvent> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(configProps, new StringDeserializer(),
+                new ErrorHandlingDeserializer<>(jsonDeserializer)));
+        return factory;
+    }
+
     public String getTestExecutionTopic() {
         return testExecutionTopic;
     }
+
+    public String getTestExecutionPriorityTopic() {
+        return testExecutionPriorityTopic;
+    }
+
+    public String getRunProgressTopic() {
+        return runProgressTopic;
+    }
 }
\ No newline at end of file
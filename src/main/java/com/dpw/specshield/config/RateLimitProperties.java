@@ -0,0 +1,18 @@
+package com.dpw.specshield.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "specshield.executor.rate-limit")
+public class RateLimitProperties {
+    private Double defaultRequestsPerSecond; // unset: hosts without an entry below are not rate limited
+    private Map<String, Double> requestsPerSecond = new HashMap<>(); // e.g. "https://api.staging.example:443" -> 50.0, shared by all nodes
+    private double burstSeconds = 1.0; // a bucket holds this many seconds' worth of tokens
+    private String store = "mongo"; // mongo | memory
+}
@@ -0,0 +1,21 @@
+package com.dpw.specshield.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "specshield.executor.retry")
+public class RetryProperties {
+    private int maxAttempts = 1; // suites opt in with their own retry policy
+    private long initialBackoffMs = 200;
+    private long maxBackoffMs = 5000;
+    private double multiplier = 2.0;
+    private boolean retryNonIdempotent = false;
+    private List<Integer> retryOnStatuses = new ArrayList<>(List.of(429, 502, 503, 504));
+    private Long hedgeAfterMs; // unset: no hedging unless a suite asks for it
+}
@@ -0,0 +1,19 @@
+package com.dpw.specshield.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "specshield.executor.scheduler")
+public class SchedulerProperties {
+    private int defaultWeight = 1;
+    private Map<String, Integer> tenantWeights = new HashMap<>(); // e.g. "payments" -> 3 gets three times a weight-1 tenant's share
+    private Duration maxWait = Duration.ofSeconds(30); // a test case waiting this long is served ahead of priority and share
+    private int interactiveMaxCases = 100; // suites without a priority at or below this size run as high
+}
@@ -1,24 +1,45 @@
 package com.dpw.specshield.config;
 
+import com.dpw.specshield.execution.HttpClientPool;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.channel.ChannelOption;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.client.RestTemplate;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 @Configuration
 public class WebClientConfig {
 
     @Bean
-    public WebClient webClient() {
+    public WebClient webClient(HttpClientProperties properties) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("specshield-target")
+                .maxConnections(properties.getMaxTotal())
+                .pendingAcquireMaxCount(-1)
+                .pendingAcquireTimeout(properties.getConnectionRequestTimeout())
+                .maxIdleTime(properties.getIdleTimeout())
+                .maxLifeTime(properties.getConnectionTimeToLive())
+                .build();
+
+        // HTTP/2 is negotiated over TLS where the target supports it, HTTP/1.1 otherwise
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .protocol(HttpProtocol.HTTP11, HttpProtocol.H2)
+                .compress(true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis());
+
         return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(1024 * 1024))
                 .build();
     }
 
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(HttpClientPool httpClientPool) {
+        return httpClientPool.restTemplate();
     }
 
     @Bean
@@ -28,4 +49,4 @@ public class WebClientConfig {
         mapper.configure(com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
         return mapper;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,67 @@
+package com.dpw.specshield.controller;
+
+import com.dpw.specshield.dto.HttpPoolStats;
+import com.dpw.specshield.model.CircuitBreakerState;
+import com.dpw.specshield.execution.AdmissionController;
+import com.dpw.specshield.execution.HostBulkhead;
+import com.dpw.specshield.execution.HostBulkheads;
+import com.dpw.specshield.execution.HostCircuitBreaker;
+import com.dpw.specshield.execution.HostCircuitBreakers;
+import com.dpw.specshield.execution.HttpClientPool;
+import com.dpw.specshield.execution.TestExecutionEngine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@RestController
+@RequestMapping("/executor")
+@RequiredArgsConstructor
+public class ExecutorController {
+
+    private final HttpClientPool httpClientPool;
+    private final HostBulkheads hostBulkheads;
+    private final HostCircuitBreakers circuitBreakers;
+    private final AdmissionController admissionController;
+    private final TestExecutionEngine executionEngine;
+
+    @GetMapping("/http-pool")
+    public ResponseEntity<HttpPoolStats> getHttpPoolStats() {
+        return ResponseEntity.ok(httpClientPool.getStats());
+    }
+
+    @GetMapping("/bulkheads")
+    public ResponseEntity<Collection<HostBulkhead>> getBulkheads() {
+        return ResponseEntity.ok(hostBulkheads.getAll());
+    }
+
+    @GetMapping("/circuit-breakers")
+    public ResponseEntity<List<CircuitBreakerState>> getCircuitBreakers() {
+        return ResponseEntity.ok(circuitBreakers.getAll().stream()
+                .map(HostCircuitBreaker::snapshot)
+                .toList());
+    }
+
+    @GetMapping("/admission")
+    public ResponseEntity<Map<String, Integer>> getAdmission() {
+        return ResponseEntity.ok(Map.of(
+                "inFlightSuites", admissionController.getInFlightSuites(),
+                "maxSuites", admissionController.getMaxSuites(),
+                "inFlightTestCases", admissionController.getInFlightTestCases(),
+                "maxTestCases", admissionController.getMaxTestCases(),
+                "inFlightBulkSuites", admissionController.getInFlightBulkSuites(),
+                "priorityHeadroom", admissionController.getPriorityHeadroom()));
+    }
+
+    @GetMapping("/scheduler")
+    public ResponseEntity<Map<String, Map<String, Integer>>> getScheduler() {
+        return ResponseEntity.ok(executionEngine.getScheduler().getTenantStats());
+    }
+}
@@ -4,15 +4,18 @@ import com.dpw.specshield.model.TestSuite;
 import com.dpw.specshield.services.TestSuiteService;
 import com.dpw.specshield.dto.TestReportResponse;
 import com.dpw.specshield.services.IReportCollector;
+import com.dpw.specshield.services.impl.RunProgressStreams;
 import com.dpw.specshield.model.TestExecution;
 import com.dpw.specshield.utils.JsonUtils;
 import com.fasterxml.jackson.databind.JsonNode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.Map;
 
@@ -24,6 +27,7 @@ public class ReportController {
 
     private final IReportCollector reportCollector;
     private final TestSuiteService testSuiteService;
+    private final RunProgressStreams progressStreams;
 
     @GetMapping("/report/{id}")
     public ResponseEntity<TestReportResponse> getReportById(
@@ -41,6 +45,18 @@ public class ReportController {
         }
     }
 
+    @GetMapping(value = "/report/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamReport(@PathVariable String id) {
+        log.info("Received live report request for ID: {}", id);
+
+        try {
+            return ResponseEntity.ok(progressStreams.open(id));
+        } catch (RuntimeException e) {
+            log.error("Report not found: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @GetMapping("/report/{id}/testcase/{testCaseId}")
     public ResponseEntity<TestExecution> getTestCaseDetail(
             @PathVariable String id,
@@ -56,6 +72,35 @@ public class ReportController {
         }
     }
 
+    @GetMapping(value = "/report/{id}/testcase/{testCaseId}/response-body", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> getResponseBody(
+            @PathVariable String id,
+            @PathVariable String testCaseId) {
+        log.info("Received response body request for report ID: {} and test case ID: {}", id, testCaseId);
+
+        try {
+            return ResponseEntity.ok(reportCollector.getResponseBody(id, testCaseId));
+        } catch (RuntimeException e) {
+            log.error("Response body not found: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @DeleteMapping("/report/{id}")
+    public ResponseEntity<?> deleteReport(@PathVariable String id) {
+        log.info("Received delete request for report ID: {}", id);
+
+        try {
+            reportCollector.deleteReport(id);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            log.error("Report not found: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @PostMapping("/generate")
     public ResponseEntity<?> generateTestSuite(@RequestBody(required = false) Map<String, String> headers) throws Exception {
         String autoGeneratedId =  testSuiteService.generate(headers);
@@ -67,6 +112,20 @@ public class ReportController {
                 ));
     }
 
+    @PostMapping("/execute/{id}/cancel")
+    public ResponseEntity<?> cancelExecution(@PathVariable String id) {
+        log.info("Received cancel request for execution ID: {}", id);
+
+        if (!testSuiteService.cancel(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(Map.of(
+                        "message", "Cancellation requested",
+                        "executionId", id
+                ));
+    }
+
     @PostMapping("/execute")
     public ResponseEntity<?> executeTestSuite(@RequestBody String rawJson) throws Exception {
         log.info("Execute endpoint hit - starting processing");
@@ -0,0 +1,23 @@
+package com.dpw.specshield.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class HttpPoolStats {
+    private int leased;
+    private int available;
+    private int pending;
+    private int max;
+    private List<HostStats> hosts;
+
+    @Data
+    public static class HostStats {
+        private String host;
+        private int leased;
+        private int available;
+        private int pending;
+        private int max;
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.dpw.specshield.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Progress of a run as seen by one node since its previous event, shared with the other
+ * nodes over the run progress topic so each can serve live views of any run.
+ */
+@Data
+public class RunProgressEvent {
+    private String runId;
+    private String origin; // node that published the event
+    private Map<String, Integer> results; // executions completed since the last event, by result; run totals once finished
+    private List<TestExecutionSummary> executions;
+    private Integer droppedExecutions; // completed but left out of executions to keep the event small
+    private String status; // set once the run is finished
+    private String executionTime;
+}
@@ -1,5 +1,6 @@
 package com.dpw.specshield.dto;
 
+import com.dpw.specshield.model.TestExecution;
 import lombok.Data;
 import java.time.LocalDateTime;
 
@@ -12,4 +13,16 @@ public class TestExecutionSummary {
     private String resultDetails;
     private String contractPath;
     private String httpMethod;
+
+    public static TestExecutionSummary of(TestExecution execution) {
+        TestExecutionSummary summary = new TestExecutionSummary();
+        summary.setId(execution.getId());
+        summary.setTimestamp(execution.getTimestamp());
+        summary.setScenario(execution.getScenario());
+        summary.setResult(execution.getResult());
+        summary.setResultDetails(execution.getResultDetails());
+        summary.setContractPath(execution.getContractPath());
+        summary.setHttpMethod(execution.getHttpMethod());
+        return summary;
+    }
 }
\ No newline at end of file
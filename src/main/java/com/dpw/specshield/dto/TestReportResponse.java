@@ -1,5 +1,7 @@
 package com.dpw.specshield.dto;
 
+import com.dpw.specshield.model.CircuitBreakerState;
+import com.dpw.specshield.model.ConcurrencyLimitState;
 import lombok.Data;
 import java.util.List;
 
@@ -12,11 +14,17 @@ public class TestReportResponse {
     @Data
     public static class Overview {
         private String executionTime;
+        private String status;
         private Integer total;
         private Integer errors;
         private Integer warnings;
         private Integer successful;
         private Integer pending;
+        private Integer shortCircuited;
+        private Integer cancelled;
+        private Integer timedOut;
+        private List<CircuitBreakerState> circuitBreakers;
+        private List<ConcurrencyLimitState> concurrencyLimits;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+package com.dpw.specshield.execution;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounds the work a node takes from Kafka: how many suite chunks run at once and how many of their
+ * test cases are in flight in total. A chunk is admitted while the node is under both limits, so the
+ * case budget can be exceeded by at most one chunk; the listener stops consuming while it is full.
+ * <p>
+ * High priority chunks may use {@code priority-headroom} suites beyond the limit, so interactive runs
+ * are not queued behind bulk ones. A node with no bulk chunk running always admits one, which keeps
+ * a steady stream of high priority work from starving normal and low runs.
+ */
+@Slf4j
+@Component
+public class AdmissionController {
+
+    private final int maxSuites;
+    private final int maxTestCases;
+    private final int priorityHeadroom;
+    private int inFlightSuites;
+    private int inFlightTestCases;
+    private int inFlightBulkSuites;
+
+    public AdmissionController(@Value("${specshield.executor.admission.max-suites:4}") int maxSuites,
+                               @Value("${specshield.executor.admission.max-test-cases:5000}") int maxTestCases,
+                               @Value("${specshield.executor.admission.priority-headroom:2}") int priorityHeadroom) {
+        this.maxSuites = maxSuites;
+        this.maxTestCases = maxTestCases;
+        this.priorityHeadroom = priorityHeadroom;
+    }
+
+    public synchronized void admit(int testCases, PriorityClass priority) {
+        inFlightSuites++;
+        inFlightTestCases += testCases;
+        if (priority != PriorityClass.HIGH) {
+            inFlightBulkSuites++;
+        }
+        log.debug("Admitted {} priority suite with {} test cases, {} suites and {} test cases in flight",
+                priority, testCases, inFlightSuites, inFlightTestCases);
+    }
+
+    public synchronized void release(int testCases, PriorityClass priority) {
+        inFlightSuites--;
+        inFlightTestCases -= testCases;
+        if (priority != PriorityClass.HIGH) {
+            inFlightBulkSuites--;
+        }
+    }
+
+    public synchronized boolean hasCapacity(PriorityClass priority) {
+        if (priority == PriorityClass.HIGH) {
+            return inFlightSuites < maxSuites + priorityHeadroom;
+        }
+        return inFlightBulkSuites == 0 || (inFlightSuites < maxSuites && inFlightTestCases < maxTestCases);
+    }
+
+    public synchronized int getInFlightSuites() {
+        return inFlightSuites;
+    }
+
+    public synchronized int getInFlightTestCases() {
+        return inFlightTestCases;
+    }
+
+    public synchronized int getInFlightBulkSuites() {
+        return inFlightBulkSuites;
+    }
+
+    public int getMaxSuites() {
+        return maxSuites;
+    }
+
+    public int getMaxTestCases() {
+        return maxTestCases;
+    }
+
+    public int getPriorityHeadroom() {
+        return priorityHeadroom;
+    }
+}
@@ -0,0 +1,25 @@
+package com.dpw.specshield.execution;
+
+import com.dpw.specshield.validation.ResponseDocument;
+import org.springframework.http.HttpHeaders;
+
+import java.util.Map;
+
+/**
+ * A target response as captured by the transport, independent of the client that made the call.
+ *
+ * @param body           the captured body, or null when the response had none
+ * @param bodyTruncated  true when only a prefix of the body was kept
+ * @param streamedValues assertion values resolved while streaming, or null when the body was buffered
+ */
+public record CapturedResponse(int statusCode, HttpHeaders headers, String body, boolean bodyTruncated,
+                               Map<String, Object> streamedValues) {
+
+    public static CapturedResponse buffered(int statusCode, HttpHeaders headers, String body) {
+        return new CapturedResponse(statusCode, headers, body, false, null);
+    }
+
+    public ResponseDocument toDocument() {
+        return new ResponseDocument(statusCode, body, streamedValues);
+    }
+}
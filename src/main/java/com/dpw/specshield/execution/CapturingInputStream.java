@@ -0,0 +1,76 @@
+package com.dpw.specshield.execution;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Passes bytes through while keeping a copy of the first {@code limit} of them.
+ */
+class CapturingInputStream extends FilterInputStream {
+
+    private final int limit;
+    private final ByteArrayOutputStream captured;
+    private boolean truncated;
+    private long bytesRead;
+
+    CapturingInputStream(InputStream in, int limit) {
+        super(in);
+        this.limit = limit;
+        this.captured = new ByteArrayOutputStream(Math.min(limit, 8192));
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            capture(new byte[] {(byte) b}, 0, 1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read > 0) {
+            capture(buffer, offset, read);
+        }
+        return read;
+    }
+
+    /** Keeps reading until the capture is full or the stream ends, without going further. */
+    void fillToLimit() throws IOException {
+        byte[] buffer = new byte[8192];
+        while (captured.size() < limit) {
+            if (read(buffer, 0, Math.min(buffer.length, limit - captured.size())) < 0) {
+                return;
+            }
+        }
+        if (!truncated && super.read() >= 0) {
+            truncated = true;
+        }
+    }
+
+    /** Bytes read from the underlying stream so far, captured or not. */
+    long getBytesRead() {
+        return bytesRead;
+    }
+
+    byte[] getCaptured() {
+        return captured.toByteArray();
+    }
+
+    boolean isTruncated() {
+        return truncated;
+    }
+
+    private void capture(byte[] buffer, int offset, int length) {
+        bytesRead += length;
+        int room = limit - captured.size();
+        if (length > room) {
+            truncated = true;
+        }
+        captured.write(buffer, offset, Math.min(length, room));
+    }
+}
@@ -0,0 +1,9 @@
+package com.dpw.specshield.execution;
+
+public class CircuitOpenException extends RuntimeException {
+
+    public CircuitOpenException(String host) {
+        // Raised for every case sent to a dead host, so no stack trace is captured
+        super(String.format("Circuit open for %s: target considered unavailable", host), null, false, false);
+    }
+}
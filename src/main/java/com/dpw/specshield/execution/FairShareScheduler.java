@@ -0,0 +1,205 @@
+package com.dpw.specshield.execution;
+
+import com.dpw.specshield.config.SchedulerProperties;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out the node-wide test case permits. Free permits go to waiters of the highest priority
+ * class first and, within a class, to the tenant holding the fewest permits for its weight. A waiter
+ * queued longer than {@code max-wait} is served before anything else, so low classes and light
+ * tenants always make progress.
+ */
+public class FairShareScheduler {
+
+    private final int capacity;
+    private final SchedulerProperties properties;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Tenant> tenants = new HashMap<>();
+    private int inUse;
+    private int waiting;
+
+    public FairShareScheduler(int capacity, SchedulerProperties properties) {
+        this.capacity = capacity;
+        this.properties = properties;
+    }
+
+    public void acquire(String tenantName, PriorityClass priority) throws InterruptedException {
+        Waiter waiter;
+        lock.lock();
+        try {
+            Tenant tenant = tenant(tenantName);
+            if (waiting == 0 && inUse < capacity) {
+                grant(tenant);
+                return;
+            }
+            waiter = new Waiter(tenant, priority, System.nanoTime());
+            tenant.queues.get(priority).add(waiter);
+            waiting++;
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            waiter.granted.await();
+        } catch (InterruptedException e) {
+            lock.lock();
+            try {
+                if (waiter.tenant.queues.get(priority).remove(waiter)) {
+                    waiting--;
+                    throw e;
+                }
+            } finally {
+                lock.unlock();
+            }
+            // Granted while being interrupted: hand the permit back and keep the interrupt
+            release(tenantName);
+            throw e;
+        }
+    }
+
+    public void release(String tenantName) {
+        lock.lock();
+        try {
+            Tenant tenant = tenant(tenantName);
+            tenant.running--;
+            inUse--;
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getAvailable() {
+        lock.lock();
+        try {
+            return capacity - inUse;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Running and waiting test cases per tenant. */
+    public Map<String, Map<String, Integer>> getTenantStats() {
+        lock.lock();
+        try {
+            Map<String, Map<String, Integer>> stats = new LinkedHashMap<>();
+            tenants.forEach((name, tenant) -> stats.put(name, Map.of(
+                    "weight", tenant.weight,
+                    "running", tenant.running,
+                    "waiting", tenant.queues.values().stream().mapToInt(ArrayDeque::size).sum())));
+            return stats;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void dispatch() {
+        while (waiting > 0 && inUse < capacity) {
+            Waiter next = starvedWaiter();
+            if (next == null) {
+                next = nextByPriorityAndShare();
+            }
+
+            next.tenant.queues.get(next.priority).poll();
+            waiting--;
+            grant(next.tenant);
+            next.granted.countDown();
+        }
+    }
+
+    private void grant(Tenant tenant) {
+        tenant.running++;
+        inUse++;
+    }
+
+    // Queues are FIFO, so only their heads can be the oldest waiter
+    private Waiter starvedWaiter() {
+        long cutoff = System.nanoTime() - properties.getMaxWait().toNanos();
+        Waiter oldest = null;
+        for (Tenant tenant : tenants.values()) {
+            for (ArrayDeque<Waiter> queue : tenant.queues.values()) {
+                Waiter head = queue.peek();
+                if (head != null && head.queuedAt - cutoff < 0
+                        && (oldest == null || head.queuedAt - oldest.queuedAt < 0)) {
+                    oldest = head;
+                }
+            }
+        }
+        return oldest;
+    }
+
+    private Waiter nextByPriorityAndShare() {
+        for (PriorityClass priority : PriorityClass.values()) {
+            Tenant tenant = leastServed(priority);
+            if (tenant != null) {
+                return tenant.queues.get(priority).peek();
+            }
+        }
+        throw new IllegalStateException("Scheduler counts " + waiting + " waiters but none are queued");
+    }
+
+    private Tenant leastServed(PriorityClass priority) {
+        Tenant best = null;
+        for (Tenant tenant : tenants.values()) {
+            if (!tenant.queues.get(priority).isEmpty()
+                    && (best == null || (long) tenant.running * best.weight < (long) best.running * tenant.weight)) {
+                best = tenant;
+            }
+        }
+        return best;
+    }
+
+    private Tenant tenant(String name) {
+        Tenant tenant = tenants.computeIfAbsent(name, key -> new Tenant(
+                properties.getTenantWeights().getOrDefault(key, properties.getDefaultWeight())));
+        // Drop tenants that have gone idle so the map only holds active ones
+        if (tenants.size() > 64) {
+            Iterator<Map.Entry<String, Tenant>> it = tenants.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Tenant> entry = it.next();
+                if (entry.getValue() != tenant && entry.getValue().isIdle()) {
+                    it.remove();
+                }
+            }
+        }
+        return tenant;
+    }
+
+    private static final class Tenant {
+        private final int weight;
+        private final Map<PriorityClass, ArrayDeque<Waiter>> queues = new EnumMap<>(PriorityClass.class);
+        private int running;
+
+        private Tenant(int weight) {
+            this.weight = Math.max(1, weight);
+            for (PriorityClass priority : PriorityClass.values()) {
+                queues.put(priority, new ArrayDeque<>());
+            }
+        }
+
+        private boolean isIdle() {
+            return running == 0 && queues.values().stream().allMatch(ArrayDeque::isEmpty);
+        }
+    }
+
+    private static final class Waiter {
+        private final Tenant tenant;
+        private final PriorityClass priority;
+        private final long queuedAt;
+        private final CountDownLatch granted = new CountDownLatch(1);
+
+        private Waiter(Tenant tenant, PriorityClass priority, long queuedAt) {
+            this.tenant = tenant;
+            this.priority = priority;
+            this.queuedAt = queuedAt;
+        }
+    }
+}
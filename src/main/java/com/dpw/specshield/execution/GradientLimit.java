@@ -0,0 +1,63 @@
+package com.dpw.specshield.execution;
+
+import com.dpw.specshield.config.AdaptiveLimitProperties;
+
+/**
+ * Concurrency limit for one host, after the gradient algorithm of Netflix's concurrency-limits.
+ * Each latency sample is compared with a slow-moving baseline: while latency stays within
+ * {@code rtt-tolerance} of it the limit keeps growing by about its square root, and as latency
+ * inflates the limit is scaled down by the ratio. Overload responses (5xx, 429) and transport
+ * failures cut the limit multiplicatively. Not thread safe; {@link HostBulkhead} guards it.
+ */
+final class GradientLimit {
+
+    private final AdaptiveLimitProperties properties;
+    private final int maxLimit;
+    private double limit;
+    private double baselineRttMillis;
+
+    GradientLimit(AdaptiveLimitProperties properties, int maxLimit) {
+        this.properties = properties;
+        this.maxLimit = maxLimit;
+        this.limit = clamp(properties.getInitialLimit());
+    }
+
+    int getLimit() {
+        return (int) limit;
+    }
+
+    double getBaselineRttMillis() {
+        return baselineRttMillis;
+    }
+
+    void onDropped() {
+        limit = clamp(limit * properties.getBackoffRatio());
+    }
+
+    void onSample(long rttMillis, int inFlight) {
+        rttMillis = Math.max(1, rttMillis); // sub-millisecond responses count as one
+        if (baselineRttMillis == 0) {
+            baselineRttMillis = rttMillis;
+        } else {
+            double factor = 2.0 / (properties.getBaselineWindow() + 1);
+            baselineRttMillis = baselineRttMillis * (1 - factor) + rttMillis * factor;
+            // After a long stretch of overload the baseline lags behind recovered latency; pull it back down
+            if (baselineRttMillis / rttMillis > 2) {
+                baselineRttMillis *= 0.95;
+            }
+        }
+
+        // A host that is not using half its limit tells us nothing about where its ceiling is
+        if (inFlight < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, properties.getRttTolerance() * baselineRttMillis / rttMillis));
+        double estimate = limit * gradient + Math.sqrt(limit);
+        limit = clamp(limit * (1 - properties.getSmoothing()) + estimate * properties.getSmoothing());
+    }
+
+    private double clamp(double value) {
+        return Math.max(Math.min(properties.getMinLimit(), maxLimit), Math.min(maxLimit, value));
+    }
+}
@@ -0,0 +1,171 @@
+package com.dpw.specshield.execution;
+
+import com.dpw.specshield.model.ConcurrencyLimitState;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caps in-flight requests to one target host and how many test cases may wait for it,
+ * so a slow host cannot tie up capacity meant for the others. With an adaptive limit the
+ * cap moves between the configured minimum and {@code maxConcurrent} as the host's latency
+ * and overload responses are observed.
+ * <p>
+ * The wait is bounded at submission: a case is {@linkplain #admit() admitted} before any of its
+ * attempts is submitted, and submitters block while {@code maxConcurrent + maxQueue} cases are
+ * already admitted, so a busy host slows down its suites instead of failing their cases.
+ */
+public final class HostBulkhead {
+
+    private final String host;
+    private final int maxConcurrent;
+    private final GradientLimit adaptiveLimit;
+    private final Semaphore admissions;
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition slotFreed = lock.newCondition();
+    private int active;
+    private int waiting;
+    private int peakActive;
+
+    HostBulkhead(String host, int maxConcurrent, int maxQueue, GradientLimit adaptiveLimit) {
+        this.host = host;
+        this.maxConcurrent = maxConcurrent;
+        this.adaptiveLimit = adaptiveLimit;
+        this.admissions = new Semaphore(maxConcurrent + maxQueue, true);
+    }
+
+    /** Blocks until the host can take one more test case; every admitted case is {@linkplain #release() released} once finished. */
+    public void admit() throws InterruptedException {
+        admissions.acquire();
+    }
+
+    public void release() {
+        admissions.release();
+    }
+
+    /** Takes a slot for one attempt, waiting in the queue while the host is busy. */
+    void enter() throws InterruptedException {
+        lock.lock();
+        try {
+            if (waiting == 0 && active < limit()) {
+                take();
+                return;
+            }
+            waiting++;
+            try {
+                while (active >= limit()) {
+                    slotFreed.await();
+                }
+                take();
+            } finally {
+                waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void exit() {
+        lock.lock();
+        try {
+            active--;
+            slotFreed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Feeds a response's latency to the adaptive limit; 5xx and 429 count as overload. */
+    public void onResponse(long rttMillis, int statusCode) {
+        if (statusCode == 429 || statusCode >= 500) {
+            onFailure();
+            return;
+        }
+        if (adaptiveLimit == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            int before = adaptiveLimit.getLimit();
+            adaptiveLimit.onSample(rttMillis, active);
+            if (adaptiveLimit.getLimit() > before) {
+                slotFreed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** A call that timed out or could not reach the host. */
+    public void onFailure() {
+        if (adaptiveLimit == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            adaptiveLimit.onDropped();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return limit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getActive() {
+        lock.lock();
+        try {
+            return active;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWaiting() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public ConcurrencyLimitState snapshot() {
+        lock.lock();
+        try {
+            ConcurrencyLimitState snapshot = new ConcurrencyLimitState();
+            snapshot.setHost(host);
+            snapshot.setLimit(limit());
+            snapshot.setMaxLimit(maxConcurrent);
+            snapshot.setBaselineRttMs(adaptiveLimit != null ? (long) adaptiveLimit.getBaselineRttMillis() : null);
+            snapshot.setPeakActive(peakActive);
+            return snapshot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int limit() {
+        return adaptiveLimit != null ? adaptiveLimit.getLimit() : maxConcurrent;
+    }
+
+    private void take() {
+        active++;
+        peakActive = Math.max(peakActive, active);
+    }
+}
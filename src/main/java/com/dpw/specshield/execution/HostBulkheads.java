@@ -0,0 +1,75 @@
+package com.dpw.specshield.execution;
+
+import com.dpw.specshield.config.AdaptiveLimitProperties;
+import com.dpw.specshield.config.BulkheadProperties;
+import com.dpw.specshield.config.HttpClientProperties;
+import com.dpw.specshield.model.ConcurrencyLimitState;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link HostBulkhead} per target host, shared by every suite running on this node.
+ * Unless configured otherwise a host's limit matches its HTTP pool size, so requests
+ * wait here rather than for a pooled connection. That limit is the ceiling for the host's
+ * adaptive limit, which starts lower and follows what the host sustains.
+ */
+@Component
+@RequiredArgsConstructor
+public class HostBulkheads {
+
+    private final BulkheadProperties bulkheadProperties;
+    private final HttpClientProperties httpClientProperties;
+    private final AdaptiveLimitProperties adaptiveLimitProperties;
+    private final Map<String, HostBulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    public HostBulkhead forHost(String host) {
+        return bulkheads.computeIfAbsent(host, key -> {
+            int maxConcurrent = maxConcurrent(key);
+            GradientLimit adaptiveLimit = adaptiveLimitProperties.isEnabled()
+                    ? new GradientLimit(adaptiveLimitProperties, maxConcurrent)
+                    : null;
+            return new HostBulkhead(key, maxConcurrent, bulkheadProperties.getMaxQueue(), adaptiveLimit);
+        });
+    }
+
+    /** Current limits of the given hosts' bulkheads, for hosts that have one. */
+    public List<ConcurrencyLimitState> snapshot(Collection<String> hosts) {
+        return hosts.stream()
+                .distinct()
+                .map(bulkheads::get)
+                .filter(Objects::nonNull)
+                .map(HostBulkhead::snapshot)
+                .toList();
+    }
+
+    public Collection<HostBulkhead> getAll() {
+        return bulkheads.values();
+    }
+
+    private int maxConcurrent(String host) {
+        Integer configured = lookup(bulkheadProperties.getMaxConcurrentPerHost(), host);
+        if (configured != null) {
+            return configured;
+        }
+        if (bulkheadProperties.getDefaultMaxConcurrent() != null) {
+            return bulkheadProperties.getDefaultMaxConcurrent();
+        }
+        Integer poolSize = lookup(httpClientProperties.getMaxPerHost(), host);
+        return poolSize != null ? poolSize : httpClientProperties.getDefaultMaxPerHost();
+    }
+
+    private Integer lookup(Map<String, Integer> limits, String host) {
+        for (Map.Entry<String, Integer> entry : limits.entrySet()) {
+            if (TargetHost.keyOf(entry.getKey()).equals(host)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,161 @@
+package com.dpw.specshield.execution;
+
+import com.dpw.specshield.config.CircuitBreakerProperties;
+import com.dpw.specshield.model.CircuitBreakerState;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDateTime;
+
+/**
+ * Tracks the health of one target host. The circuit opens after a run of connect failures or when
+ * the failure rate over the last {@code window-size} calls crosses the threshold; while open, calls
+ * are refused without touching the network. After {@code open-duration} a few probe calls are let
+ * through, and the circuit closes once {@code half-open-probes} of them succeed.
+ */
+@Slf4j
+public final class HostCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String host;
+    private final CircuitBreakerProperties properties;
+    private final boolean[] window;
+    private int windowCount;
+    private int windowNext;
+    private int windowFailures;
+    private int consecutiveConnectFailures;
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private LocalDateTime openedAt;
+    private int probesInFlight;
+    private int probeSuccesses;
+    private int trips;
+    private long shortCircuited;
+
+    HostCircuitBreaker(String host, CircuitBreakerProperties properties) {
+        this.host = host;
+        this.properties = properties;
+        this.window = new boolean[Math.max(1, properties.getWindowSize())];
+    }
+
+    /** Whether a call may go out now; a refused call is counted as short-circuited. */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN && System.nanoTime() - openedAtNanos >= properties.getOpenDuration().toNanos()) {
+            log.info("Circuit for {} half-open, probing", host);
+            state = State.HALF_OPEN;
+            probesInFlight = 0;
+            probeSuccesses = 0;
+        }
+
+        switch (state) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                if (probesInFlight < properties.getHalfOpenProbes()) {
+                    probesInFlight++;
+                    return true;
+                }
+                break;
+            default:
+                break;
+        }
+        shortCircuited++;
+        return false;
+    }
+
+    /** A call got a response the host is healthy enough to give. */
+    public synchronized void onSuccess() {
+        consecutiveConnectFailures = 0;
+        if (state == State.HALF_OPEN) {
+            probesInFlight = Math.max(0, probesInFlight - 1);
+            if (++probeSuccesses >= properties.getHalfOpenProbes()) {
+                log.info("Circuit for {} closed after {} successful probes", host, probeSuccesses);
+                state = State.CLOSED;
+                resetWindow();
+            }
+            return;
+        }
+        record(false);
+    }
+
+    /** A call this side aborted says nothing about the host, but a probe gives back its slot. */
+    public synchronized void onAbandoned() {
+        if (state == State.HALF_OPEN) {
+            probesInFlight = Math.max(0, probesInFlight - 1);
+        }
+    }
+
+    /** A call failed to reach the host or got an unavailability status back. */
+    public synchronized void onFailure(boolean connectFailure) {
+        consecutiveConnectFailures = connectFailure ? consecutiveConnectFailures + 1 : 0;
+        if (state == State.HALF_OPEN) {
+            probesInFlight = Math.max(0, probesInFlight - 1);
+            open("probe failed");
+            return;
+        }
+        record(true);
+
+        if (state == State.CLOSED) {
+            if (consecutiveConnectFailures >= properties.getConsecutiveConnectFailures()) {
+                open(consecutiveConnectFailures + " consecutive connect failures");
+            } else if (windowCount >= properties.getMinimumCalls()
+                    && windowFailures * 100 >= properties.getFailureRateThreshold() * windowCount) {
+                open(failureRate() + "% of the last " + windowCount + " calls failed");
+            }
+        }
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized CircuitBreakerState snapshot() {
+        CircuitBreakerState snapshot = new CircuitBreakerState();
+        snapshot.setHost(host);
+        snapshot.setState(state.name());
+        snapshot.setFailureRate(failureRate());
+        snapshot.setConsecutiveConnectFailures(consecutiveConnectFailures);
+        snapshot.setTrips(trips);
+        snapshot.setShortCircuited(shortCircuited);
+        snapshot.setOpenedAt(openedAt);
+        return snapshot;
+    }
+
+    private void open(String reason) {
+        log.warn("Circuit for {} opened: {}", host, reason);
+        state = State.OPEN;
+        openedAtNanos = System.nanoTime();
+        openedAt = LocalDateTime.now();
+        trips++;
+    }
+
+    private void record(boolean failed) {
+        if (windowCount == window.length) {
+            if (window[windowNext]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowNext] = failed;
+        if (failed) {
+            windowFailures++;
+        }
+        windowNext = (windowNext + 1) % window.length;
+    }
+
+    private void resetWindow() {
+        windowCount = 0;
+        windowNext = 0;
+        windowFailures = 0;
+        consecutiveConnectFailures = 0;
+    }
+
+    private int failureRate() {
+        return windowCount == 0 ? 0 : windowFailures * 100 / windowCount;
+    }
+}
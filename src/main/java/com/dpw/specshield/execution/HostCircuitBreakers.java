@@ -0,0 +1,83 @@
+package com.dpw.specshield.execution;
+
+import com.dpw.specshield.config.CircuitBreakerProperties;
+import com.dpw.specshield.model.CircuitBreakerState;
+import lombok.RequiredArgsConstructor;
+import org.apache.hc.client5.http.ConnectTimeoutException;
+import org.springframework.stereotype.Component;
+
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link HostCircuitBreaker} per target host, shared by every suite running on this node.
+ * A response counts against the host only when it signals unavailability (502, 503, 504);
+ * other statuses are results for the test case to judge, not host failures.
+ */
+@Component
+@RequiredArgsConstructor
+public class HostCircuitBreakers {
+
+    private static final Set<Integer> UNAVAILABLE_STATUSES = Set.of(502, 503, 504);
+
+    private final CircuitBreakerProperties properties;
+    private final Map<String, HostCircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    /** The host's breaker, or null when circuit breaking is disabled. */
+    public HostCircuitBreaker forHost(String host) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        return breakers.computeIfAbsent(host, key -> new HostCircuitBreaker(key, properties));
+    }
+
+    public Collection<HostCircuitBreaker> getAll() {
+        return breakers.values();
+    }
+
+    /** Current state of the given hosts' breakers, for hosts that have one. */
+    public List<CircuitBreakerState> snapshot(Collection<String> hosts) {
+        return hosts.stream()
+                .distinct()
+                .map(breakers::get)
+                .filter(Objects::nonNull)
+                .map(HostCircuitBreaker::snapshot)
+                .toList();
+    }
+
+    public static void recordStatus(HostCircuitBreaker breaker, int statusCode) {
+        if (breaker == null) {
+            return;
+        }
+        if (UNAVAILABLE_STATUSES.contains(statusCode)) {
+            breaker.onFailure(false);
+        } else {
+            breaker.onSuccess();
+        }
+    }
+
+    public static void recordError(HostCircuitBreaker breaker, Throwable error) {
+        if (breaker != null) {
+            breaker.onFailure(isConnectFailure(error));
+        }
+    }
+
+    // Netty's connect timeout is a ConnectException, HttpClient's is not
+    private static boolean isConnectFailure(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof NoRouteToHostException
+                    || cause instanceof UnknownHostException
+                    || cause instanceof ConnectTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,114 @@
+package com.dpw.specshield.execution;
+
+import com.dpw.specshield.config.RateLimitProperties;
+import com.dpw.specshield.storage.RateLimitStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paces calls to each target host. Hosts with a configured requests-per-second rate draw tokens
+ * from a {@link RateLimitStore} bucket shared by every node; a 429 with {@code Retry-After} holds
+ * the host back for the time it asks. Hosts without a rate still honour {@code Retry-After}, but
+ * only on the node that received it, so unlimited hosts never cost a store round trip.
+ */
+@Slf4j
+@Component
+public class HostRateLimiter {
+
+    private static final Duration MAX_RETRY_AFTER = Duration.ofMinutes(5);
+
+    private final RateLimitProperties properties;
+    private final RateLimitStore store;
+    private final Map<String, Double> rates = new ConcurrentHashMap<>();
+    private final Map<String, Long> localBlocks = new ConcurrentHashMap<>();
+
+    public HostRateLimiter(RateLimitProperties properties, RateLimitStore store) {
+        this.properties = properties;
+        this.store = store;
+        properties.getRequestsPerSecond().forEach((host, rate) -> rates.put(TargetHost.keyOf(host), rate));
+    }
+
+    /** Blocks the calling (virtual) thread until the host may be called. */
+    public void acquire(String host) throws InterruptedException {
+        long waitMillis;
+        while ((waitMillis = tryAcquire(host)) > 0) {
+            TimeUnit.MILLISECONDS.sleep(waitMillis);
+        }
+    }
+
+    /** Takes a token if one is available; returns 0 when the host may be called, otherwise the milliseconds to wait. */
+    public long tryAcquire(String host) {
+        Double rate = rateFor(host);
+        if (rate == null) {
+            Long blockedUntil = localBlocks.get(host);
+            if (blockedUntil == null) {
+                return 0;
+            }
+            long remaining = blockedUntil - System.currentTimeMillis();
+            if (remaining <= 0) {
+                localBlocks.remove(host, blockedUntil);
+                return 0;
+            }
+            return remaining;
+        }
+        return store.tryAcquire(host, rate, Math.max(1, rate * properties.getBurstSeconds()));
+    }
+
+    /** Holds the host back when a 429 response carries a {@code Retry-After}. */
+    public void onResponse(String host, int statusCode, HttpHeaders headers) {
+        if (statusCode != 429 || headers == null) {
+            return;
+        }
+        Duration retryAfter = parseRetryAfter(headers.getFirst(HttpHeaders.RETRY_AFTER));
+        if (retryAfter == null || retryAfter.isNegative() || retryAfter.isZero()) {
+            return;
+        }
+        if (retryAfter.compareTo(MAX_RETRY_AFTER) > 0) {
+            retryAfter = MAX_RETRY_AFTER;
+        }
+
+        long until = System.currentTimeMillis() + retryAfter.toMillis();
+        log.info("{} asked to retry after {}s, holding its calls back", host, retryAfter.toSeconds());
+        if (rateFor(host) == null) {
+            localBlocks.merge(host, until, Math::max);
+        } else {
+            store.blockUntil(host, until);
+        }
+    }
+
+    private Double rateFor(String host) {
+        Double rate = rates.get(host);
+        if (rate == null) {
+            rate = properties.getDefaultRequestsPerSecond();
+        }
+        return rate != null && rate > 0 ? rate : null;
+    }
+
+    // Retry-After is either delay-seconds or an HTTP-date
+    private Duration parseRetryAfter(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Long.parseLong(value.trim()));
+        } catch (NumberFormatException ignored) {
+            // not a number of seconds, try a date
+        }
+        try {
+            ZonedDateTime date = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Duration.between(ZonedDateTime.now(date.getZone()), date);
+        } catch (DateTimeParseException e) {
+            log.debug("Ignoring unparseable Retry-After '{}'", value);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.dpw.specshield.execution;
+
+import com.dpw.specshield.config.HttpClientConfig;
+import com.dpw.specshield.config.HttpClientProperties;
+import com.dpw.specshield.dto.HttpPoolStats;
+import com.dpw.specshield.model.TestSuite;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.classic.methods.HttpUriRequestBase;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResponseErrorHandler;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sends target calls over one pooled, keep-alive HTTP client. The pool speaks HTTP/1.1: the
+ * classic Apache client has no HTTP/2, and the blocking executor reads bodies as streams, which
+ * the async client could only offer through an extra buffering layer. Suites that need HTTP/2
+ * multiplexing run in the reactive mode, whose WebClient negotiates it.
+ * <p>
+ * A suite's read timeout applies to its own requests. Connect timeouts belong to pooled
+ * connections, so a suite's override applies to the host of its base URL, for every suite
+ * reaching that host, until another suite sets it again.
+ */
+@Component
+public class HttpClientPool {
+
+    /**
+     * Every status, expected or not, is a result to validate, so none is turned into an
+     * exception; response extractors see 4xx and 5xx responses like any other.
+     */
+    private static final ResponseErrorHandler NON_THROWING_ERROR_HANDLER = new ResponseErrorHandler() {
+        @Override
+        public boolean hasError(ClientHttpResponse response) {
+            return false;
+        }
+
+        @Override
+        public void handleError(URI url, HttpMethod method, ClientHttpResponse response) {
+        }
+    };
+
+    private final CloseableHttpClient targetHttpClient;
+    private final PoolingHttpClientConnectionManager httpConnectionManager;
+    private final HttpClientProperties properties;
+    private final Map<String, Duration> connectTimeouts = new ConcurrentHashMap<>();
+
+    public HttpClientPool(CloseableHttpClient targetHttpClient, PoolingHttpClientConnectionManager httpConnectionManager,
+                          HttpClientProperties properties) {
+        this.targetHttpClient = targetHttpClient;
+        this.httpConnectionManager = httpConnectionManager;
+        this.properties = properties;
+        httpConnectionManager.setConnectionConfigResolver(route -> HttpClientConfig.connectionConfig(properties,
+                connectTimeouts.getOrDefault(TargetHost.keyOf(route.getTargetHost().toURI()), properties.getConnectTimeout())));
+    }
+
+    /** Reads a response while its request can still be aborted. */
+    @FunctionalInterface
+    public interface ResponseHandler<T> {
+        T handle(int statusCode, HttpHeaders headers, InputStream body, Cancellable request) throws IOException;
+    }
+
+    /** A non-throwing RestTemplate over the pool with the default timeouts, for callers outside the executor. */
+    public RestTemplate restTemplate() {
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(targetHttpClient);
+        requestFactory.setConnectionRequestTimeout(properties.getConnectionRequestTimeout());
+        requestFactory.setReadTimeout(properties.getReadTimeout());
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        restTemplate.setErrorHandler(NON_THROWING_ERROR_HANDLER);
+        return restTemplate;
+    }
+
+    /** The request settings of a suite's calls; also applies its connect timeout to its base URL's host. */
+    public RequestConfig requestConfigFor(TestSuite testSuite) {
+        Duration readTimeout = properties.getReadTimeout();
+        if (testSuite != null) {
+            if (testSuite.getReadTimeoutMs() != null) {
+                readTimeout = Duration.ofMillis(testSuite.getReadTimeoutMs());
+            }
+            String host = TargetHost.keyOf(testSuite.getBaseUrl());
+            if (testSuite.getConnectTimeoutMs() != null) {
+                connectTimeouts.put(host, Duration.ofMillis(testSuite.getConnectTimeoutMs()));
+            } else {
+                connectTimeouts.remove(host);
+            }
+        }
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(properties.getConnectionRequestTimeout()))
+                .setResponseTimeout(Timeout.of(readTimeout))
+                .build();
+    }
+
+    /**
+     * Sends a request and hands its response to {@code handler}, which may cancel the request to
+     * close the connection instead of draining the rest of the body into it. Error statuses are
+     * handed over like any other; only transport failures throw.
+     */
+    public <T> T exchange(PreparedRequest request, RequestConfig requestConfig, ResponseHandler<T> handler) throws IOException {
+        HttpUriRequestBase httpRequest = new HttpUriRequestBase(request.method().name(), URI.create(request.url()));
+        request.headers().forEach((name, values) -> {
+            // The entity decides how the body is framed
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) && !HttpHeaders.TRANSFER_ENCODING.equalsIgnoreCase(name)) {
+                values.forEach(value -> httpRequest.addHeader(name, value));
+            }
+        });
+        if (request.hasBody()) {
+            httpRequest.setEntity(new ByteArrayEntity(request.body(), null));
+        }
+
+        HttpClientContext context = HttpClientContext.create();
+        context.setRequestConfig(requestConfig);
+        ClassicHttpResponse response = targetHttpClient.executeOpen(null, httpRequest, context);
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            for (Header header : response.getHeaders()) {
+                headers.add(header.getName(), header.getValue());
+            }
+            HttpEntity entity = response.getEntity();
+            return handler.handle(response.getCode(), headers,
+                    entity != null ? entity.getContent() : InputStream.nullInputStream(), httpRequest);
+        } finally {
+            close(response);
+        }
+    }
+
+    public HttpPoolStats getStats() {
+        HttpPoolStats stats = new HttpPoolStats();
+        PoolStats total = httpConnectionManager.getTotalStats();
+        stats.setLeased(total.getLeased());
+        stats.setAvailable(total.getAvailable());
+        stats.setPending(total.getPending());
+        stats.setMax(total.getMax());
+        stats.setHosts(httpConnectionManager.getRoutes().stream()
+                .sorted(Comparator.comparing(route -> route.getTargetHost().toURI()))
+                .map(this::toHostStats)
+                .toList());
+        return stats;
+    }
+
+    private HttpPoolStats.HostStats toHostStats(HttpRoute route) {
+        PoolStats routeStats = httpConnectionManager.getStats(route);
+        HttpPoolStats.HostStats hostStats = new HttpPoolStats.HostStats();
+        hostStats.setHost(route.getTargetHost().toURI());
+        hostStats.setLeased(routeStats.getLeased());
+        hostStats.setAvailable(routeStats.getAvailable());
+        hostStats.setPending(routeStats.getPending());
+        hostStats.setMax(routeStats.getMax());
+        return hostStats;
+    }
+
+    // Consuming what is left keeps the connection in the pool; after a cancel it fails fast and the connection is dropped
+    private static void close(ClassicHttpResponse response) {
+        try {
+            try {
+                EntityUtils.consume(response.getEntity());
+            } finally {
+                response.close();
+            }
+        } catch (IOException e) {
+            // Nothing left to release
+        }
+    }
+}
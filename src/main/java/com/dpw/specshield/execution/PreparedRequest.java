@@ -0,0 +1,41 @@
+package com.dpw.specshield.execution;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.util.Map;
+
+/**
+ * A test case's request resolved ahead of the run: URL, headers and body bytes are fixed,
+ * so retries, hedges and later runs of the same suite send it without rebuilding anything.
+ *
+ * @param headerValues the case's headers as written, for reports
+ * @param payload      the encoded body as text, for reports; null without a body
+ * @param coalescingKey method, URL and headers in canonical form for bodiless GET, HEAD and OPTIONS
+ *                      requests, which may share one call; null for any other request
+ */
+public record PreparedRequest(HttpMethod method, String url, String host, HttpHeaders headers,
+                              Map<String, String> headerValues, byte[] body, String payload, String coalescingKey) {
+
+    public boolean hasBody() {
+        return body != null;
+    }
+
+    /** Only built for executions whose details are retained. */
+    public String curl() {
+        StringBuilder curl = new StringBuilder();
+        curl.append("curl -X ").append(method.name())
+            .append(" '").append(url).append("'");
+
+        if (headerValues != null) {
+            headerValues.forEach((key, value) ->
+                curl.append(" -H '").append(key).append(": ").append(value).append("'"));
+        }
+
+        if (payload != null) {
+            curl.append(" -d '").append(payload).append("'");
+        }
+
+        return curl.toString();
+    }
+}
@@ -0,0 +1,35 @@
+package com.dpw.specshield.execution;
+
+import java.util.Locale;
+
+/**
+ * Scheduling class of a run, set with {@code TestSuite.priority}: {@code high}, {@code normal} or {@code low}.
+ * A suite that names none is {@code high} when it is small enough to be an interactive run, {@code normal} otherwise.
+ */
+public enum PriorityClass {
+    HIGH, NORMAL, LOW;
+
+    public static PriorityClass parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown priority '" + value + "', expected high, normal or low");
+        }
+    }
+
+    public static PriorityClass resolve(String value, int testCaseCount, int interactiveMaxCases) {
+        PriorityClass requested = parse(value);
+        if (requested != null) {
+            return requested;
+        }
+        return testCaseCount <= interactiveMaxCases ? HIGH : NORMAL;
+    }
+
+    /** Lower-case form stored on suites and requests. */
+    public String label() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
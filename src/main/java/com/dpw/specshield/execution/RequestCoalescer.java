@@ -0,0 +1,37 @@
+package com.dpw.specshield.execution;
+
+import com.dpw.specshield.model.TestSuite;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight table for one run, keyed by {@link PreparedRequest#coalescingKey()}. The first
+ * case to send a request owns the call; identical requests that come later, in flight or after
+ * the answer, attach to it instead of calling the target again. Entries live as long as the run.
+ *
+ * @param <T> the pending outcome of a call, a future or a cached publisher
+ */
+public final class RequestCoalescer<T> {
+
+    private final Map<String, T> flights = new ConcurrentHashMap<>();
+
+    private RequestCoalescer() {
+    }
+
+    /** A coalescer for the run when the suite asks for one, or the configured default does; otherwise null. */
+    public static <T> RequestCoalescer<T> forRun(TestSuite testSuite, boolean enabledByDefault) {
+        boolean enabled = testSuite.getCoalesceRequests() != null ? testSuite.getCoalesceRequests() : enabledByDefault;
+        return enabled ? new RequestCoalescer<>() : null;
+    }
+
+    /** The call for this request: sent through {@code send} unless an identical one already was. */
+    public T join(PreparedRequest request, Supplier<T> send) {
+        if (request.coalescingKey() == null) {
+            return send.get();
+        }
+        // send only creates the pending call, so it is safe to run inside the map's lock
+        return flights.computeIfAbsent(request.coalescingKey(), key -> send.get());
+    }
+}
@@ -0,0 +1,18 @@
+package com.dpw.specshield.execution;
+
+import com.dpw.specshield.model.TestExecution;
+
+import java.util.List;
+
+/**
+ * The outcome of sending one prepared request, retries and hedges included. Test cases whose
+ * requests were coalesced share it and validate the response against their own expectations.
+ *
+ * @param testCaseId     the case that sent the request
+ * @param response       the final response, or null when the call failed
+ * @param error          why no response was received; a {@link CircuitOpenException} when it was never sent
+ * @param responseTimeMs the answering attempt's response time, when there was one
+ */
+public record RequestFlight(String testCaseId, CapturedResponse response, Throwable error,
+                            List<TestExecution.Attempt> attempts, Long responseTimeMs) {
+}
@@ -0,0 +1,24 @@
+package com.dpw.specshield.execution;
+
+import com.dpw.specshield.model.TestCase;
+
+import java.util.List;
+import java.util.Map;
+
+/** The prepared requests of one suite run, looked up by the run's own test case objects. */
+public final class RequestPlan {
+
+    private final Map<TestCase, PreparedRequest> requests;
+
+    RequestPlan(Map<TestCase, PreparedRequest> requests) {
+        this.requests = requests;
+    }
+
+    public PreparedRequest requestFor(TestCase testCase) {
+        return requests.get(testCase);
+    }
+
+    public List<String> hosts() {
+        return requests.values().stream().map(PreparedRequest::host).distinct().toList();
+    }
+}
@@ -0,0 +1,159 @@
+package com.dpw.specshield.execution;
+
+import com.dpw.specshield.model.TestCase;
+import com.dpw.specshield.model.TestRequest;
+import com.dpw.specshield.model.TestSuite;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Turns a suite into {@link PreparedRequest}s: URL templates are compiled once per endpoint and
+ * each body is encoded once. Compiled requests of stored suites are kept in a small LRU cache
+ * keyed by the suite's {@link SuiteRevision content revision}, and by test case id within a suite,
+ * so repeated runs of an unchanged suite, further chunks of a run, redelivered chunks and recovered
+ * runs on this node reuse them. Suites without a revision are compiled on every run.
+ */
+@Slf4j
+@Component
+public class RequestPlanCompiler {
+
+    private static final int MAX_CACHED_TEMPLATES = 10_000;
+    private static final Set<HttpMethod> COALESCABLE_METHODS = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS);
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, UrlTemplate> templates = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, PreparedRequest>> plans;
+
+    public RequestPlanCompiler(ObjectMapper objectMapper,
+                               @Value("${specshield.executor.plan-cache-size:16}") int cacheSize) {
+        this.objectMapper = objectMapper;
+        this.plans = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Map<String, PreparedRequest>> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public RequestPlan compile(TestSuite testSuite) {
+        List<TestCase> testCases = testSuite.getTestCases();
+        Map<String, PreparedRequest> compiled = compiledRequestsOf(testSuite);
+
+        int reused = 0;
+        Map<TestCase, PreparedRequest> requests = new IdentityHashMap<>(testCases.size());
+        for (TestCase testCase : testCases) {
+            PreparedRequest prepared = compiled != null && testCase.getTestCaseId() != null
+                    ? compiled.get(testCase.getTestCaseId())
+                    : null;
+            if (prepared != null) {
+                reused++;
+            } else {
+                prepared = prepare(testCase, testSuite.getBaseUrl());
+                if (compiled != null && testCase.getTestCaseId() != null) {
+                    compiled.put(testCase.getTestCaseId(), prepared);
+                }
+            }
+            requests.put(testCase, prepared);
+        }
+        if (reused > 0) {
+            log.debug("Reused compiled requests for {} of {} test cases of {}", reused, testCases.size(), testSuite.getTestSuiteName());
+        }
+        return new RequestPlan(requests);
+    }
+
+    /** The cached requests of a stored suite by test case id, or null for a suite without a revision. */
+    private Map<String, PreparedRequest> compiledRequestsOf(TestSuite testSuite) {
+        if (testSuite.getRevision() == null) {
+            return null;
+        }
+        synchronized (plans) {
+            // The revision hashes the base URL along with the test cases
+            return plans.computeIfAbsent(testSuite.getRevision(), key -> new ConcurrentHashMap<>());
+        }
+    }
+
+    private PreparedRequest prepare(TestCase testCase, String baseUrl) {
+        TestRequest request = testCase.getRequest();
+        String url = buildFullUrl(testCase, baseUrl);
+
+        HttpHeaders headers = new HttpHeaders();
+        if (request.getHeaders() != null) {
+            request.getHeaders().forEach(headers::add);
+        }
+
+        byte[] body = null;
+        String payload = null;
+        if (request.getBody() != null) {
+            try {
+                body = objectMapper.writeValueAsBytes(request.getBody());
+            } catch (Exception e) {
+                body = request.getBody().toString().getBytes(StandardCharsets.UTF_8);
+            }
+            payload = new String(body, StandardCharsets.UTF_8);
+            if (headers.getContentType() == null) {
+                headers.setContentType(MediaType.APPLICATION_JSON);
+            }
+        }
+
+        HttpMethod method = HttpMethod.valueOf(testCase.getEndpoint().getMethod().toUpperCase());
+        return new PreparedRequest(method, url, TargetHost.keyOf(url), headers, request.getHeaders(), body, payload,
+                body == null ? coalescingKey(method, url, request.getHeaders()) : null);
+    }
+
+    private String coalescingKey(HttpMethod method, String url, Map<String, String> headers) {
+        if (!COALESCABLE_METHODS.contains(method)) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder().append(method.name()).append(' ').append(url);
+        if (headers != null) {
+            // Header names are case-insensitive and their order carries no meaning
+            Map<String, String> canonical = new TreeMap<>();
+            headers.forEach((name, value) -> canonical.put(name.toLowerCase(Locale.ROOT), value));
+            canonical.forEach((name, value) -> key.append('\n').append(name).append(": ").append(value));
+        }
+        return key.toString();
+    }
+
+    private String buildFullUrl(TestCase testCase, String baseUrl) {
+        StringBuilder url = new StringBuilder();
+        url.append(baseUrl);
+        template(testCase.getEndpoint().getUrl()).expand(testCase.getRequest().getPathParams(), url);
+
+        Map<String, String> queryParams = testCase.getRequest().getQueryParams();
+        if (queryParams != null && !queryParams.isEmpty()) {
+            char separator = '?';
+            for (Map.Entry<String, String> entry : queryParams.entrySet()) {
+                url.append(separator).append(entry.getKey()).append('=').append(entry.getValue());
+                separator = '&';
+            }
+        }
+        return url.toString();
+    }
+
+    private UrlTemplate template(String url) {
+        UrlTemplate template = templates.get(url);
+        if (template != null) {
+            return template;
+        }
+        template = UrlTemplate.compile(url);
+        if (templates.size() < MAX_CACHED_TEMPLATES) {
+            templates.putIfAbsent(url, template);
+        }
+        return template;
+    }
+}
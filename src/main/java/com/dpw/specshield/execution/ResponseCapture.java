@@ -0,0 +1,149 @@
+package com.dpw.specshield.execution;
+
+import com.dpw.specshield.model.TestExecution;
+import com.dpw.specshield.storage.ResponseBodyStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bounds what a response contributes to its {@link TestExecution}: the first {@code inline-limit}
+ * bytes of the body stay inline, cut on a character boundary, the captured body is spilled to the
+ * {@link ResponseBodyStore} (gzip-compressed when enabled) and long header values are cut. A streamed
+ * response only ever captured a prefix, so its spilled body is marked truncated as well.
+ * <p>
+ * Spilled bodies live as long as the executions referencing them: {@link #discard} removes them
+ * when a report is deleted.
+ */
+@Slf4j
+@Component
+public class ResponseCapture {
+
+    private static final String GZIP = "gzip";
+
+    private final ResponseBodyStore bodyStore;
+    private final int inlineLimit;
+    private final int maxHeaderLength;
+    private final boolean compress;
+
+    public ResponseCapture(ResponseBodyStore bodyStore,
+                           @Value("${specshield.results.capture.inline-limit:64KB}") DataSize inlineLimit,
+                           @Value("${specshield.results.capture.max-header-length:4096}") int maxHeaderLength,
+                           @Value("${specshield.results.capture.compress:true}") boolean compress) {
+        this.bodyStore = bodyStore;
+        this.inlineLimit = (int) inlineLimit.toBytes();
+        this.maxHeaderLength = maxHeaderLength;
+        this.compress = compress;
+    }
+
+    public TestExecution.ResponseDetails capture(String testCaseId, CapturedResponse response) {
+        TestExecution.ResponseDetails details = new TestExecution.ResponseDetails();
+        details.setResponseStatus(response.statusCode());
+        captureBody(details, testCaseId, response);
+
+        Map<String, String> headerMap = new HashMap<>();
+        response.headers().forEach((key, values) -> {
+            if (values != null && !values.isEmpty()) {
+                String value = String.join(", ", values);
+                headerMap.put(key, value.length() > maxHeaderLength ? value.substring(0, maxHeaderLength) : value);
+            }
+        });
+        details.setResponseHeaders(headerMap);
+
+        return details;
+    }
+
+    /** Returns the stored body behind the response details, reading it back from the store if it was spilled. */
+    public String fullBody(TestExecution.ResponseDetails details) {
+        if (details.getResponseBodyRef() == null) {
+            return details.getResponseBody();
+        }
+        byte[] content = bodyStore.load(details.getResponseBodyRef());
+        if (GZIP.equals(details.getResponseBodyEncoding())) {
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(content))) {
+                content = in.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return new String(content, StandardCharsets.UTF_8);
+    }
+
+    /** Deletes the spilled body behind the response details, if there is one. */
+    public void discard(TestExecution.ResponseDetails details) {
+        if (details != null && details.getResponseBodyRef() != null) {
+            bodyStore.delete(details.getResponseBodyRef());
+        }
+    }
+
+    /** The largest length up to {@code limit} that does not end inside a UTF-8 encoded character. */
+    static int utf8Boundary(byte[] bytes, int limit) {
+        int end = Math.min(limit, bytes.length);
+        // Step back over continuation bytes (10xxxxxx) to the lead byte of the last character
+        int start = end - 1;
+        while (start > 0 && end - start < 4 && (bytes[start] & 0xC0) == 0x80) {
+            start--;
+        }
+        if (start < 0) {
+            return end;
+        }
+        int lead = bytes[start] & 0xFF;
+        int length = lead >= 0xF0 ? 4 : lead >= 0xE0 ? 3 : lead >= 0xC0 ? 2 : 1;
+        return start + length > end ? start : end;
+    }
+
+    private void captureBody(TestExecution.ResponseDetails details, String testCaseId, CapturedResponse response) {
+        if (response.bodyTruncated()) {
+            details.setResponseBodyTruncated(true);
+        }
+        String body = response.body();
+        // A UTF-16 char never takes more than three UTF-8 bytes, so short bodies skip the encoding
+        if (body == null || body.length() <= inlineLimit / 3) {
+            details.setResponseBody(body);
+            return;
+        }
+
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= inlineLimit) {
+            details.setResponseBody(body);
+            return;
+        }
+
+        if (!response.bodyTruncated()) {
+            details.setResponseBodySize((long) bytes.length);
+        }
+        details.setResponseBody(new String(bytes, 0, utf8Boundary(bytes, inlineLimit), StandardCharsets.UTF_8));
+        details.setResponseBodyTruncated(true);
+        try {
+            details.setResponseBodyRef(bodyStore.store(testCaseId, compress ? gzip(bytes) : bytes));
+            details.setResponseBodyEncoding(compress ? GZIP : null);
+            if (response.bodyTruncated()) {
+                details.setResponseBodyRefTruncated(true);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not spill response body of test case {}, keeping the inline prefix only: {}",
+                    testCaseId, e.getMessage());
+        }
+    }
+
+    private byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,72 @@
+package com.dpw.specshield.execution;
+
+import java.util.Locale;
+
+/**
+ * Decides which executions of a run keep their full request and response details.
+ * Parsed from {@code TestSuite.retention}: {@code all} (default), {@code failures-only},
+ * {@code sampled:N%} (every failure plus N% of successes) or {@code summary-only}.
+ */
+public final class RetentionPolicy {
+
+    public static final RetentionPolicy ALL = new RetentionPolicy(Mode.ALL, 0);
+
+    private static final String SAMPLED_PREFIX = "sampled:";
+
+    private enum Mode { ALL, FAILURES_ONLY, SAMPLED, SUMMARY_ONLY }
+
+    private final Mode mode;
+    private final int sampledBasisPoints;
+
+    private RetentionPolicy(Mode mode, int sampledBasisPoints) {
+        this.mode = mode;
+        this.sampledBasisPoints = sampledBasisPoints;
+    }
+
+    public static RetentionPolicy parse(String value) {
+        if (value == null || value.isBlank()) {
+            return ALL;
+        }
+
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        switch (normalized) {
+            case "all":
+                return ALL;
+            case "failures-only":
+                return new RetentionPolicy(Mode.FAILURES_ONLY, 0);
+            case "summary-only":
+                return new RetentionPolicy(Mode.SUMMARY_ONLY, 0);
+            default:
+                break;
+        }
+
+        if (normalized.startsWith(SAMPLED_PREFIX) && normalized.endsWith("%")) {
+            try {
+                double percent = Double.parseDouble(normalized.substring(SAMPLED_PREFIX.length(), normalized.length() - 1));
+                if (percent >= 0 && percent <= 100) {
+                    return new RetentionPolicy(Mode.SAMPLED, (int) Math.round(percent * 100));
+                }
+            } catch (NumberFormatException ignored) {
+                // reported below
+            }
+        }
+        throw new IllegalArgumentException("Invalid retention policy: " + value);
+    }
+
+    /**
+     * Whether an execution keeps its request details, curl command and response body and headers.
+     * Sampling is keyed on the test case id, so reruns of a suite keep the same executions.
+     */
+    public boolean retainsDetails(String testCaseId, boolean passed) {
+        switch (mode) {
+            case ALL:
+                return true;
+            case FAILURES_ONLY:
+                return !passed;
+            case SAMPLED:
+                return !passed || Math.floorMod(String.valueOf(testCaseId).hashCode(), 10_000) < sampledBasisPoints;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.dpw.specshield.execution;
+
+import com.dpw.specshield.config.RetryProperties;
+import com.dpw.specshield.model.RetryPolicy;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * The retry policy in effect for one test case, resolved from the case, its suite and the
+ * configured defaults. Only GET, HEAD and OPTIONS are retried unless the policy opts other
+ * methods in; backoff is exponential with full jitter.
+ */
+public final class RetryPlan {
+
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final double multiplier;
+    private final boolean retryNonIdempotent;
+    private final Set<Integer> retryOnStatuses;
+    private final Long hedgeAfterMs;
+
+    private RetryPlan(int maxAttempts, long initialBackoffMs, long maxBackoffMs, double multiplier,
+                      boolean retryNonIdempotent, Set<Integer> retryOnStatuses, Long hedgeAfterMs) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.multiplier = multiplier;
+        this.retryNonIdempotent = retryNonIdempotent;
+        this.retryOnStatuses = retryOnStatuses;
+        this.hedgeAfterMs = hedgeAfterMs;
+    }
+
+    public static RetryPlan resolve(RetryPolicy suitePolicy, RetryPolicy casePolicy, RetryProperties defaults) {
+        return new RetryPlan(
+                pick(casePolicy, suitePolicy, RetryPolicy::getMaxAttempts, defaults.getMaxAttempts()),
+                pick(casePolicy, suitePolicy, RetryPolicy::getInitialBackoffMs, defaults.getInitialBackoffMs()),
+                pick(casePolicy, suitePolicy, RetryPolicy::getMaxBackoffMs, defaults.getMaxBackoffMs()),
+                pick(casePolicy, suitePolicy, RetryPolicy::getMultiplier, defaults.getMultiplier()),
+                pick(casePolicy, suitePolicy, RetryPolicy::getRetryNonIdempotent, defaults.isRetryNonIdempotent()),
+                Set.copyOf(pick(casePolicy, suitePolicy, RetryPolicy::getRetryOnStatuses, defaults.getRetryOnStatuses())),
+                pick(casePolicy, suitePolicy, RetryPolicy::getHedgeAfterMs, defaults.getHedgeAfterMs()));
+    }
+
+    public int maxAttempts() {
+        return maxAttempts;
+    }
+
+    /** Whether a failed attempt of a request with this method may be sent again. */
+    public boolean retries(String method) {
+        return maxAttempts > 1 && (retryNonIdempotent || IDEMPOTENT_METHODS.contains(method.toUpperCase(Locale.ROOT)));
+    }
+
+    /** A transient status is retried unless it is the one the case expects to see; a null expectation accepts none in particular. */
+    public boolean isRetryableStatus(int status, Integer expectedStatus) {
+        return (expectedStatus == null || status != expectedStatus) && retryOnStatuses.contains(status);
+    }
+
+    /** Timeouts and I/O failures; anything else is a deterministic error that a retry would repeat. */
+    public static boolean isTransient(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ResourceAccessException || cause instanceof IOException || cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Delay before the given retry (1 for the first retry): a random point up to the exponential bound. */
+    public Duration backoff(int retry) {
+        double bound = Math.min(maxBackoffMs, initialBackoffMs * Math.pow(multiplier, retry - 1));
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong((long) bound + 1));
+    }
+
+    /** When to send a hedge for this method, or null when it is not hedged. */
+    public Duration hedgeAfter(String method) {
+        return hedgeAfterMs != null && hedgeAfterMs > 0 && "GET".equalsIgnoreCase(method)
+                ? Duration.ofMillis(hedgeAfterMs)
+                : null;
+    }
+
+    private static <T> T pick(RetryPolicy casePolicy, RetryPolicy suitePolicy, Function<RetryPolicy, T> field, T fallback) {
+        T value = casePolicy != null ? field.apply(casePolicy) : null;
+        if (value == null && suitePolicy != null) {
+            value = field.apply(suitePolicy);
+        }
+        return value != null ? value : fallback;
+    }
+}
@@ -0,0 +1,141 @@
+package com.dpw.specshield.execution;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cooperative stop signal for one run on this node, raised by a cancel request or the suite
+ * deadline. Threads working on the run register while they wait for capacity or call the target;
+ * stopping interrupts them, which aborts a blocked socket read on a virtual thread and frees the
+ * connection. Cases that have not started see the stop and never call the target.
+ */
+public final class RunControl {
+
+    /** Shared by every run; a cancelled alarm leaves the queue straight away. */
+    private static final ScheduledThreadPoolExecutor DEADLINES = deadlineTimer();
+
+    private final String runId;
+    private final Instant deadline;
+    private final Duration testTimeout;
+    private final CompletableFuture<RunStop> stopped = new CompletableFuture<>();
+    private final Set<Thread> workers = new HashSet<>();
+
+    /**
+     * @param deadline    when the whole run times out, or null
+     * @param testTimeout budget of each case across its attempts, counted from its first attempt, or null
+     */
+    public RunControl(String runId, Instant deadline, Duration testTimeout) {
+        this.runId = runId;
+        this.deadline = deadline;
+        this.testTimeout = testTimeout;
+    }
+
+    public static RunControl unbounded(String runId) {
+        return new RunControl(runId, null, null);
+    }
+
+    /** Stops the run; only the first reason counts. */
+    public void stop(RunStop reason) {
+        if (stopped.complete(reason)) {
+            synchronized (workers) {
+                workers.forEach(Thread::interrupt);
+            }
+        }
+    }
+
+    public RunStop stopReason() {
+        return stopped.getNow(null);
+    }
+
+    public boolean isStopped() {
+        return stopped.isDone();
+    }
+
+    /** Completes with the reason once the run stops; never completes for a run that finishes. */
+    public CompletableFuture<RunStop> whenStopped() {
+        return stopped;
+    }
+
+    /** Registers the calling thread to be interrupted on stop; false, without registering, once stopped. */
+    public boolean enter() {
+        synchronized (workers) {
+            if (isStopped()) {
+                return false;
+            }
+            workers.add(Thread.currentThread());
+            return true;
+        }
+    }
+
+    public void exit() {
+        synchronized (workers) {
+            workers.remove(Thread.currentThread());
+        }
+        // A stop racing the end of the work must not leak into whatever the thread does next
+        Thread.interrupted();
+    }
+
+    /** When a case whose first attempt starts now runs out of time: its own budget or the run's deadline. */
+    public Instant testDeadline(Instant firstAttempt) {
+        Instant own = testTimeout != null ? firstAttempt.plus(testTimeout) : null;
+        if (own == null || (deadline != null && deadline.isBefore(own))) {
+            return deadline;
+        }
+        return own;
+    }
+
+    /**
+     * Interrupts the calling thread at the given time unless the returned handle is run first,
+     * so a call outliving its case's budget is aborted like a stopped one.
+     */
+    public Runnable interruptAt(Instant at) {
+        if (at == null) {
+            return () -> { };
+        }
+        Thread worker = Thread.currentThread();
+        AtomicBoolean armed = new AtomicBoolean(true);
+        long delay = Math.max(0, Duration.between(Instant.now(), at).toMillis());
+        ScheduledFuture<?> alarm = DEADLINES.schedule(() -> {
+            synchronized (armed) {
+                if (armed.get()) {
+                    worker.interrupt();
+                }
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+        return () -> {
+            synchronized (armed) {
+                armed.set(false);
+            }
+            // Most calls finish well within their budget; the timer must not hold on to them until then
+            alarm.cancel(false);
+            // The call is over; an interrupt that arrived with its answer is no longer meant for anything
+            Thread.interrupted();
+        };
+    }
+
+    private static ScheduledThreadPoolExecutor deadlineTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1,
+                Thread.ofPlatform().name("case-deadlines").daemon().factory());
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public Instant getDeadline() {
+        return deadline;
+    }
+
+    public Duration getTestTimeout() {
+        return testTimeout;
+    }
+}
@@ -0,0 +1,25 @@
+package com.dpw.specshield.execution;
+
+/** Why a run stopped before all of its cases finished. */
+public enum RunStop {
+    CANCELLED("cancelled", "CANCELLED"),
+    TIMED_OUT("timed-out", "TIMED_OUT");
+
+    private final String executionResult;
+    private final String runStatus;
+
+    RunStop(String executionResult, String runStatus) {
+        this.executionResult = executionResult;
+        this.runStatus = runStatus;
+    }
+
+    /** The result recorded on executions this stop cut short. */
+    public String executionResult() {
+        return executionResult;
+    }
+
+    /** The status the run finishes with. */
+    public String runStatus() {
+        return runStatus;
+    }
+}
@@ -0,0 +1,16 @@
+package com.dpw.specshield.execution;
+
+public class RunStoppedException extends RuntimeException {
+
+    private final RunStop reason;
+
+    public RunStoppedException(RunStop reason) {
+        // Raised for every case still queued or in flight when a run stops, so no stack trace is captured
+        super(reason == RunStop.CANCELLED ? "Run cancelled" : "Time budget exhausted", null, false, false);
+        this.reason = reason;
+    }
+
+    public RunStop getReason() {
+        return reason;
+    }
+}
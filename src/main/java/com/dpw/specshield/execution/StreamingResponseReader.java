@@ -0,0 +1,116 @@
+package com.dpw.specshield.execution;
+
+import com.dpw.specshield.utils.JsonUtils;
+import com.dpw.specshield.validation.CompiledExpectation;
+import com.dpw.specshield.validation.StreamTarget;
+import com.dpw.specshield.validation.StreamingJsonEvaluator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads target responses for the blocking executor. Bodies larger than the streaming threshold,
+ * or of unknown length, are evaluated with {@link StreamingJsonEvaluator} as they arrive when every
+ * body assertion uses a simple path; only the first {@code threshold} bytes are kept for the report.
+ * <p>
+ * Closing a response drains whatever is left of it so the connection can be reused. Once the
+ * assertions are decided and the capture is full, a remainder larger than {@code abort-remainder},
+ * or of unknown length, costs more to drain than a new connection does, so the request is aborted
+ * and its connection closed instead.
+ * <p>
+ * The reactive executor hands bodies that may exceed its in-memory cap to {@link #readStreamed},
+ * so a large body is captured and evaluated the same way in both modes.
+ */
+@Slf4j
+@Component
+public class StreamingResponseReader {
+
+    @Value("${specshield.executor.streaming.enabled:true}")
+    private boolean enabled;
+
+    @Value("${specshield.executor.streaming.threshold:1048576}")
+    private int threshold;
+
+    @Value("${specshield.executor.streaming.abort-remainder:262144}")
+    private long abortRemainder;
+
+    /** Reads a response of the blocking executor; {@code request} is cancelled when the rest of a decided body is not worth draining. */
+    public CapturedResponse read(int statusCode, HttpHeaders headers, InputStream body, CompiledExpectation expectation,
+                                 Cancellable request) throws IOException {
+        Charset charset = charsetOf(headers);
+        long contentLength = headers.getContentLength();
+
+        if (!enabled || !expectation.isStreamable() || (contentLength >= 0 && contentLength <= threshold)) {
+            String text = StreamUtils.copyToString(body, charset);
+            return CapturedResponse.buffered(statusCode, headers, text.isEmpty() ? null : text);
+        }
+
+        CapturingInputStream capture = new CapturingInputStream(body, threshold);
+        CapturedResponse captured = evaluate(statusCode, headers, charset, capture, expectation);
+        if (capture.isTruncated() && request != null) {
+            long remainder = contentLength >= 0 ? contentLength - capture.getBytesRead() : -1;
+            if (remainder < 0 || remainder > abortRemainder) {
+                log.debug("Aborting response with {} bytes left unread", remainder >= 0 ? remainder : "unknown");
+                request.cancel();
+            }
+        }
+        return captured;
+    }
+
+    /** Whether bodies asserted by the expectation can be evaluated as they stream in. */
+    public boolean streams(CompiledExpectation expectation) {
+        return enabled && expectation.isStreamable();
+    }
+
+    /** Evaluates a body as it streams in, keeping the first {@code threshold} bytes; the caller closes the stream. */
+    public CapturedResponse readStreamed(int statusCode, HttpHeaders headers, InputStream body, CompiledExpectation expectation)
+            throws IOException {
+        return evaluate(statusCode, headers, charsetOf(headers), new CapturingInputStream(body, threshold), expectation);
+    }
+
+    private CapturedResponse evaluate(int statusCode, HttpHeaders headers, Charset charset, CapturingInputStream capture,
+                                      CompiledExpectation expectation) throws IOException {
+        Map<String, Object> values;
+        try (JsonParser parser = JsonUtils.OBJECT_MAPPER.createParser(capture)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            values = StreamingJsonEvaluator.evaluate(parser, expectation.getStreamTargets());
+        } catch (JsonProcessingException e) {
+            // A malformed body fails every body assertion, as a full parse would
+            log.warn("Response body is not valid JSON: {}", e.getOriginalMessage());
+            values = new HashMap<>();
+            for (StreamTarget target : expectation.getStreamTargets()) {
+                values.put(target.path().getExpression(), StreamingJsonEvaluator.MISSING);
+            }
+        }
+
+        capture.fillToLimit();
+        byte[] captured = capture.getCaptured();
+        if (captured.length == 0) {
+            return CapturedResponse.buffered(statusCode, headers, null);
+        }
+        // The capture stops at a byte count, which may fall inside a character
+        int length = capture.isTruncated() && StandardCharsets.UTF_8.equals(charset)
+                ? ResponseCapture.utf8Boundary(captured, captured.length)
+                : captured.length;
+        return new CapturedResponse(statusCode, headers, new String(captured, 0, length, charset), capture.isTruncated(), values);
+    }
+
+    /** The charset declared by the response's Content-Type, UTF-8 when it names none. */
+    public static Charset charsetOf(HttpHeaders headers) {
+        MediaType contentType = headers.getContentType();
+        return contentType != null && contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+    }
+}
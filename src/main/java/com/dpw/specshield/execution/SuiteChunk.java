@@ -0,0 +1,44 @@
+package com.dpw.specshield.execution;
+
+import com.dpw.specshield.model.TestCase;
+import com.dpw.specshield.model.TestSuite;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * The slice of a run executed by one Kafka message. A run that is not sharded is a single chunk;
+ * a recovered run whose chunks all completed finishes through a pass over all of them at once.
+ */
+public record SuiteChunk(int index, int count) {
+
+    public static final SuiteChunk WHOLE = new SuiteChunk(0, 1);
+
+    private static final int ALL = -1;
+
+    public static SuiteChunk allOf(int count) {
+        return new SuiteChunk(ALL, count);
+    }
+
+    public boolean isWhole() {
+        return count == 1;
+    }
+
+    /** The chunk indexes this slice completes. */
+    public List<Integer> indexes() {
+        return index == ALL ? IntStream.range(0, count).boxed().toList() : List.of(index);
+    }
+
+    /** The suite restricted to this chunk's cases, chunks being consecutive slices of {@code chunkSize} cases. */
+    public TestSuite sliceOf(TestSuite testSuite, int chunkSize) {
+        if (index == ALL) {
+            return testSuite;
+        }
+        List<TestCase> testCases = testSuite.getTestCases();
+        int from = Math.min(testCases.size(), index * chunkSize);
+        int to = Math.min(testCases.size(), from + chunkSize);
+
+        return testSuite.withTestCases(new ArrayList<>(testCases.subList(from, to)));
+    }
+}
@@ -0,0 +1,39 @@
+package com.dpw.specshield.execution;
+
+import com.dpw.specshield.model.TestSuite;
+import com.dpw.specshield.utils.JsonUtils;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Content revision of a suite: a SHA-256 over its base URL and test cases, the inputs its compiled
+ * requests are built from. Submitting the same suite again yields the same revision, so executor
+ * nodes reuse the requests they compiled for an earlier run of it.
+ */
+public final class SuiteRevision {
+
+    private static final ObjectWriter CANONICAL = JsonUtils.OBJECT_MAPPER.writer()
+            .without(SerializationFeature.INDENT_OUTPUT)
+            .with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+
+    private SuiteRevision() {
+    }
+
+    public static String of(TestSuite testSuite) {
+        Map<String, Object> content = new LinkedHashMap<>();
+        content.put("baseUrl", testSuite.getBaseUrl());
+        content.put("testCases", testSuite.getTestCases());
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(CANONICAL.writeValueAsBytes(content)));
+        } catch (NoSuchAlgorithmException | IOException e) {
+            throw new RuntimeException("Failed to compute the revision of test suite " + testSuite.getTestSuiteName(), e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.dpw.specshield.execution;
+
+import java.net.URI;
+import java.util.Locale;
+
+/**
+ * Normalizes target URLs to a {@code scheme://host:port} key, the unit that bulkheads
+ * and per-host HTTP pool limits are keyed on.
+ */
+public final class TargetHost {
+
+    public static final String UNKNOWN = "unknown";
+
+    private TargetHost() {
+    }
+
+    public static String keyOf(String url) {
+        if (url == null || url.isBlank()) {
+            return UNKNOWN;
+        }
+        try {
+            URI uri = URI.create(url.contains("://") ? url : "http://" + url);
+            if (uri.getHost() == null) {
+                return UNKNOWN;
+            }
+            String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+            int port = uri.getPort() != -1 ? uri.getPort() : ("https".equals(scheme) ? 443 : 80);
+            return scheme + "://" + uri.getHost().toLowerCase(Locale.ROOT) + ":" + port;
+        } catch (IllegalArgumentException e) {
+            return UNKNOWN;
+        }
+    }
+}
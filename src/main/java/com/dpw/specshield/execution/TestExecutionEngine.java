@@ -0,0 +1,230 @@
+package com.dpw.specshield.execution;
+
+import com.dpw.specshield.config.SchedulerProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Runs test cases on virtual threads, one per in-flight test case.
+ * Concurrency is bounded by a node-wide cap and by a separate cap per suite,
+ * so blocking HTTP calls never touch the ForkJoin common pool. The node-wide permits are
+ * shared between tenants and priority classes by the {@link FairShareScheduler}.
+ */
+@Slf4j
+@Component
+public class TestExecutionEngine implements DisposableBean {
+
+    public static final String DEFAULT_TENANT = "default";
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final FairShareScheduler scheduler;
+    private final int maxConcurrency;
+    private final int defaultSuiteConcurrency;
+
+    public TestExecutionEngine(@Value("${specshield.executor.max-concurrency:512}") int maxConcurrency,
+                               @Value("${specshield.executor.max-concurrency-per-suite:128}") int defaultSuiteConcurrency,
+                               SchedulerProperties schedulerProperties) {
+        this.maxConcurrency = maxConcurrency;
+        this.defaultSuiteConcurrency = defaultSuiteConcurrency;
+        this.scheduler = new FairShareScheduler(maxConcurrency, schedulerProperties);
+        log.info("Test execution engine started with global concurrency {} and per-suite concurrency {}",
+                maxConcurrency, defaultSuiteConcurrency);
+    }
+
+    /** Opens a concurrency scope for one suite run; a null or non-positive cap uses the configured default. */
+    public SuiteScope openSuite(String runId, Integer suiteConcurrency) {
+        return openSuite(RunControl.unbounded(runId), suiteConcurrency, null, PriorityClass.NORMAL);
+    }
+
+    /**
+     * Opens a suite scope whose test cases compete for node-wide permits as the given tenant and class.
+     * Once the run's control is stopped, cases waiting for a slot or permit give up and new ones fail
+     * with {@link RunStoppedException}.
+     */
+    public SuiteScope openSuite(RunControl control, Integer suiteConcurrency, String tenant, PriorityClass priority) {
+        int permits = suiteConcurrency != null && suiteConcurrency > 0
+                ? Math.min(suiteConcurrency, maxConcurrency)
+                : Math.min(defaultSuiteConcurrency, maxConcurrency);
+        return new SuiteScope(control, permits, tenant != null ? tenant : DEFAULT_TENANT, priority);
+    }
+
+    /** Runs an orchestration task on a virtual thread without taking a test case permit. */
+    public <T> CompletableFuture<T> supply(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+
+    /** Completes after the delay without holding a thread or any permit in the meantime. */
+    public CompletableFuture<Void> after(Duration delay) {
+        return CompletableFuture.runAsync(() -> { },
+                CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS, executor));
+    }
+
+    /** Runs a single test case on its own virtual thread once both the suite and global permits are held. */
+    public <T> CompletableFuture<T> submit(SuiteScope scope, Supplier<T> task) {
+        return submit(scope, null, task);
+    }
+
+    /**
+     * Like {@link #submit(SuiteScope, Supplier)}, but first takes a slot in the target host's bulkhead.
+     * Waiting on a busy host holds no suite or global permit; the case must have been
+     * {@linkplain HostBulkhead#admit() admitted} to the bulkhead beforehand.
+     */
+    public <T> CompletableFuture<T> submit(SuiteScope scope, HostBulkhead bulkhead, Supplier<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            if (!scope.control.enter()) {
+                throw new CompletionException(new RunStoppedException(scope.control.stopReason()));
+            }
+            try (Lease lease = takeSlot(scope, bulkhead)) {
+                return task.get();
+            } catch (InterruptedException e) {
+                RunStop reason = scope.control.stopReason();
+                throw new CompletionException(reason != null ? new RunStoppedException(reason) : e);
+            } finally {
+                scope.control.exit();
+            }
+        }, executor);
+    }
+
+    /**
+     * Takes the same host slot and suite and node-wide permits as {@link #submit(SuiteScope, HostBulkhead, Supplier)},
+     * for a caller that makes the call itself without blocking. The wait runs on a virtual thread; the returned
+     * lease must be closed once the call is over, and cancelling the future gives up the wait.
+     */
+    public CompletableFuture<Lease> lease(SuiteScope scope, HostBulkhead bulkhead) {
+        return leaseAsync(scope.control, () -> takeSlot(scope, bulkhead));
+    }
+
+    /** {@linkplain HostBulkhead#admit() Admits} a case to the host's bulkhead without blocking the caller; see {@link #lease}. */
+    public CompletableFuture<Lease> admit(SuiteScope scope, HostBulkhead bulkhead) {
+        return leaseAsync(scope.control, () -> {
+            bulkhead.admit();
+            return new Lease(bulkhead::release);
+        });
+    }
+
+    private CompletableFuture<Lease> leaseAsync(RunControl control, LeaseAcquisition acquisition) {
+        CompletableFuture<Lease> leased = new CompletableFuture<>();
+        Future<?> waiter = executor.submit(() -> {
+            // Registered with the run, so a stop interrupts the wait
+            if (!control.enter()) {
+                leased.completeExceptionally(new RunStoppedException(control.stopReason()));
+                return;
+            }
+            try {
+                Lease lease = acquisition.acquire();
+                if (!leased.complete(lease)) {
+                    // Given up while waiting; nobody else will hand it back
+                    lease.close();
+                }
+            } catch (InterruptedException e) {
+                RunStop reason = control.stopReason();
+                leased.completeExceptionally(reason != null ? new RunStoppedException(reason) : e);
+            } finally {
+                control.exit();
+            }
+        });
+        leased.whenComplete((lease, e) -> {
+            if (leased.isCancelled()) {
+                waiter.cancel(true);
+            }
+        });
+        return leased;
+    }
+
+    private Lease takeSlot(SuiteScope scope, HostBulkhead bulkhead) throws InterruptedException {
+        if (bulkhead != null) {
+            bulkhead.enter();
+        }
+        try {
+            scope.permits.acquire();
+            try {
+                scheduler.acquire(scope.tenant, scope.priority);
+            } catch (InterruptedException e) {
+                scope.permits.release();
+                throw e;
+            }
+        } catch (InterruptedException e) {
+            if (bulkhead != null) {
+                bulkhead.exit();
+            }
+            throw e;
+        }
+        return new Lease(() -> {
+            scheduler.release(scope.tenant);
+            scope.permits.release();
+            if (bulkhead != null) {
+                bulkhead.exit();
+            }
+        });
+    }
+
+    public int getAvailablePermits() {
+        return scheduler.getAvailable();
+    }
+
+    public FairShareScheduler getScheduler() {
+        return scheduler;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    @FunctionalInterface
+    private interface LeaseAcquisition {
+        Lease acquire() throws InterruptedException;
+    }
+
+    /** Capacity held for one call; closing it hands the capacity back, once. */
+    public static final class Lease implements AutoCloseable {
+        private final AtomicReference<Runnable> release;
+
+        private Lease(Runnable release) {
+            this.release = new AtomicReference<>(release);
+        }
+
+        @Override
+        public void close() {
+            Runnable pending = release.getAndSet(null);
+            if (pending != null) {
+                pending.run();
+            }
+        }
+    }
+
+    public static final class SuiteScope {
+        private final RunControl control;
+        private final Semaphore permits;
+        private final String tenant;
+        private final PriorityClass priority;
+
+        private SuiteScope(RunControl control, int permits, String tenant, PriorityClass priority) {
+            this.control = control;
+            this.permits = new Semaphore(permits, true);
+            this.tenant = tenant;
+            this.priority = priority;
+        }
+
+        public String getRunId() {
+            return control.getRunId();
+        }
+
+        public RunControl getControl() {
+            return control;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.dpw.specshield.execution;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An endpoint URL split once into literal text and {@code {name}} placeholders, so expanding
+ * it is a single append pass. Placeholders without a value are kept as written.
+ */
+final class UrlTemplate {
+
+    private final String[] literals; // one more than names: text before, between and after placeholders
+    private final String[] names;
+
+    private UrlTemplate(String[] literals, String[] names) {
+        this.literals = literals;
+        this.names = names;
+    }
+
+    static UrlTemplate compile(String url) {
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        int start = 0;
+        int open = url.indexOf('{');
+        while (open >= 0) {
+            int close = url.indexOf('}', open + 1);
+            if (close < 0) {
+                break;
+            }
+            literals.add(url.substring(start, open));
+            names.add(url.substring(open + 1, close));
+            start = close + 1;
+            open = url.indexOf('{', start);
+        }
+        literals.add(url.substring(start));
+        return new UrlTemplate(literals.toArray(String[]::new), names.toArray(String[]::new));
+    }
+
+    void expand(Map<String, String> params, StringBuilder out) {
+        for (int i = 0; i < names.length; i++) {
+            out.append(literals[i]);
+            String value = params != null ? params.get(names[i]) : null;
+            if (value != null) {
+                out.append(value);
+            } else {
+                out.append('{').append(names[i]).append('}');
+            }
+        }
+        out.append(literals[names.length]);
+    }
+}
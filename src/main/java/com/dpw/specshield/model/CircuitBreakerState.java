@@ -0,0 +1,15 @@
+package com.dpw.specshield.model;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+public class CircuitBreakerState {
+    private String host;
+    private String state; // CLOSED, OPEN, HALF_OPEN
+    private Integer failureRate; // percent over the breaker's window
+    private Integer consecutiveConnectFailures;
+    private Integer trips; // times the circuit opened
+    private Long shortCircuited; // calls refused while open
+    private LocalDateTime openedAt;
+}
@@ -0,0 +1,12 @@
+package com.dpw.specshield.model;
+
+import lombok.Data;
+
+@Data
+public class ConcurrencyLimitState {
+    private String host;
+    private Integer limit; // concurrency the adaptive limiter settled on
+    private Integer maxLimit; // the host's bulkhead ceiling
+    private Long baselineRttMs; // latency the limiter treats as unloaded
+    private Integer peakActive; // most requests seen in flight at once
+}
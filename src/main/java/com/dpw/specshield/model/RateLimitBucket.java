@@ -0,0 +1,16 @@
+package com.dpw.specshield.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Data
+@Document(collection = "rate_limit_buckets")
+public class RateLimitBucket {
+    @Id
+    private String host;
+    private double tokens;
+    private long refilledAt; // epoch millis of the last refill
+    private long blockedUntil; // epoch millis, set from Retry-After
+    private long revision; // compare-and-set guard, bumped on every write
+}
@@ -0,0 +1,19 @@
+package com.dpw.specshield.model;
+
+import lombok.Data;
+import java.util.List;
+
+/**
+ * Retry settings of a suite or a single test case; unset fields fall back to the suite's
+ * policy, then to {@code specshield.executor.retry}.
+ */
+@Data
+public class RetryPolicy {
+    private Integer maxAttempts; // including the first; 1 disables retries
+    private Long initialBackoffMs;
+    private Long maxBackoffMs;
+    private Double multiplier;
+    private Boolean retryNonIdempotent; // retry methods other than GET, HEAD and OPTIONS
+    private List<Integer> retryOnStatuses; // statuses treated as transient, unless the case expects them
+    private Long hedgeAfterMs; // GET only: send a second request if the first has not answered by then
+}
@@ -9,4 +9,5 @@ public class TestCase {
     private Endpoint endpoint;
     private TestRequest request;
     private ExpectedResult expected;
+    private RetryPolicy retry; // optional, overrides the suite's retry policy
 }
@@ -2,6 +2,7 @@ package com.dpw.specshield.model;
 
 import lombok.Data;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 @Data
@@ -15,6 +16,10 @@ public class TestExecution {
     private String contractPath;
     private String fullRequestPath;
     private String httpMethod;
+    private Long responseTimeMs; // time from sending the request to having the response, when one was sent
+    private Integer attempts; // requests sent for this case, retries included
+    private List<Attempt> attemptDetails;
+    private String coalescedWith; // test case whose identical request supplied this case's response
     private RequestDetails requestDetails;
     private ResponseDetails responseDetails;
 
@@ -25,10 +30,25 @@ public class TestExecution {
         private String curl;
     }
 
+    @Data
+    public static class Attempt {
+        private Integer number;
+        private LocalDateTime startedAt;
+        private Long durationMs;
+        private Integer responseStatus;
+        private String error;
+        private Boolean hedged; // answered by the hedge request rather than the original
+    }
+
     @Data
     public static class ResponseDetails {
         private Integer responseStatus;
         private String responseBody;
+        private Boolean responseBodyTruncated; // set when responseBody is only a prefix
+        private Long responseBodySize; // full size in bytes of a spilled body, unknown when the spilled body is truncated
+        private String responseBodyRef; // where the body was spilled, see ResponseBodyStore
+        private Boolean responseBodyRefTruncated; // set when the spilled body is itself only the prefix a streamed read kept
+        private String responseBodyEncoding; // "gzip" when the spilled body is compressed
         private Map<String, String> responseHeaders;
     }
 
@@ -0,0 +1,26 @@
+package com.dpw.specshield.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Data
+@Document(collection = "test_executions")
+@CompoundIndex(name = "result_test_case", def = "{'resultId': 1, 'testCaseId': 1}", unique = true)
+public class TestExecutionRecord {
+    @Id
+    private String id; // resultId:testCaseId, so re-writing the same execution is idempotent
+    private String resultId;
+    private String testCaseId;
+    private TestExecution execution;
+
+    public static TestExecutionRecord of(String resultId, TestExecution execution) {
+        TestExecutionRecord record = new TestExecutionRecord();
+        record.setId(resultId + ":" + execution.getId());
+        record.setResultId(resultId);
+        record.setTestCaseId(execution.getId());
+        record.setExecution(execution);
+        return record;
+    }
+}
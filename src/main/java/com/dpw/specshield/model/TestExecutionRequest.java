@@ -11,12 +11,18 @@ import java.time.LocalDateTime;
 public class TestExecutionRequest {
     @Id
     private String id;
+    private String revision; // content hash of the stored suite; claim-check messages name the request by id and revision
     @BsonId
     private String testResultId;
     private String testSuiteName;
     private String originalId; // The ID from the original request
     private String baseUrl;
-    private TestSuite testSuite;
+    private TestSuite testSuite; // null on claim-check messages
     private LocalDateTime createdAt;
-    private String status; // PENDING, PROCESSING, COMPLETED, FAILED
+    private String status; // PENDING, PROCESSING, COMPLETED, CANCELLED, TIMED_OUT, FAILED
+    private String priority; // resolved class: high, normal or low
+    private String tenant;
+    private Integer chunkIndex; // set on Kafka chunk messages only
+    private Integer chunkCount;
+    private Integer chunkSize;
 }
\ No newline at end of file
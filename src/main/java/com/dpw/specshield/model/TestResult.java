@@ -19,7 +19,20 @@ public class TestResult {
     private Integer successfulTests;
     private Integer errorTests;
     private Integer warningTests;
+    private Integer shortCircuitedTests; // cases not sent because their host's circuit was open
+    private Integer cancelledTests; // cases cut short or never sent because the run was cancelled
+    private Integer timedOutTests; // cases that ran out of their own budget or the run's deadline
     private Integer pendingTests;
-    private String status; // PENDING, PROCESSING, COMPLETED, FAILED
-    private List<TestExecution> executions;
+    private String status; // PENDING, PROCESSING, COMPLETED, CANCELLED, TIMED_OUT, FAILED
+    private Boolean cancelRequested; // set by the cancel endpoint, seen by every node running a chunk
+    private LocalDateTime deadlineAt; // when the run times out, from the suite's deadlineMs
+    private Boolean timedOut; // set by a chunk stopped at the deadline
+    private Integer chunkCount; // number of Kafka chunks the run was split into
+    private Integer chunkSize; // test cases per chunk, to slice the suite again when resuming a chunk
+    private List<Integer> ackedChunks; // indexes of chunks whose Kafka message was acknowledged and will not be redelivered
+    private List<Integer> completedChunks; // indexes of finished chunks, the last one completes the run
+    private List<CircuitBreakerState> circuitBreakers; // breaker state of the run's hosts when its chunks finished
+    private List<ConcurrencyLimitState> concurrencyLimits; // adaptive per-host limits the run settled on
+    private LocalDateTime heartbeatAt; // last sign of life from a node executing the run
+    private List<TestExecution> executions; // legacy embedded executions, moved into test_executions on startup
 }
\ No newline at end of file
@@ -9,4 +9,36 @@ public class TestSuite {
     private String id;
     private String baseUrl;
     private List<TestCase> testCases;
+    private Integer maxConcurrency; // optional per-suite cap on in-flight test cases
+    private Long connectTimeoutMs; // optional, overrides specshield.http.connect-timeout
+    private Long readTimeoutMs; // optional, overrides specshield.http.read-timeout
+    private String retention; // all (default) | failures-only | sampled:N% | summary-only
+    private String priority; // high | normal | low; unset picks high for small suites
+    private String tenant; // team sharing the executor's capacity, weighted by specshield.executor.scheduler.tenant-weights
+    private RetryPolicy retry; // optional, test cases may override it
+    private Long deadlineMs; // optional, the run times out this long after it is submitted
+    private Long testTimeoutMs; // optional budget of each test case across its attempts, from its first attempt
+    private Boolean coalesceRequests; // share one call between identical GET/HEAD/OPTIONS requests; unset uses specshield.executor.coalescing.enabled
+    private String revision; // content hash of the base URL and test cases, set when the suite is stored; keys caches
+
+    /** A copy of this suite's settings running a different set of test cases. */
+    public TestSuite withTestCases(List<TestCase> cases) {
+        TestSuite copy = new TestSuite();
+        copy.setTestSuiteName(testSuiteName);
+        copy.setId(id);
+        copy.setBaseUrl(baseUrl);
+        copy.setTestCases(cases);
+        copy.setMaxConcurrency(maxConcurrency);
+        copy.setConnectTimeoutMs(connectTimeoutMs);
+        copy.setReadTimeoutMs(readTimeoutMs);
+        copy.setRetention(retention);
+        copy.setPriority(priority);
+        copy.setTenant(tenant);
+        copy.setRetry(retry);
+        copy.setDeadlineMs(deadlineMs);
+        copy.setTestTimeoutMs(testTimeoutMs);
+        copy.setCoalesceRequests(coalesceRequests);
+        copy.setRevision(revision);
+        return copy;
+    }
 }
\ No newline at end of file
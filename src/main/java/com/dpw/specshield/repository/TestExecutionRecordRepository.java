@@ -0,0 +1,34 @@
+package com.dpw.specshield.repository;
+
+import com.dpw.specshield.model.TestExecutionRecord;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TestExecutionRecordRepository extends MongoRepository<TestExecutionRecord, String> {
+
+    // Summary fields only: request/response payloads and expected results stay in Mongo
+    @Query(value = "{ 'resultId': ?0 }",
+           fields = "{ 'testCaseId': 1, 'execution.id': 1, 'execution.timestamp': 1, 'execution.scenario': 1, "
+                  + "'execution.result': 1, 'execution.resultDetails': 1, 'execution.contractPath': 1, 'execution.httpMethod': 1 }")
+    List<TestExecutionRecord> findSummariesByResultId(String resultId, Pageable pageable);
+
+    Optional<TestExecutionRecord> findByResultIdAndTestCaseId(String resultId, String testCaseId);
+
+    // Checkpoint lookups: which of the given test cases already have a persisted execution
+    @Query(value = "{ 'resultId': ?0, 'testCaseId': { '$in': ?1 } }", fields = "{ 'testCaseId': 1 }")
+    List<TestExecutionRecord> findCompletedIn(String resultId, Collection<String> testCaseIds);
+
+    // Executions whose response body was spilled, with just the reference to it
+    @Query(value = "{ 'resultId': ?0, 'execution.responseDetails.responseBodyRef': { '$ne': null } }",
+           fields = "{ 'execution.responseDetails.responseBodyRef': 1 }")
+    List<TestExecutionRecord> findSpilledBodiesByResultId(String resultId);
+
+    void deleteByResultId(String resultId);
+}
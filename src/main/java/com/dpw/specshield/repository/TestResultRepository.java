@@ -2,8 +2,14 @@ package com.dpw.specshield.repository;
 
 import com.dpw.specshield.model.TestResult;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
 public interface TestResultRepository extends MongoRepository<TestResult, String> {
-}
\ No newline at end of file
+
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'executions': 0 }")
+    Optional<TestResult> findHeaderById(String id);
+}
@@ -1,8 +1,17 @@
 package com.dpw.specshield.services;
 
+import com.dpw.specshield.execution.SuiteChunk;
+import com.dpw.specshield.model.TestResult;
 import com.dpw.specshield.model.TestSuite;
 import java.util.concurrent.CompletableFuture;
 
 public interface IExecutorService {
     CompletableFuture<String> executeTestSuite(TestSuite testSuite);
+
+    default CompletableFuture<String> executeTestSuiteWithRealTimeUpdates(TestSuite testSuite, TestResult existingResult) {
+        return executeTestSuiteWithRealTimeUpdates(testSuite, existingResult, SuiteChunk.WHOLE);
+    }
+
+    /** Executes one chunk of a run; the run completes when its last chunk does, on whichever node that is. */
+    CompletableFuture<String> executeTestSuiteWithRealTimeUpdates(TestSuite testSuite, TestResult existingResult, SuiteChunk chunk);
 }
@@ -6,4 +6,6 @@ import com.dpw.specshield.model.TestExecution;
 public interface IReportCollector {
     TestReportResponse getReportById(String reportId, int page, int size);
     TestExecution getTestCaseDetail(String reportId, String testCaseId);
+    String getResponseBody(String reportId, String testCaseId);
+    void deleteReport(String reportId);
 }
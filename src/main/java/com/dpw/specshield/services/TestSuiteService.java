@@ -1,22 +1,29 @@
 package com.dpw.specshield.services;
 
 import com.dpw.specshield.config.KafkaConfig;
+import com.dpw.specshield.config.SchedulerProperties;
 import com.dpw.specshield.converter.SwaggerToApiModelConverter;
+import com.dpw.specshield.execution.PriorityClass;
+import com.dpw.specshield.execution.RetentionPolicy;
+import com.dpw.specshield.execution.SuiteChunk;
+import com.dpw.specshield.execution.SuiteRevision;
 import com.dpw.specshield.model.ApiSpec;
 import com.dpw.specshield.parser.SwaggerParser;
 import com.dpw.specshield.generator.TestSuiteGenerator;
 import com.dpw.specshield.model.*;
 import com.dpw.specshield.repository.TestExecutionRequestRepository;
 import com.dpw.specshield.repository.TestResultRepository;
+import com.dpw.specshield.services.impl.RunCancellation;
 import com.dpw.specshield.utils.JsonUtils;
 import com.fasterxml.jackson.databind.JsonNode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -33,6 +40,19 @@ public class TestSuiteService {
     private final KafkaConfig kafkaConfig;
     private final TestResultRepository testResultRepository;
     private final IExecutorService executorService;
+    private final SchedulerProperties schedulerProperties;
+    private final RunCancellation runCancellation;
+
+    @Value("${specshield.kafka.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${specshield.kafka.claim-check:true}")
+    private boolean claimCheck;
+
+    /** Cancel a pending or running execution; false when there is none to cancel */
+    public boolean cancel(String executionId) {
+        return runCancellation.cancel(executionId);
+    }
 
     /** Generate test suite with dynamic headers */
     public String generate(Map<String, String> headers) {
@@ -48,8 +68,11 @@ public class TestSuiteService {
         request.setOriginalId(testSuite.getId());
         request.setBaseUrl(testSuite.getBaseUrl());
         request.setTestSuite(testSuite);
+        request.setRevision(SuiteRevision.of(testSuite));
+        testSuite.setRevision(request.getRevision());
         request.setCreatedAt(LocalDateTime.now());
         request.setStatus("PENDING");
+        prioritize(request);
 
         // Save to database and get auto-generated ID
 
@@ -60,13 +83,21 @@ public class TestSuiteService {
         request.setTestResultId(autoGeneratedId);
         savedRequest = testExecutionRequestRepository.save(request);
 
-        // Publish to Kafka
-        kafkaTemplate.send(kafkaConfig.getTestExecutionTopic(), autoGeneratedId, savedRequest);
-        log.info("Published test execution request to Kafka with ID: {}", autoGeneratedId);
+        publish(savedRequest, autoGeneratedId);
 
         return autoGeneratedId;
     }
 
+    /** Resolves the run's priority class and records it, with the tenant, on both the request and its suite. */
+    private void prioritize(TestExecutionRequest request) {
+        TestSuite testSuite = request.getTestSuite();
+        PriorityClass priority = PriorityClass.resolve(testSuite.getPriority(), testSuite.getTestCases().size(),
+                schedulerProperties.getInteractiveMaxCases());
+        testSuite.setPriority(priority.label());
+        request.setPriority(priority.label());
+        request.setTenant(testSuite.getTenant());
+    }
+
     private TestResult createInitialTestResult(TestExecutionRequest request) {
         TestResult result = new TestResult();
         result.setId(request.getId());
@@ -78,16 +109,67 @@ public class TestSuiteService {
         result.setSuccessfulTests(0);
         result.setErrorTests(0);
         result.setWarningTests(0);
-        result.setExecutions(new ArrayList<>());
+        result.setShortCircuitedTests(0);
+        result.setCancelledTests(0);
+        result.setTimedOutTests(0);
+        if (request.getTestSuite().getDeadlineMs() != null) {
+            result.setDeadlineAt(result.getExecutionStartTime().plus(Duration.ofMillis(request.getTestSuite().getDeadlineMs())));
+        }
+        result.setChunkCount(chunkCount(request.getTestSuite().getTestCases().size()));
+        result.setChunkSize(chunkSize);
         return result;
     }
 
+    /**
+     * Publishes the run as chunks of at most {@code chunk-size} test cases. Each chunk is keyed by
+     * run id and index so chunks spread over the topic's partitions and any executor node can take one.
+     * In claim-check mode a message only names the stored request and its revision; consumers load the suite.
+     * High priority runs go to their own topic, which executor nodes keep consuming while busy with bulk runs.
+     */
+    private void publish(TestExecutionRequest request, String resultId) {
+        int chunkCount = chunkCount(request.getTestSuite().getTestCases().size());
+        String topic = PriorityClass.HIGH.label().equals(request.getPriority())
+                ? kafkaConfig.getTestExecutionPriorityTopic()
+                : kafkaConfig.getTestExecutionTopic();
+
+        for (int index = 0; index < chunkCount; index++) {
+            SuiteChunk suiteChunk = new SuiteChunk(index, chunkCount);
+
+            TestExecutionRequest chunk = new TestExecutionRequest();
+            chunk.setId(request.getId());
+            chunk.setRevision(request.getRevision());
+            chunk.setTestResultId(resultId);
+            chunk.setTestSuiteName(request.getTestSuiteName());
+            chunk.setOriginalId(request.getOriginalId());
+            chunk.setBaseUrl(request.getBaseUrl());
+            chunk.setCreatedAt(request.getCreatedAt());
+            chunk.setStatus(request.getStatus());
+            chunk.setPriority(request.getPriority());
+            chunk.setTenant(request.getTenant());
+            chunk.setChunkIndex(index);
+            chunk.setChunkCount(chunkCount);
+            chunk.setChunkSize(chunkSize);
+            if (!claimCheck) {
+                chunk.setTestSuite(suiteChunk.sliceOf(request.getTestSuite(), chunkSize));
+            }
+
+            kafkaTemplate.send(topic, resultId + ":" + index, chunk);
+        }
+        log.info("Published test execution request to Kafka with ID: {} in {} chunks to {}", resultId, chunkCount, topic);
+    }
+
+    private int chunkCount(int testCaseCount) {
+        return Math.max(1, (testCaseCount + chunkSize - 1) / chunkSize);
+    }
+
     public String execute(JsonNode jsonNode) {
         log.info("Received JsonNode for execution: {}", jsonNode);
 
         try {
             TestSuite testSuite = JsonUtils.convertValue(jsonNode, TestSuite.class);
             log.info("Successfully converted JsonNode to TestSuite: {}", testSuite.getTestSuiteName());
+            RetentionPolicy.parse(testSuite.getRetention()); // reject an invalid policy before anything is queued
+            PriorityClass.parse(testSuite.getPriority());
 
             // Create and store test execution request
             TestExecutionRequest request = new TestExecutionRequest();
@@ -95,8 +177,11 @@ public class TestSuiteService {
             request.setOriginalId(testSuite.getId());
             request.setBaseUrl(testSuite.getBaseUrl());
             request.setTestSuite(testSuite);
+            request.setRevision(SuiteRevision.of(testSuite));
+            testSuite.setRevision(request.getRevision());
             request.setCreatedAt(LocalDateTime.now());
             request.setStatus("PENDING");
+            prioritize(request);
 
             // Save to database and get auto-generated ID
             TestExecutionRequest savedRequest = testExecutionRequestRepository.save(request);
@@ -106,9 +191,7 @@ public class TestSuiteService {
             request.setTestResultId(autoGeneratedId);
             savedRequest = testExecutionRequestRepository.save(request);
 
-            // Publish to Kafka
-            kafkaTemplate.send(kafkaConfig.getTestExecutionTopic(), autoGeneratedId, savedRequest);
-            log.info("Published test execution request to Kafka with ID: {}", autoGeneratedId);
+            publish(savedRequest, autoGeneratedId);
 
             return autoGeneratedId;
         } catch (Exception e) {
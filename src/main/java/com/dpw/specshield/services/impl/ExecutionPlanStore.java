@@ -0,0 +1,68 @@
+package com.dpw.specshield.services.impl;
+
+import com.dpw.specshield.execution.SuiteChunk;
+import com.dpw.specshield.model.TestExecutionRequest;
+import com.dpw.specshield.model.TestSuite;
+import com.dpw.specshield.repository.TestExecutionRequestRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Resolves the suite a Kafka message asks to run. Claim-check messages only carry the request id
+ * and revision, so the stored request is loaded from Mongo and kept in a small LRU cache, letting
+ * further chunks of the same run on this node skip the read.
+ */
+@Slf4j
+@Component
+public class ExecutionPlanStore {
+
+    private final TestExecutionRequestRepository testExecutionRequestRepository;
+    private final Map<String, TestExecutionRequest> cache;
+
+    public ExecutionPlanStore(TestExecutionRequestRepository testExecutionRequestRepository,
+                              @Value("${specshield.kafka.plan-cache-size:16}") int cacheSize) {
+        this.testExecutionRequestRepository = testExecutionRequestRepository;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TestExecutionRequest> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public TestSuite suiteFor(TestExecutionRequest message, SuiteChunk chunk) {
+        if (message.getTestSuite() != null) {
+            // Inline message, already holding just its chunk
+            return message.getTestSuite();
+        }
+
+        TestSuite testSuite = load(message).getTestSuite();
+        return chunk.isWhole() ? testSuite : chunk.sliceOf(testSuite, message.getChunkSize());
+    }
+
+    private TestExecutionRequest load(TestExecutionRequest message) {
+        synchronized (cache) {
+            TestExecutionRequest cached = cache.get(message.getId());
+            if (cached != null && Objects.equals(cached.getRevision(), message.getRevision())) {
+                return cached;
+            }
+        }
+
+        TestExecutionRequest stored = testExecutionRequestRepository.findById(message.getId())
+                .orElseThrow(() -> new RuntimeException("Test execution request not found with ID: " + message.getId()));
+        if (!Objects.equals(stored.getRevision(), message.getRevision())) {
+            log.warn("Test execution request {} is at revision {}, message was published for revision {}",
+                    stored.getId(), stored.getRevision(), message.getRevision());
+        }
+
+        synchronized (cache) {
+            cache.put(stored.getId(), stored);
+        }
+        return stored;
+    }
+}
@@ -0,0 +1,66 @@
+package com.dpw.specshield.services.impl;
+
+import com.dpw.specshield.model.TestExecution;
+import com.dpw.specshield.model.TestExecutionRecord;
+import com.dpw.specshield.model.TestResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.stream.Stream;
+
+/**
+ * Moves executions embedded in legacy {@link TestResult} documents into the
+ * {@code test_executions} collection and strips them from the header.
+ * Safe to re-run: records are upserted by id and migrated headers no longer match.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "specshield.results.migrate-embedded-executions", havingValue = "true", matchIfMissing = true)
+public class ExecutionStorageMigration implements ApplicationRunner {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Query legacyResults = Query.query(Criteria.where("executions.0").exists(true));
+        int migrated = 0;
+
+        try (Stream<TestResult> results = mongoTemplate.stream(legacyResults, TestResult.class)) {
+            for (TestResult result : (Iterable<TestResult>) results::iterator) {
+                migrate(result);
+                migrated++;
+            }
+        } catch (Exception e) {
+            log.error("Migration of embedded executions stopped after {} results: {}", migrated, e.getMessage());
+            return;
+        }
+
+        if (migrated > 0) {
+            log.info("Migrated embedded executions of {} test results into test_executions", migrated);
+        }
+    }
+
+    private void migrate(TestResult result) {
+        BulkOperations records = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TestExecutionRecord.class);
+        for (TestExecution execution : result.getExecutions()) {
+            TestExecutionRecord record = TestExecutionRecord.of(result.getId(), execution);
+            records.replaceOne(Query.query(Criteria.where("_id").is(record.getId())), record, FindAndReplaceOptions.options().upsert());
+        }
+        records.execute();
+
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(result.getId())),
+                new Update().unset("executions"), TestResult.class);
+        log.debug("Migrated {} executions for result {}", result.getExecutions().size(), result.getId());
+    }
+}
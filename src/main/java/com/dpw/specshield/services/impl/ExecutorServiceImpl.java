@@ -1,672 +1,397 @@
 package com.dpw.specshield.services.impl;
 
+import com.dpw.specshield.config.RetryProperties;
+import com.dpw.specshield.execution.CapturedResponse;
+import com.dpw.specshield.execution.CircuitOpenException;
+import com.dpw.specshield.execution.HostBulkhead;
+import com.dpw.specshield.execution.HostBulkheads;
+import com.dpw.specshield.execution.HostCircuitBreaker;
+import com.dpw.specshield.execution.HostCircuitBreakers;
+import com.dpw.specshield.execution.HostRateLimiter;
+import com.dpw.specshield.execution.HttpClientPool;
+import com.dpw.specshield.execution.PreparedRequest;
+import com.dpw.specshield.execution.PriorityClass;
+import com.dpw.specshield.execution.RequestCoalescer;
+import com.dpw.specshield.execution.RequestFlight;
+import com.dpw.specshield.execution.RequestPlan;
+import com.dpw.specshield.execution.RequestPlanCompiler;
+import com.dpw.specshield.execution.RetentionPolicy;
+import com.dpw.specshield.execution.RetryPlan;
+import com.dpw.specshield.execution.RunControl;
+import com.dpw.specshield.execution.RunStop;
+import com.dpw.specshield.execution.RunStoppedException;
+import com.dpw.specshield.execution.SuiteChunk;
+import com.dpw.specshield.execution.StreamingResponseReader;
+import com.dpw.specshield.execution.TargetHost;
+import com.dpw.specshield.execution.TestExecutionEngine;
 import com.dpw.specshield.model.ExpectedResult;
-import com.dpw.specshield.model.TestAssertion;
 import com.dpw.specshield.model.TestCase;
 import com.dpw.specshield.model.TestExecution;
-import com.dpw.specshield.model.TestExecutionRequest;
 import com.dpw.specshield.model.TestResult;
 import com.dpw.specshield.model.TestSuite;
 import com.dpw.specshield.services.IExecutorService;
-import com.dpw.specshield.repository.TestResultRepository;
-import com.dpw.specshield.repository.TestExecutionRequestRepository;
-import com.dpw.specshield.utils.JsonUtils;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.jayway.jsonpath.JsonPath;
+import com.dpw.specshield.validation.AssertionCompiler;
+import com.dpw.specshield.validation.CompiledExpectation;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.*;
-import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.Acknowledgment;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.HttpServerErrorException;
-import org.springframework.web.client.RestTemplate;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.io.IOException;
 import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
-import static org.springframework.http.HttpMethod.DELETE;
-import static org.springframework.http.HttpMethod.GET;
-import static org.springframework.http.HttpMethod.HEAD;
-import static org.springframework.http.HttpMethod.OPTIONS;
-import static org.springframework.http.HttpMethod.POST;
-import static org.springframework.http.HttpMethod.PUT;
-
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "specshield.executor.mode", havingValue = "blocking", matchIfMissing = true)
 public class ExecutorServiceImpl implements IExecutorService {
 
-    private final RestTemplate restTemplate;
-    private final TestResultRepository testResultRepository;
-    private final TestExecutionRequestRepository testExecutionRequestRepository;
-    private final ObjectMapper objectMapper;
+    private final HttpClientPool httpClientPool;
+    private final TestExecutionEngine executionEngine;
+    private final TestExecutionAssembler executionAssembler;
+    private final TestResultRecorder resultRecorder;
+    private final AssertionCompiler assertionCompiler;
+    private final RequestPlanCompiler requestPlanCompiler;
+    private final StreamingResponseReader responseReader;
+    private final HostBulkheads hostBulkheads;
+    private final HostCircuitBreakers circuitBreakers;
+    private final HostRateLimiter rateLimiter;
+    private final RetryProperties retryProperties;
+    private final RunCancellation runCancellation;
+
+    @Value("${specshield.executor.coalescing.enabled:false}")
+    private boolean coalescingEnabled;
 
     @Override
     public CompletableFuture<String> executeTestSuite(TestSuite testSuite) {
         return executeTestSuiteWithRealTimeUpdates(testSuite, null);
     }
 
-    public CompletableFuture<String> executeTestSuiteWithRealTimeUpdates(TestSuite testSuite, TestResult existingResult) {
-        return CompletableFuture.supplyAsync(() -> {
+    @Override
+    public CompletableFuture<String> executeTestSuiteWithRealTimeUpdates(TestSuite testSuite, TestResult existingResult, SuiteChunk chunk) {
+        return executionEngine.supply(() -> {
             LocalDateTime startTime = LocalDateTime.now();
             log.info("Starting test suite execution: {}", testSuite.getTestSuiteName());
 
-            Map<String, List<TestCase>> groupedByUrl = groupTestCasesByUrl(testSuite.getTestCases());
-
-            TestResult testResult;
-            if (existingResult != null) {
-                testResult = existingResult;
-                testResult.setExecutionStartTime(startTime);
-                testResult.setStatus("PROCESSING");
-                testResultRepository.save(testResult);
-            } else {
-                testResult = new TestResult();
-                testResult.setTestSuiteName(testSuite.getTestSuiteName());
-                testResult.setExecutionStartTime(startTime);
-                testResult.setStatus("PROCESSING");
-                testResult.setTotalTests(testSuite.getTestCases().size());
-                testResult.setPendingTests(testSuite.getTestCases().size());
-                testResult.setSuccessfulTests(0);
-                testResult.setErrorTests(0);
-                testResult.setWarningTests(0);
-                testResult.setExecutions(new ArrayList<>());
-
-                if (testSuite.getId() != null) {
-                    testResult.setId(testSuite.getId());
-                }
-                testResult = testResultRepository.save(testResult);
-            }
-
-            TestResult finalTestResult = testResult;
-            List<CompletableFuture<List<TestExecution>>> futures = groupedByUrl.entrySet()
-                    .stream()
-                    .map(entry -> executeTestGroupWithUpdates(entry.getKey(), entry.getValue(), testSuite.getBaseUrl(), finalTestResult))
-                    .toList();
-
-            List<TestExecution> allExecutions = futures.stream()
-                    .map(CompletableFuture::join)
-                    .flatMap(List::stream)
-                    .collect(Collectors.toList());
-
-            LocalDateTime endTime = LocalDateTime.now();
-            Duration duration = Duration.between(startTime, endTime);
-
-            synchronized (updateLock) {
-                TestResult latestResult = testResultRepository.findById(testResult.getId()).orElse(testResult);
-                latestResult.setExecutionEndTime(endTime);
-                latestResult.setExecutionDuration(formatDuration(duration));
-                latestResult.setStatus("COMPLETED");
-                latestResult.setPendingTests(0);
-
-                if (latestResult.getExecutions() == null) {
-                    latestResult.setExecutions(new ArrayList<>());
-                }
+            Map<TargetGroup, List<TestCase>> groupedByTarget = groupTestCasesByTarget(testSuite.getTestCases(), testSuite.getBaseUrl());
+            Map<TestCase, CompiledExpectation> expectations = assertionCompiler.compile(testSuite);
+            RequestPlan plan = requestPlanCompiler.compile(testSuite);
+            RetentionPolicy retention = RetentionPolicy.parse(testSuite.getRetention());
 
-                for (TestExecution execution : allExecutions) {
-                    boolean exists = latestResult.getExecutions().stream()
-                        .anyMatch(e -> execution.getId().equals(e.getId()));
-                    if (!exists) {
-                        latestResult.getExecutions().add(execution);
-                    }
-                }
+            TestResult testResult = resultRecorder.startRun(testSuite, existingResult, startTime);
+            RunControl control = runCancellation.open(testResult, testSuite);
 
-                testResult = testResultRepository.save(latestResult);
+            List<TestExecution> allExecutions;
+            try {
+                // The priority is resolved when the suite is submitted; suites executed directly run as normal
+                PriorityClass priority = PriorityClass.parse(testSuite.getPriority());
+                TestExecutionEngine.SuiteScope suiteScope = executionEngine.openSuite(control, testSuite.getMaxConcurrency(),
+                        testSuite.getTenant(), priority != null ? priority : PriorityClass.NORMAL);
+                RequestCoalescer<CompletableFuture<RequestFlight>> coalescer = RequestCoalescer.forRun(testSuite, coalescingEnabled);
+                SuiteRun run = new SuiteRun(testSuite, testResult, suiteScope, httpClientPool.requestConfigFor(testSuite), plan, expectations,
+                        coalescer != null ? readExpectations(testSuite.getTestCases(), plan, expectations) : expectations, retention, coalescer);
+                List<CompletableFuture<List<TestExecution>>> futures = groupedByTarget.entrySet()
+                        .stream()
+                        .map(entry -> executeTestGroupWithUpdates(entry.getKey(), entry.getValue(), run))
+                        .toList();
+
+                allExecutions = futures.stream()
+                        .map(CompletableFuture::join)
+                        .flatMap(List::stream)
+                        .collect(Collectors.toList());
+            } catch (RuntimeException e) {
+                resultRecorder.abandonChunk(testResult);
+                throw e;
+            } finally {
+                runCancellation.close(control);
             }
 
+            List<String> hosts = groupedByTarget.keySet().stream().map(TargetGroup::host).toList();
+            resultRecorder.recordHostStates(testResult, circuitBreakers.snapshot(hosts), hostBulkheads.snapshot(hosts));
+            TestResult completedResult = resultRecorder.completeRun(testResult, allExecutions, startTime, chunk, control.stopReason());
+
             log.info("Test suite execution completed: {} with {} tests",
                     testSuite.getTestSuiteName(), allExecutions.size());
 
-            return testResult.getId();
+            return completedResult.getId();
         });
     }
 
-    private CompletableFuture<List<TestExecution>> executeTestGroupWithUpdates(String urlGroup, List<TestCase> testCases, String baseUrl, TestResult testResult) {
-        return CompletableFuture.supplyAsync(() -> {
-            log.info("Executing {} test cases for URL group: {}", testCases.size(), urlGroup);
-
-            return testCases.stream()
-                    .map(testCase -> {
-                        TestExecution execution = executeTestCase(testCase, baseUrl);
-
-                        updateTestResultRealTime(testResult, execution);
-
-                        return execution;
-                    })
-                    .collect(Collectors.toList());
-        });
+    private CompletableFuture<List<TestExecution>> executeTestGroupWithUpdates(TargetGroup group, List<TestCase> testCases, SuiteRun suiteRun) {
+        log.info("Executing {} test cases for {}{}", testCases.size(), group.host(), group.pathFamily());
+        HostBulkhead bulkhead = hostBulkheads.forHost(group.host());
+        HostCircuitBreaker breaker = circuitBreakers.forHost(group.host());
+
+        // Cases are fed in as the host's bulkhead admits them, so a large group waits its turn instead of failing
+        return executionEngine.supply(() -> feedTestCases(testCases, suiteRun, bulkhead, breaker))
+                .thenCompose(futures -> CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                        .thenApply(ignored -> futures.stream()
+                                .map(CompletableFuture::join)
+                                .collect(Collectors.toList())));
     }
 
-    private final Object updateLock = new Object();
-
-    private void updateTestResultRealTime(TestResult testResult, TestExecution execution) {
-        synchronized (updateLock) {
-            int maxRetries = 3;
-            try {
-                for (int retry = 0; retry < maxRetries; retry++) {
+    private List<CompletableFuture<TestExecution>> feedTestCases(List<TestCase> testCases, SuiteRun suiteRun,
+                                                                 HostBulkhead bulkhead, HostCircuitBreaker breaker) {
+        RunControl control = suiteRun.scope().getControl();
+        List<CompletableFuture<TestExecution>> futures = new ArrayList<>(testCases.size());
+        // Registered with the run, so a stop interrupts a wait for admission
+        boolean entered = control.enter();
+        boolean admitting = entered;
+        try {
+            for (TestCase testCase : testCases) {
+                CaseRun run = new CaseRun(testCase, suiteRun.plan().requestFor(testCase), suiteRun.expectations().get(testCase),
+                        suiteRun.readExpectations().get(testCase), suiteRun.retention(), suiteRun.requestConfig(), suiteRun.scope(),
+                        bulkhead, breaker, RetryPlan.resolve(suiteRun.testSuite().getRetry(), testCase.getRetry(), retryProperties),
+                        suiteRun.coalescer(), new AtomicReference<>());
+                boolean admitted = false;
+                if (admitting) {
                     try {
-                        TestResult latestResult = testResultRepository.findById(testResult.getId()).orElse(testResult);
-
-                        if (latestResult.getExecutions() == null) {
-                            latestResult.setExecutions(new ArrayList<>());
-                        }
-
-                        boolean executionExists = latestResult.getExecutions().stream()
-                            .anyMatch(e -> execution.getId().equals(e.getId()));
-
-                        if (!executionExists) {
-                            latestResult.getExecutions().add(execution);
-
-                            if ("success".equals(execution.getResult())) {
-                                latestResult.setSuccessfulTests(latestResult.getSuccessfulTests() + 1);
-                            } else if ("error".equals(execution.getResult())) {
-                                latestResult.setErrorTests(latestResult.getErrorTests() + 1);
-                            } else if ("warning".equals(execution.getResult())) {
-                                latestResult.setWarningTests(latestResult.getWarningTests() + 1);
-                            }
-
-                            int completedTests = latestResult.getSuccessfulTests() + latestResult.getErrorTests() + latestResult.getWarningTests();
-                            latestResult.setPendingTests(latestResult.getTotalTests() - completedTests);
-
-                            testResultRepository.save(latestResult);
-
-                            log.debug("Updated test result in real-time: {}/{} tests completed",
-                                     completedTests, latestResult.getTotalTests());
-                        } else {
-                            log.debug("Execution {} already exists, skipping duplicate update", execution.getId());
-                        }
-                        break;
-                    } catch (Exception e) {
-                        if (retry == maxRetries - 1) {
-                            throw e;
-                        }
-                        log.warn("Retry {} failed for test result update: {}", retry + 1, e.getMessage());
-                        Thread.sleep(100);
+                        bulkhead.admit();
+                        admitted = true;
+                    } catch (InterruptedException e) {
+                        // The run was stopped; the cases left are recorded as stopped without being sent
+                        admitting = false;
                     }
                 }
 
-            } catch (Exception e) {
-                log.error("Failed to update test result in real-time after {} retries: {}", maxRetries, e.getMessage());
+                CompletableFuture<TestExecution> execution = executeTestCase(run)
+                        .exceptionally(e -> rejectedExecution(run.testCase(), e));
+                if (admitted) {
+                    execution = execution.whenComplete((result, e) -> bulkhead.release());
+                }
+                futures.add(execution.thenApply(result -> {
+                    resultRecorder.recordExecution(suiteRun.testResult(), result);
+                    return result;
+                }));
             }
-        }
-    }
-
-    @KafkaListener(topics = "${specshield.kafka.topics.test-execution}")
-    public void processTestExecutionRequest(@Header(KafkaHeaders.RECEIVED_KEY) String executionId,
-                                          @Payload TestExecutionRequest request,
-                                          Acknowledgment acknowledgment) {
-        log.info("Received test execution request from Kafka with ID: {}", executionId);
-
-        try {
-            request.setStatus("PROCESSING");
-            testExecutionRequestRepository.save(request);
-
-            TestResult initialResult = testResultRepository.findById(executionId).get();
-
-            executeTestSuiteAsync(request, initialResult);
-
-            acknowledgment.acknowledge();
-            log.debug("Message acknowledged for execution ID: {}", executionId);
-
-        } catch (Exception e) {
-            log.error("Error processing test execution request {}: {}", executionId, e.getMessage());
-            try {
-                request.setStatus("FAILED");
-                testExecutionRequestRepository.save(request);
-                acknowledgment.acknowledge();
-                log.debug("Message acknowledged after failure for execution ID: {}", executionId);
-            } catch (Exception saveException) {
-                log.error("Failed to save error status for execution {}: {}", executionId, saveException.getMessage());
-                throw saveException;
+        } finally {
+            if (entered) {
+                control.exit();
             }
         }
+        return futures;
     }
 
-    private void executeTestSuiteAsync(TestExecutionRequest request, TestResult testResult) {
-        CompletableFuture.runAsync(() -> {
-            try {
-                log.info("Starting asynchronous test suite execution: {}", request.getTestSuiteName());
-
-                String resultId = executeTestSuiteWithRealTimeUpdates(request.getTestSuite(), testResult).join();
-
-                request.setStatus("COMPLETED");
-                testExecutionRequestRepository.save(request);
-
-                log.info("Completed asynchronous test suite execution: {} with result ID: {}",
-                        request.getTestSuiteName(), resultId);
-
-            } catch (Exception e) {
-                log.error("Error in asynchronous test execution for request {}: {}",
-                         request.getId(), e.getMessage());
-
-                testResult.setStatus("FAILED");
-                testResultRepository.save(testResult);
-                request.setStatus("FAILED");
-                testExecutionRequestRepository.save(request);
-            }
-        });
-    }
-
-    private Map<String, List<TestCase>> groupTestCasesByUrl(List<TestCase> testCases) {
+    private Map<TargetGroup, List<TestCase>> groupTestCasesByTarget(List<TestCase> testCases, String baseUrl) {
         return testCases.stream()
-                .collect(Collectors.groupingBy(tc -> extractBaseUrl(tc.getEndpoint().getUrl())));
-    }
-
-    private String extractBaseUrl(String url) {
-        if (url.startsWith("http")) {
-            return url.split("/")[2];
-        }
-        return "localhost";
+                .collect(Collectors.groupingBy(tc -> targetGroupOf(tc.getEndpoint().getUrl(), baseUrl),
+                        LinkedHashMap::new, Collectors.toList()));
     }
 
+    private TargetGroup targetGroupOf(String url, String baseUrl) {
+        boolean absolute = url.startsWith("http");
+        String host = TargetHost.keyOf(absolute ? url : baseUrl);
 
-    private TestExecution executeTestCase(TestCase testCase, String baseUrl) {
-        LocalDateTime executionTime = LocalDateTime.now();
-        TestExecution execution = new TestExecution();
-
-        execution.setId(testCase.getTestCaseId());
-        execution.setTimestamp(executionTime);
-        execution.setScenario(buildScenario(testCase));
-        execution.setExpectedResult(testCase.getExpected());
-        execution.setContractPath(testCase.getEndpoint().getUrl());
-        execution.setHttpMethod(testCase.getEndpoint().getMethod().toLowerCase());
-
-        try {
-            ResponseEntity<String> response = makeHttpRequest(testCase, baseUrl);
-            String fullUrl = buildFullUrl(testCase, baseUrl);
-            execution.setFullRequestPath(fullUrl);
-
-            execution.setResponseDetails(buildResponseDetails(response));
-
-            boolean testPassed = validateResponse(response, execution.getExpectedResult());
-
-            if (testPassed) {
-                execution.setResult("success");
-                execution.setResultDetails(String.format("Response matched expected: actual [%d]",
-                        response.getStatusCode().value()));
-            } else {
-                execution.setResult("error");
-                execution.setResultDetails(String.format("Unexpected behaviour: expected [%d], actual [%d]",
-                        execution.getExpectedResult().getStatusCode(), response.getStatusCode().value()));
-            }
-
-            execution.setRequestDetails(buildRequestDetails(testCase, fullUrl));
-
-        } catch (HttpClientErrorException | HttpServerErrorException e) {
-            String fullUrl = buildFullUrl(testCase, baseUrl);
-            execution.setFullRequestPath(fullUrl);
-            execution.setRequestDetails(buildRequestDetails(testCase, fullUrl));
-            execution.setResponseDetails(buildResponseDetailsFromRestException(e));
-
-            // Check if this is an expected error status code
-            boolean testPassed = validateResponseFromRestException(e, execution.getExpectedResult());
+        String path = absolute ? url.replaceFirst("^[a-zA-Z]+://[^/]*", "") : url;
+        int end = path.indexOf('/', 1);
+        String pathFamily = end > 0 ? path.substring(0, end) : path.replaceFirst("\\?.*$", "");
+        return new TargetGroup(host, pathFamily);
+    }
 
-            if (testPassed) {
-                execution.setResult("success");
-                execution.setResultDetails(String.format("Response matched expected: actual [%d]", e.getStatusCode().value()));
-            } else {
-                execution.setResult("error");
-                execution.setResultDetails(String.format("Unexpected behaviour: expected [%d], actual [%d]",
-                        execution.getExpectedResult().getStatusCode(), e.getStatusCode().value()));
-            }
-        } catch (Exception e) {
-            log.error("Error executing test case {}: {}", testCase.getTestCaseId(), e.getMessage());
-            execution.setResult("error");
-            execution.setResultDetails(String.format("Execution Error: %s", e.getMessage()));
-
-            // Set empty response details for general exceptions
-            TestExecution.ResponseDetails details = new TestExecution.ResponseDetails();
-            details.setResponseStatus(null);
-            details.setResponseBody("Error occurred before receiving response: " + e.getMessage());
-            details.setResponseHeaders(new HashMap<>());
-            execution.setResponseDetails(details);
+    private TestExecution rejectedExecution(TestCase testCase, Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        TestExecution execution = executionAssembler.newExecution(testCase);
+        if (cause instanceof RunStoppedException stopped) {
+            executionAssembler.applyStop(execution, testCase, stopped.getReason());
+        } else {
+            executionAssembler.applyError(execution, testCase, cause);
         }
-
         return execution;
     }
 
-    private ResponseEntity<String> makeHttpRequest(TestCase testCase, String baseUrl) {
-        String url = buildFullUrl(testCase, baseUrl);
-        HttpMethod method = HttpMethod.valueOf(testCase.getEndpoint().getMethod().toUpperCase());
-
-        // Build headers
-        HttpHeaders headers = new HttpHeaders();
-        if (testCase.getRequest().getHeaders() != null) {
-            testCase.getRequest().getHeaders().forEach(headers::add);
-        }
-
-        // Build request body
-        String requestBody = null;
-        if (testCase.getRequest().getBody() != null) {
-            requestBody = JsonUtils.toJsonString(testCase.getRequest().getBody());
-        }
-
-        // Create HTTP entity
-        HttpEntity<String> entity = new HttpEntity<>(requestBody, headers);
-
-        // Make the request using RestTemplate
-        return restTemplate.exchange(url, method, entity, String.class);
+    /**
+     * Runs the case's attempts, or attaches to an identical request already sent in this run.
+     * Waits between attempts, and on a coalesced call, hold no permit, bulkhead slot or thread.
+     */
+    private CompletableFuture<TestExecution> executeTestCase(CaseRun run) {
+        CompletableFuture<RequestFlight> flight = run.coalescer() != null
+                ? run.coalescer().join(run.request(), () -> runAttempts(run, 1, new ArrayList<>()))
+                : runAttempts(run, 1, new ArrayList<>());
+        return flight.thenApply(result -> {
+            TestExecution execution = executionAssembler.newExecution(run.testCase());
+            executionAssembler.applyFlight(execution, run.testCase(), run.request(), result, run.expectation(), run.retention());
+            return execution;
+        });
     }
 
-    private String buildFullUrl(TestCase testCase, String baseUrl) {
-        String url = testCase.getEndpoint().getUrl();
-
-        if (testCase.getRequest().getPathParams() != null) {
-            for (Map.Entry<String, String> param : testCase.getRequest().getPathParams().entrySet()) {
-                url = url.replace("{" + param.getKey() + "}", param.getValue());
-            }
+    private CompletableFuture<RequestFlight> runAttempts(CaseRun run, int number, List<TestExecution.Attempt> history) {
+        RunStop stop = run.stopReason();
+        if (stop != null) {
+            return CompletableFuture.completedFuture(new RequestFlight(run.testCase().getTestCaseId(), null,
+                    new RunStoppedException(stop), List.copyOf(history), null));
         }
+        return sendAttempt(run, number).thenCompose(outcome -> {
+            history.add(outcome.attempt());
+            Duration backoff = run.retryPlan().backoff(number);
+            Instant deadline = run.testDeadline().get();
+            // A retry that could not start within the case's budget is not sent; the attempt just made stands
+            boolean retryFits = deadline == null || !Instant.now().plus(backoff).isAfter(deadline);
+            if (number < run.retryPlan().maxAttempts() && isRetryable(run, outcome) && retryFits) {
+                log.debug("Retrying test case {} in {}ms after attempt {}", run.testCase().getTestCaseId(), backoff.toMillis(), number);
+                // A stop during the backoff ends the wait early; the next round then records it
+                return executionEngine.after(backoff)
+                        .acceptEither(run.control().whenStopped().thenAccept(reason -> { }), ignored -> { })
+                        .thenCompose(ignored -> runAttempts(run, number + 1, history));
+            }
+            // Only the final attempt's response is validated; earlier attempts leave their timings
+            return CompletableFuture.completedFuture(new RequestFlight(run.testCase().getTestCaseId(), outcome.response(),
+                    outcome.error(), List.copyOf(history), outcome.attempt().getDurationMs()));
+        });
+    }
 
-        if (testCase.getRequest().getQueryParams() != null && !testCase.getRequest().getQueryParams().isEmpty()) {
-            StringBuilder urlBuilder = new StringBuilder(url);
-            urlBuilder.append("?");
-            testCase.getRequest().getQueryParams().entrySet().forEach(entry ->
-                urlBuilder.append(entry.getKey()).append("=").append(entry.getValue()).append("&"));
-            url = urlBuilder.toString().replaceAll("&$", "");
+    // A hedge is sent if the attempt has not answered in time; whichever answers first is kept
+    private CompletableFuture<AttemptOutcome> sendAttempt(CaseRun run, int number) {
+        CompletableFuture<AttemptOutcome> primary = executionEngine.submit(run.scope(), run.bulkhead(), () -> attempt(run, number, false));
+        Duration hedgeAfter = run.retryPlan().hedgeAfter(run.testCase().getEndpoint().getMethod());
+        if (hedgeAfter == null) {
+            return primary;
         }
-
-        String fullUrl = baseUrl + url;
-        return fullUrl;
+        CompletableFuture<AttemptOutcome> hedge = executionEngine.after(hedgeAfter)
+                .thenCompose(ignored -> primary.isDone()
+                        ? primary
+                        : executionEngine.submit(run.scope(), run.bulkhead(), () -> attempt(run, number, true)));
+        return primary.applyToEither(hedge, outcome -> outcome);
     }
 
-
-    private boolean validateResponse(ResponseEntity<String> response, ExpectedResult expectedResult) {
-        // First validate the primary status code expectation
-        if (!Integer.valueOf(response.getStatusCode().value()).equals(expectedResult.getStatusCode())) {
+    private boolean isRetryable(CaseRun run, AttemptOutcome outcome) {
+        if (!run.retryPlan().retries(run.testCase().getEndpoint().getMethod())) {
             return false;
         }
-
-        // Then validate all assertions
-        if (expectedResult.getAssertions() != null) {
-            for (TestAssertion assertion : expectedResult.getAssertions()) {
-                if (!validateAssertion(response, assertion)) {
-                    return false;
-                }
-            }
+        if (outcome.error() != null) {
+            return RetryPlan.isTransient(outcome.error());
         }
-
-        return true;
+        ExpectedResult expected = run.testCase().getExpected();
+        return run.retryPlan().isRetryableStatus(outcome.response().statusCode(), expected != null ? expected.getStatusCode() : null);
     }
 
-    private boolean validateAssertion(ResponseEntity<String> response, TestAssertion assertion) {
-        // Handle status code assertions
-        if ("statusCode".equals(assertion.getType())) {
-            int statusCode = response.getStatusCode().value();
-            switch (assertion.getCondition()) {
-                case "EQUALS":
-                    return Objects.equals(String.valueOf(statusCode), assertion.getExpectedValue());
-                case "IN_RANGE":
-                    return statusCode >= assertion.getMin() && statusCode <= assertion.getMax();
-                default:
-                    log.warn("Unknown status code assertion condition: {}", assertion.getCondition());
-                    return true;
-            }
-        }
-
-        // Handle body assertions
-        if ("body".equals(assertion.getType()) && response.getBody() != null) {
-            return validateTestAssertion(response.getBody(), assertion);
+    private AttemptOutcome attempt(CaseRun run, int number, boolean hedged) {
+        TestExecution.Attempt attempt = new TestExecution.Attempt();
+        attempt.setNumber(number);
+        attempt.setStartedAt(LocalDateTime.now());
+        attempt.setHedged(hedged ? true : null);
+
+        // The case's budget starts with its first attempt
+        run.testDeadline().compareAndSet(null, run.control().testDeadline(Instant.now()));
+        RunStop stop = run.stopReason();
+        if (stop != null) {
+            attempt.setError(stop.executionResult());
+            return new AttemptOutcome(null, new RunStoppedException(stop), attempt);
         }
 
-        // For other types, use the original validation method
-        if (response.getBody() != null) {
-            return validateTestAssertion(response.getBody(), assertion);
+        HostCircuitBreaker breaker = run.breaker();
+        HostBulkhead bulkhead = run.bulkhead();
+        String host = bulkhead.getHost();
+        if (breaker != null && !breaker.tryAcquire()) {
+            attempt.setError("circuit open");
+            return new AttemptOutcome(null, new CircuitOpenException(host), attempt);
         }
 
-        return true;
-    }
-
-
-    private boolean validateTestAssertion(String responseBody, TestAssertion assertion) {
+        CapturedResponse response;
+        Runnable disarm = run.control().interruptAt(run.testDeadline().get());
         try {
-            // Handle status code assertions differently - they don't use JsonPath
-            if ("statusCode".equals(assertion.getType())) {
-                // Status code assertions are handled at the response level, not here
-                return true;
-            }
-
-            // For body assertions, we need a jsonPath
-            if (assertion.getJsonPath() == null || assertion.getJsonPath().isEmpty()) {
-                log.warn("JsonPath is required for non-statusCode assertion type: {} with condition: {}",
-                         assertion.getType(), assertion.getCondition());
-                return false;
-            }
-
-            Object value = JsonPath.read(responseBody, assertion.getJsonPath());
-
-            switch (assertion.getCondition()) {
-                case "NOT_EMPTY":
-                    return value != null && !value.toString().isEmpty();
-                case "NOT_NULL":
-                    return value != null;
-                case "NOT_NULL_OR_EMPTY":
-                    return value != null && !value.toString().trim().isEmpty();
-                case "EQUALS":
-                    return Objects.equals(value != null ? value.toString() : null, assertion.getExpectedValue());
-                case "IN_RANGE":
-                    if (value == null) return false;
-                    try {
-                        int intValue = Integer.parseInt(value.toString());
-                        return intValue >= assertion.getMin() && intValue <= assertion.getMax();
-                    } catch (NumberFormatException e) {
-                        log.warn("Cannot convert value {} to integer for IN_RANGE assertion", value);
-                        return false;
-                    }
-                default:
-                    log.warn("Unknown assertion condition: {}", assertion.getCondition());
-                    return true;
-            }
+            response = makeHttpRequest(run.request(), attempt, run.readExpectation(), host, run.requestConfig());
         } catch (Exception e) {
-            log.warn("Failed to validate test assertion {} with path {}: {}",
-                     assertion.getCondition(), assertion.getJsonPath(), e.getMessage());
-            return false;
-        }
-    }
-
-    private String buildScenario(TestCase testCase) {
-        return String.format("Execute %s request to %s",
-                testCase.getEndpoint().getMethod(), testCase.getEndpoint().getUrl());
-    }
-
-
-    private TestExecution.RequestDetails buildRequestDetails(TestCase testCase, String fullUrl) {
-        TestExecution.RequestDetails details = new TestExecution.RequestDetails();
-        details.setHeaders(testCase.getRequest().getHeaders());
-
-        if (testCase.getRequest().getBody() != null) {
-            try {
-                details.setPayload(objectMapper.writeValueAsString(testCase.getRequest().getBody()));
-            } catch (Exception e) {
-                details.setPayload(testCase.getRequest().getBody().toString());
+            stop = run.stopReason();
+            if (stop != null) {
+                // Aborted by us, not failed by the host: neither the bulkhead nor the breaker counts it
+                if (breaker != null) {
+                    breaker.onAbandoned();
+                }
+                attempt.setError(stop.executionResult());
+                return new AttemptOutcome(null, new RunStoppedException(stop), attempt);
             }
-        } else {
-            details.setPayload(null);
+            bulkhead.onFailure();
+            HostCircuitBreakers.recordError(breaker, e);
+            attempt.setError(e.getMessage());
+            return new AttemptOutcome(null, e, attempt);
+        } finally {
+            disarm.run();
         }
+        bulkhead.onResponse(attempt.getDurationMs(), response.statusCode());
+        HostCircuitBreakers.recordStatus(breaker, response.statusCode());
+        rateLimiter.onResponse(host, response.statusCode(), response.headers());
 
-        details.setCurl(buildCurlCommand(testCase, fullUrl));
-        return details;
+        attempt.setResponseStatus(response.statusCode());
+        return new AttemptOutcome(response, null, attempt);
     }
 
-    private String buildCurlCommand(TestCase testCase, String fullUrl) {
-        StringBuilder curl = new StringBuilder();
-        curl.append("curl -X ").append(testCase.getEndpoint().getMethod().toUpperCase())
-            .append(" '").append(fullUrl).append("'");
-
-        if (testCase.getRequest().getHeaders() != null) {
-            testCase.getRequest().getHeaders().forEach((key, value) ->
-                curl.append(" -H '").append(key).append(": ").append(value).append("'"));
-        }
-
-        if (testCase.getRequest().getBody() != null) {
-            try {
-                String bodyJson = objectMapper.writeValueAsString(testCase.getRequest().getBody());
-                curl.append(" -d '").append(bodyJson).append("'");
-            } catch (Exception e) {
-                curl.append(" -d '").append(testCase.getRequest().getBody().toString()).append("'");
-            }
+    private CapturedResponse makeHttpRequest(PreparedRequest request, TestExecution.Attempt attempt, CompiledExpectation expectation,
+                                             String host, RequestConfig requestConfig) throws InterruptedException, IOException {
+        // Paced per host across nodes; the response time starts once the token is held
+        rateLimiter.acquire(host);
+        long sentAt = System.nanoTime();
+        try {
+            // Every status, 4xx and 5xx included, is read straight off the connection and validated the same way
+            return httpClientPool.exchange(request, requestConfig, (statusCode, headers, body, call) ->
+                    responseReader.read(statusCode, headers, body, expectation, call));
+        } finally {
+            attempt.setDurationMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sentAt));
         }
-
-        return curl.toString();
     }
 
-    private String formatDuration(Duration duration) {
-        return duration.toMillis() + "ms";
+    /**
+     * Coalesced cases share one response, so it is read for the stream targets of all of them;
+     * every other case reads for its own expectation.
+     */
+    private Map<TestCase, CompiledExpectation> readExpectations(List<TestCase> testCases, RequestPlan plan,
+                                                                Map<TestCase, CompiledExpectation> expectations) {
+        Map<TestCase, CompiledExpectation> readExpectations = new IdentityHashMap<>(expectations);
+        testCases.stream()
+                .filter(testCase -> plan.requestFor(testCase).coalescingKey() != null)
+                .collect(Collectors.groupingBy(testCase -> plan.requestFor(testCase).coalescingKey()))
+                .values()
+                .forEach(cases -> {
+                    CompiledExpectation merged = CompiledExpectation.forReading(cases.stream().map(expectations::get).toList());
+                    cases.forEach(testCase -> readExpectations.put(testCase, merged));
+                });
+        return readExpectations;
     }
 
-    private TestExecution.ResponseDetails buildResponseDetails(ResponseEntity<String> response) {
-        TestExecution.ResponseDetails details = new TestExecution.ResponseDetails();
-        details.setResponseStatus(response.getStatusCode().value());
-        details.setResponseBody(response.getBody());
-
-        Map<String, String> headerMap = new HashMap<>();
-        response.getHeaders().forEach((key, values) -> {
-            if (values != null && !values.isEmpty()) {
-                headerMap.put(key, String.join(", ", values));
-            }
-        });
-        details.setResponseHeaders(headerMap);
-
-        return details;
+    /** What every case of one suite run shares. */
+    private record SuiteRun(TestSuite testSuite, TestResult testResult, TestExecutionEngine.SuiteScope scope, RequestConfig requestConfig,
+                            RequestPlan plan, Map<TestCase, CompiledExpectation> expectations,
+                            Map<TestCase, CompiledExpectation> readExpectations, RetentionPolicy retention,
+                            RequestCoalescer<CompletableFuture<RequestFlight>> coalescer) {
     }
 
+    /** Everything one test case needs across its attempts. */
+    private record CaseRun(TestCase testCase, PreparedRequest request, CompiledExpectation expectation,
+                           CompiledExpectation readExpectation, RetentionPolicy retention, RequestConfig requestConfig,
+                           TestExecutionEngine.SuiteScope scope, HostBulkhead bulkhead, HostCircuitBreaker breaker,
+                           RetryPlan retryPlan, RequestCoalescer<CompletableFuture<RequestFlight>> coalescer,
+                           AtomicReference<Instant> testDeadline) {
 
-    private TestExecution.ResponseDetails buildResponseDetailsFromRestException(HttpClientErrorException e) {
-        TestExecution.ResponseDetails details = new TestExecution.ResponseDetails();
-        details.setResponseStatus(e.getStatusCode().value());
-        details.setResponseBody(e.getResponseBodyAsString());
-
-        Map<String, String> headerMap = new HashMap<>();
-        e.getResponseHeaders().forEach((key, values) -> {
-            if (values != null && !values.isEmpty()) {
-                headerMap.put(key, String.join(", ", values));
-            }
-        });
-        details.setResponseHeaders(headerMap);
-
-        return details;
-    }
-
-    private TestExecution.ResponseDetails buildResponseDetailsFromRestException(HttpServerErrorException e) {
-        TestExecution.ResponseDetails details = new TestExecution.ResponseDetails();
-        details.setResponseStatus(e.getStatusCode().value());
-        details.setResponseBody(e.getResponseBodyAsString());
-
-        Map<String, String> headerMap = new HashMap<>();
-        e.getResponseHeaders().forEach((key, values) -> {
-            if (values != null && !values.isEmpty()) {
-                headerMap.put(key, String.join(", ", values));
-            }
-        });
-        details.setResponseHeaders(headerMap);
-
-        return details;
-    }
-
-    private TestExecution.ResponseDetails buildResponseDetailsFromRestException(Exception e) {
-        if (e instanceof HttpClientErrorException clientException) {
-            return buildResponseDetailsFromRestException(clientException);
-        } else if (e instanceof HttpServerErrorException serverException) {
-            return buildResponseDetailsFromRestException(serverException);
+        RunControl control() {
+            return scope.getControl();
         }
 
-        // Fallback for other exceptions
-        TestExecution.ResponseDetails details = new TestExecution.ResponseDetails();
-        details.setResponseStatus(null);
-        details.setResponseBody("Error occurred: " + e.getMessage());
-        details.setResponseHeaders(new HashMap<>());
-        return details;
-    }
-
-    private boolean validateResponseFromRestException(HttpClientErrorException exception, ExpectedResult expectedResult) {
-        // First validate the primary status code expectation
-        if (!Integer.valueOf(exception.getStatusCode().value()).equals(expectedResult.getStatusCode())) {
-            return false;
-        }
-
-        // Then validate all assertions
-        if (expectedResult.getAssertions() != null) {
-            for (TestAssertion assertion : expectedResult.getAssertions()) {
-                if (!validateAssertionFromException(exception, assertion)) {
-                    return false;
-                }
+        /** Why the case must not go on: its run stopped, or its own budget ran out. */
+        RunStop stopReason() {
+            RunStop stop = control().stopReason();
+            if (stop != null) {
+                return stop;
             }
+            Instant deadline = testDeadline.get();
+            return deadline != null && !Instant.now().isBefore(deadline) ? RunStop.TIMED_OUT : null;
         }
-
-        return true;
     }
 
-    private boolean validateResponseFromRestException(HttpServerErrorException exception, ExpectedResult expectedResult) {
-        // First validate the primary status code expectation
-        if (!Integer.valueOf(exception.getStatusCode().value()).equals(expectedResult.getStatusCode())) {
-            return false;
-        }
-
-        // Then validate all assertions
-        if (expectedResult.getAssertions() != null) {
-            for (TestAssertion assertion : expectedResult.getAssertions()) {
-                if (!validateAssertionFromException(exception, assertion)) {
-                    return false;
-                }
-            }
-        }
-
-        return true;
-    }
-
-    private boolean validateAssertionFromException(Exception exception, TestAssertion assertion) {
-        int statusCode;
-        String responseBody;
-
-        if (exception instanceof HttpClientErrorException clientException) {
-            statusCode = clientException.getStatusCode().value();
-            responseBody = clientException.getResponseBodyAsString();
-        } else if (exception instanceof HttpServerErrorException serverException) {
-            statusCode = serverException.getStatusCode().value();
-            responseBody = serverException.getResponseBodyAsString();
-        } else {
-            return false;
-        }
-
-        // Handle status code assertions
-        if ("statusCode".equals(assertion.getType())) {
-            switch (assertion.getCondition()) {
-                case "EQUALS":
-                    return Objects.equals(String.valueOf(statusCode), assertion.getExpectedValue());
-                case "IN_RANGE":
-                    return statusCode >= assertion.getMin() && statusCode <= assertion.getMax();
-                default:
-                    log.warn("Unknown status code assertion condition: {}", assertion.getCondition());
-                    return true;
-            }
-        }
-
-        // Handle body assertions
-        if ("body".equals(assertion.getType()) && responseBody != null) {
-            return validateTestAssertion(responseBody, assertion);
-        }
-
-        // For other types, use the original validation method
-        if (responseBody != null) {
-            return validateTestAssertion(responseBody, assertion);
-        }
-
-        return true;
+    /** One request's result: a response to validate, or the error that stopped it, plus its timing. */
+    private record AttemptOutcome(CapturedResponse response, Throwable error, TestExecution.Attempt attempt) {
     }
 
-    private boolean validateResponseFromRestException(Exception exception, ExpectedResult expectedResult) {
-        if (exception instanceof HttpClientErrorException clientException) {
-            return validateResponseFromRestException(clientException, expectedResult);
-        } else if (exception instanceof HttpServerErrorException serverException) {
-            return validateResponseFromRestException(serverException, expectedResult);
-        }
-        return false;
+    /** Cases sharing a resolved target host and first path segment, e.g. {@code https://api:443} + {@code /users}. */
+    private record TargetGroup(String host, String pathFamily) {
     }
-}
\ No newline at end of file
+}
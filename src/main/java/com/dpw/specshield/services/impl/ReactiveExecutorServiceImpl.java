@@ -0,0 +1,362 @@
+package com.dpw.specshield.services.impl;
+
+import com.dpw.specshield.config.RetryProperties;
+import com.dpw.specshield.execution.CapturedResponse;
+import com.dpw.specshield.execution.CircuitOpenException;
+import com.dpw.specshield.execution.HostBulkhead;
+import com.dpw.specshield.execution.HostBulkheads;
+import com.dpw.specshield.execution.HostCircuitBreaker;
+import com.dpw.specshield.execution.HostCircuitBreakers;
+import com.dpw.specshield.execution.HostRateLimiter;
+import com.dpw.specshield.execution.PreparedRequest;
+import com.dpw.specshield.execution.PriorityClass;
+import com.dpw.specshield.execution.RequestCoalescer;
+import com.dpw.specshield.execution.RequestFlight;
+import com.dpw.specshield.execution.RequestPlan;
+import com.dpw.specshield.execution.RequestPlanCompiler;
+import com.dpw.specshield.execution.RetentionPolicy;
+import com.dpw.specshield.execution.RetryPlan;
+import com.dpw.specshield.execution.RunControl;
+import com.dpw.specshield.execution.RunStop;
+import com.dpw.specshield.execution.RunStoppedException;
+import com.dpw.specshield.execution.StreamingResponseReader;
+import com.dpw.specshield.execution.SuiteChunk;
+import com.dpw.specshield.execution.TestExecutionEngine;
+import com.dpw.specshield.model.TestCase;
+import com.dpw.specshield.model.TestExecution;
+import com.dpw.specshield.model.TestResult;
+import com.dpw.specshield.model.TestSuite;
+import com.dpw.specshield.services.IExecutorService;
+import com.dpw.specshield.validation.AssertionCompiler;
+import com.dpw.specshield.validation.CompiledExpectation;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Non-blocking executor: test cases flow through a bounded {@code flatMap} on the
+ * shared {@link WebClient}, so in-flight requests are limited by the concurrency
+ * setting rather than by threads. Enabled with {@code specshield.executor.mode=reactive}.
+ * <p>
+ * Bodies are joined in memory up to {@code max-body-size}. A body that may be larger is read
+ * through the {@link StreamingResponseReader} when its assertions can be streamed, so it ends
+ * up as the same truncated capture the blocking executor keeps; one that needs a full parse
+ * fails past the cap.
+ * <p>
+ * Each attempt holds the same capacity as a blocking one: a slot in its host's bulkhead, whose
+ * adaptive limit it feeds, and a suite and a node-wide permit handed out by the fair-share
+ * scheduler of the {@link TestExecutionEngine}. The concurrency setting is the default cap per
+ * suite, within {@code specshield.executor.max-concurrency}; waits for capacity run on virtual
+ * threads, never on the event loop.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "specshield.executor.mode", havingValue = "reactive")
+public class ReactiveExecutorServiceImpl implements IExecutorService {
+
+    private final WebClient webClient;
+    private final TestExecutionEngine executionEngine;
+    private final TestExecutionAssembler executionAssembler;
+    private final TestResultRecorder resultRecorder;
+    private final AssertionCompiler assertionCompiler;
+    private final RequestPlanCompiler requestPlanCompiler;
+    private final HostBulkheads hostBulkheads;
+    private final HostCircuitBreakers circuitBreakers;
+    private final HostRateLimiter rateLimiter;
+    private final RetryProperties retryProperties;
+    private final RunCancellation runCancellation;
+    private final StreamingResponseReader responseReader;
+
+    @Value("${specshield.executor.reactive.concurrency:4096}")
+    private int concurrency;
+
+    @Value("${specshield.executor.reactive.max-body-size:10485760}")
+    private int maxBodySize;
+
+    @Value("${specshield.http.read-timeout:30s}")
+    private Duration defaultReadTimeout;
+
+    @Value("${specshield.executor.coalescing.enabled:false}")
+    private boolean coalescingEnabled;
+
+    @Override
+    public CompletableFuture<String> executeTestSuite(TestSuite testSuite) {
+        return executeTestSuiteWithRealTimeUpdates(testSuite, null);
+    }
+
+    @Override
+    public CompletableFuture<String> executeTestSuiteWithRealTimeUpdates(TestSuite testSuite, TestResult existingResult, SuiteChunk chunk) {
+        LocalDateTime startTime = LocalDateTime.now();
+        int suiteConcurrency = testSuite.getMaxConcurrency() != null && testSuite.getMaxConcurrency() > 0
+                ? Math.min(testSuite.getMaxConcurrency(), concurrency)
+                : concurrency;
+        Duration readTimeout = testSuite.getReadTimeoutMs() != null
+                ? Duration.ofMillis(testSuite.getReadTimeoutMs())
+                : defaultReadTimeout;
+        Map<TestCase, CompiledExpectation> expectations = assertionCompiler.compile(testSuite);
+        RequestPlan plan = requestPlanCompiler.compile(testSuite);
+        RetentionPolicy retention = RetentionPolicy.parse(testSuite.getRetention());
+        RequestCoalescer<Mono<RequestFlight>> coalescer = RequestCoalescer.forRun(testSuite, coalescingEnabled);
+
+        // Result persistence is blocking, so it is kept off the event loop
+        return Mono.fromCallable(() -> {
+                    log.info("Starting reactive test suite execution: {}", testSuite.getTestSuiteName());
+                    return resultRecorder.startRun(testSuite, existingResult, startTime);
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(testResult -> {
+                    RunControl control = runCancellation.open(testResult, testSuite);
+                    PriorityClass priority = PriorityClass.parse(testSuite.getPriority());
+                    TestExecutionEngine.SuiteScope scope = executionEngine.openSuite(control, suiteConcurrency,
+                            testSuite.getTenant(), priority != null ? priority : PriorityClass.NORMAL);
+                    return Flux.fromIterable(testSuite.getTestCases())
+                            .flatMap(testCase -> executeTestCase(testCase, plan.requestFor(testCase), expectations.get(testCase), retention,
+                                            readTimeout, RetryPlan.resolve(testSuite.getRetry(), testCase.getRetry(), retryProperties),
+                                            scope, coalescer)
+                                    .doOnNext(execution -> resultRecorder.recordExecution(testResult, execution)),
+                                    suiteConcurrency)
+                            .collectList()
+                            .publishOn(Schedulers.boundedElastic())
+                            .doOnError(e -> resultRecorder.abandonChunk(testResult))
+                            .map(executions -> {
+                                resultRecorder.recordHostStates(testResult, circuitBreakers.snapshot(plan.hosts()),
+                                        hostBulkheads.snapshot(plan.hosts()));
+                                TestResult completedResult = resultRecorder.completeRun(testResult, executions, startTime, chunk,
+                                        control.stopReason());
+                                log.info("Reactive test suite execution completed: {} with {} tests",
+                                        testSuite.getTestSuiteName(), executions.size());
+                                return completedResult.getId();
+                            })
+                            .doFinally(signal -> runCancellation.close(control));
+                })
+                .toFuture();
+    }
+
+    private Mono<TestExecution> executeTestCase(TestCase testCase, PreparedRequest request, CompiledExpectation expectation,
+                                                RetentionPolicy retention, Duration readTimeout, RetryPlan retryPlan,
+                                                TestExecutionEngine.SuiteScope scope, RequestCoalescer<Mono<RequestFlight>> coalescer) {
+        HostBulkhead bulkhead = hostBulkheads.forHost(request.host());
+        // A coalesced call is cached, so every case attached to it sees the same outcome without resending;
+        // its body serves several expectations, so it is joined rather than streamed for one of them
+        Mono<RequestFlight> flight = coalescer != null
+                ? coalescer.join(request, () -> send(testCase, request, null, readTimeout, retryPlan, scope, bulkhead).cache())
+                : send(testCase, request, expectation, readTimeout, retryPlan, scope, bulkhead);
+
+        // Admitted to the host's bulkhead for all of its attempts, as in the blocking executor
+        Mono<RequestFlight> admitted = Mono.usingWhen(Mono.fromFuture(() -> executionEngine.admit(scope, bulkhead)),
+                        lease -> flight, lease -> Mono.fromRunnable(lease::close))
+                .onErrorResume(RunStoppedException.class, e -> Mono.just(stoppedFlight(testCase, e.getReason(), List.of())));
+
+        // Capture may spill large bodies to storage, so assembly runs off the event loop
+        return admitted
+                .publishOn(Schedulers.boundedElastic())
+                .map(result -> {
+                    TestExecution execution = executionAssembler.newExecution(testCase);
+                    executionAssembler.applyFlight(execution, testCase, request, result, expectation, retention);
+                    return execution;
+                });
+    }
+
+    private Mono<RequestFlight> send(TestCase testCase, PreparedRequest request, CompiledExpectation streamFor,
+                                     Duration readTimeout, RetryPlan retryPlan, TestExecutionEngine.SuiteScope scope,
+                                     HostBulkhead bulkhead) {
+        RunControl control = scope.getControl();
+        return Mono.defer(() -> {
+            RunStop stop = control.stopReason();
+            if (stop != null) {
+                return Mono.just(stoppedFlight(testCase, stop, List.of()));
+            }
+            HostCircuitBreaker breaker = circuitBreakers.forHost(request.host());
+            String method = testCase.getEndpoint().getMethod();
+            List<TestExecution.Attempt> history = Collections.synchronizedList(new ArrayList<>());
+            AtomicReference<Long> answeredIn = new AtomicReference<>();
+
+            Duration hedgeAfter = retryPlan.hedgeAfter(method);
+            Mono<CapturedResponse> sent = hedgeAfter == null
+                    ? attempt(testCase, request, streamFor, scope, bulkhead, breaker, readTimeout, retryPlan, history, answeredIn, false)
+                    : Mono.firstWithSignal(attempt(testCase, request, streamFor, scope, bulkhead, breaker, readTimeout, retryPlan, history, answeredIn, false),
+                            Mono.delay(hedgeAfter).then(attempt(testCase, request, streamFor, scope, bulkhead, breaker, readTimeout, retryPlan,
+                                    history, answeredIn, true)));
+
+            // Backoff delays are timers; the last attempt's response is the one validated
+            Mono<RequestFlight> flight = sent
+                    .retryWhen(Retry.from(signals -> signals.concatMap(signal -> {
+                        int retry = (int) signal.totalRetries() + 1;
+                        if (retry >= retryPlan.maxAttempts() || !retryPlan.retries(method) || !isRetryable(signal.failure())) {
+                            return Mono.error(signal.failure());
+                        }
+                        return Mono.delay(retryPlan.backoff(retry));
+                    })))
+                    .onErrorResume(RetryableStatusException.class, e -> Mono.just(e.getResponse()))
+                    .map(response -> new RequestFlight(testCase.getTestCaseId(), response, null, List.copyOf(history), answeredIn.get()))
+                    .onErrorResume(e -> Mono.just(new RequestFlight(testCase.getTestCaseId(), null, Exceptions.unwrap(e),
+                            List.copyOf(history), null)));
+            if (control.getTestTimeout() != null) {
+                flight = flight.timeout(control.getTestTimeout(),
+                        Mono.fromSupplier(() -> stoppedFlight(testCase, RunStop.TIMED_OUT, history)));
+            }
+
+            // Losing the race to a stop cancels the subscription, which closes the in-flight exchange;
+            // the shared stop future itself must survive that cancellation
+            return Mono.firstWithSignal(flight, Mono.fromFuture(control.whenStopped(), true)
+                    .map(reason -> stoppedFlight(testCase, reason, history)));
+        });
+    }
+
+    private static RequestFlight stoppedFlight(TestCase testCase, RunStop reason, List<TestExecution.Attempt> history) {
+        return new RequestFlight(testCase.getTestCaseId(), null, new RunStoppedException(reason), List.copyOf(history), null);
+    }
+
+    private Mono<CapturedResponse> attempt(TestCase testCase, PreparedRequest request, CompiledExpectation streamFor,
+                                           TestExecutionEngine.SuiteScope scope, HostBulkhead bulkhead, HostCircuitBreaker breaker,
+                                           Duration readTimeout, RetryPlan retryPlan, List<TestExecution.Attempt> history,
+                                           AtomicReference<Long> answeredIn, boolean hedged) {
+        String host = request.host();
+        return Mono.defer(() -> {
+            TestExecution.Attempt attempt = new TestExecution.Attempt();
+            attempt.setHedged(hedged ? true : null);
+            synchronized (history) {
+                attempt.setNumber(history.size() + 1);
+                history.add(attempt);
+            }
+
+            // The slot and permits are held from before the breaker check until the response is read
+            return Mono.usingWhen(Mono.fromFuture(() -> executionEngine.lease(scope, bulkhead)),
+                            lease -> exchange(request, streamFor, bulkhead, breaker, readTimeout, attempt, answeredIn),
+                            lease -> Mono.fromRunnable(lease::close))
+                    .doOnError(RunStoppedException.class, e -> attempt.setError(e.getReason().executionResult()))
+                    // A 429's Retry-After may be written to the rate limit store, which blocks
+                    .publishOn(Schedulers.boundedElastic())
+                    .doOnNext(response -> rateLimiter.onResponse(host, response.statusCode(), response.headers()))
+                    .flatMap(response -> retryPlan.isRetryableStatus(response.statusCode(),
+                            testCase.getExpected() != null ? testCase.getExpected().getStatusCode() : null)
+                            ? Mono.error(new RetryableStatusException(response))
+                            : Mono.just(response));
+        });
+    }
+
+    private Mono<CapturedResponse> exchange(PreparedRequest request, CompiledExpectation streamFor, HostBulkhead bulkhead,
+                                            HostCircuitBreaker breaker, Duration readTimeout, TestExecution.Attempt attempt,
+                                            AtomicReference<Long> answeredIn) {
+        String host = request.host();
+        attempt.setStartedAt(LocalDateTime.now());
+        if (breaker != null && !breaker.tryAcquire()) {
+            attempt.setError("circuit open");
+            return Mono.error(new CircuitOpenException(host));
+        }
+
+        // Timed from the moment the token is held, so rate limiting does not count as response time
+        return acquireToken(host)
+                .then(Mono.defer(() -> makeHttpRequest(request, streamFor).timeout(readTimeout).elapsed()))
+                .doOnCancel(() -> {
+                    if (breaker != null) {
+                        breaker.onAbandoned();
+                    }
+                })
+                .map(timed -> {
+                    answeredIn.set(timed.getT1());
+                    attempt.setDurationMs(timed.getT1());
+                    attempt.setResponseStatus(timed.getT2().statusCode());
+                    return timed.getT2();
+                })
+                .doOnNext(response -> {
+                    bulkhead.onResponse(attempt.getDurationMs(), response.statusCode());
+                    HostCircuitBreakers.recordStatus(breaker, response.statusCode());
+                })
+                .doOnError(e -> {
+                    bulkhead.onFailure();
+                    HostCircuitBreakers.recordError(breaker, e);
+                    attempt.setError(e.getMessage());
+                });
+    }
+
+    private static boolean isRetryable(Throwable error) {
+        return error instanceof RetryableStatusException || RetryPlan.isTransient(error);
+    }
+
+    // Token checks may go to Mongo, so they run off the event loop; waits are timers, not blocked threads
+    private Mono<Void> acquireToken(String host) {
+        return Mono.fromCallable(() -> rateLimiter.tryAcquire(host))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(waitMillis -> waitMillis <= 0
+                        ? Mono.<Void>empty()
+                        : Mono.delay(Duration.ofMillis(waitMillis)).then(Mono.defer(() -> acquireToken(host))));
+    }
+
+    private Mono<CapturedResponse> makeHttpRequest(PreparedRequest request, CompiledExpectation streamFor) {
+        WebClient.RequestBodySpec spec = webClient.method(request.method())
+                .uri(request.url())
+                .headers(headers -> headers.addAll(request.headers()));
+
+        // Error statuses are not raised as exceptions here; every status goes through the same validation
+        return (request.hasBody() ? spec.bodyValue(request.body()) : spec).exchangeToMono(response -> toCapturedResponse(response, streamFor));
+    }
+
+    private Mono<CapturedResponse> toCapturedResponse(ClientResponse response, CompiledExpectation streamFor) {
+        OptionalLong contentLength = response.headers().contentLength();
+        if (streamFor != null && responseReader.streams(streamFor)
+                && (contentLength.isEmpty() || contentLength.getAsLong() > maxBodySize)) {
+            // The reader blocks on the body as it arrives, so it runs off the event loop;
+            // closing the stream early cancels the rest of the body
+            Flux<DataBuffer> body = response.bodyToFlux(DataBuffer.class);
+            return Mono.fromCallable(() -> {
+                        try (InputStream in = DataBufferUtils.subscriberInputStream(body, 16)) {
+                            return responseReader.readStreamed(response.statusCode().value(),
+                                    response.headers().asHttpHeaders(), in, streamFor);
+                        }
+                    })
+                    .subscribeOn(Schedulers.boundedElastic());
+        }
+
+        // Body chunks are pulled from the connection on demand and joined up to the configured cap
+        Charset charset = StreamingResponseReader.charsetOf(response.headers().asHttpHeaders());
+        return DataBufferUtils.join(response.bodyToFlux(DataBuffer.class), maxBodySize)
+                .map(buffer -> {
+                    try {
+                        return Optional.of(buffer.toString(charset));
+                    } finally {
+                        DataBufferUtils.release(buffer);
+                    }
+                })
+                .defaultIfEmpty(Optional.empty())
+                .map(body -> CapturedResponse.buffered(response.statusCode().value(),
+                        response.headers().asHttpHeaders(), body.orElse(null)));
+    }
+
+    /** Carries a retryable status through {@code retryWhen}; unwrapped to its response once retries run out. */
+    @Getter
+    private static final class RetryableStatusException extends RuntimeException {
+        private final transient CapturedResponse response;
+
+        RetryableStatusException(CapturedResponse response) {
+            super("Retryable status " + response.statusCode(), null, false, false);
+            this.response = response;
+        }
+    }
+}
@@ -2,12 +2,18 @@ package com.dpw.specshield.services.impl;
 
 import com.dpw.specshield.dto.TestReportResponse;
 import com.dpw.specshield.dto.TestExecutionSummary;
+import com.dpw.specshield.execution.ResponseCapture;
+import com.dpw.specshield.model.TestExecutionRecord;
 import com.dpw.specshield.model.TestResult;
 import com.dpw.specshield.model.TestExecution;
+import com.dpw.specshield.repository.TestExecutionRecordRepository;
+import com.dpw.specshield.repository.TestExecutionRequestRepository;
 import com.dpw.specshield.repository.TestResultRepository;
 import com.dpw.specshield.services.IReportCollector;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.time.format.DateTimeFormatter;
@@ -19,13 +25,17 @@ import java.util.List;
 public class ReportCollectorImpl implements IReportCollector {
 
     private final TestResultRepository testResultRepository;
+    private final TestExecutionRecordRepository testExecutionRecordRepository;
+    private final TestExecutionRequestRepository testExecutionRequestRepository;
+    private final ResponseCapture responseCapture;
+    private static final int MAX_PAGE_SIZE = 500;
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("EEE, d MMM yyyy HH:mm:ss").withZone(java.time.ZoneId.systemDefault());
 
     @Override
     public TestReportResponse getReportById(String reportId, int page, int size) {
         log.info("Fetching report for ID: {} with pagination - page: {}, size: {}", reportId, page, size);
 
-        TestResult testResult = testResultRepository.findById(reportId)
+        TestResult testResult = testResultRepository.findHeaderById(reportId)
                 .orElseThrow(() -> new RuntimeException("Report not found with ID: " + reportId));
 
         TestReportResponse response = new TestReportResponse();
@@ -35,70 +45,80 @@ public class ReportCollectorImpl implements IReportCollector {
             response.setReportTimestamp(testResult.getExecutionStartTime().atZone(java.time.ZoneId.systemDefault()).format(FORMATTER) + " +0530");
         }
 
+        response.setOverview(overviewOf(testResult));
+
+        List<TestExecutionSummary> paginatedExecutions = getPaginatedExecutionSummaries(reportId, page, size);
+        response.setExecutionDetails(paginatedExecutions);
+
+        log.info("Report retrieved successfully for ID: {} with {} execution details", reportId, paginatedExecutions.size());
+        return response;
+    }
+
+    static TestReportResponse.Overview overviewOf(TestResult testResult) {
         TestReportResponse.Overview overview = new TestReportResponse.Overview();
         overview.setExecutionTime(testResult.getExecutionDuration() != null ? testResult.getExecutionDuration() : "In Progress");
+        overview.setStatus(testResult.getStatus());
         overview.setTotal(testResult.getTotalTests());
         overview.setErrors(testResult.getErrorTests());
         overview.setWarnings(testResult.getWarningTests());
         overview.setSuccessful(testResult.getSuccessfulTests());
         overview.setPending(testResult.getPendingTests());
-
-        response.setOverview(overview);
-
-        List<TestExecutionSummary> paginatedExecutions = getPaginatedExecutionSummaries(testResult.getExecutions(), page, size);
-        response.setExecutionDetails(paginatedExecutions);
-
-        log.info("Report retrieved successfully for ID: {} with {} execution details", reportId, paginatedExecutions.size());
-        return response;
+        overview.setShortCircuited(testResult.getShortCircuitedTests() != null ? testResult.getShortCircuitedTests() : 0);
+        overview.setCancelled(testResult.getCancelledTests() != null ? testResult.getCancelledTests() : 0);
+        overview.setTimedOut(testResult.getTimedOutTests() != null ? testResult.getTimedOutTests() : 0);
+        overview.setCircuitBreakers(testResult.getCircuitBreakers() != null ? testResult.getCircuitBreakers() : List.of());
+        overview.setConcurrencyLimits(testResult.getConcurrencyLimits() != null ? testResult.getConcurrencyLimits() : List.of());
+        return overview;
     }
 
-    private List<TestExecutionSummary> getPaginatedExecutionSummaries(List<TestExecution> executions, int page, int size) {
-        if (executions == null || executions.isEmpty()) {
-            return List.of();
-        }
-
-        int startIndex = page * size;
-        int endIndex = Math.min(startIndex + size, executions.size());
-
-        if (startIndex >= executions.size()) {
-            return List.of();
-        }
-
-        return executions.subList(startIndex, endIndex).stream()
-                .map(this::convertToSummary)
+    private List<TestExecutionSummary> getPaginatedExecutionSummaries(String reportId, int page, int size) {
+        PageRequest pageRequest = PageRequest.of(page, Math.min(size, MAX_PAGE_SIZE), Sort.by("testCaseId"));
+        return testExecutionRecordRepository.findSummariesByResultId(reportId, pageRequest)
+                .stream()
+                .map(TestExecutionRecord::getExecution)
+                .map(TestExecutionSummary::of)
                 .toList();
     }
 
-    private TestExecutionSummary convertToSummary(TestExecution execution) {
-        TestExecutionSummary summary = new TestExecutionSummary();
-        summary.setId(execution.getId());
-        summary.setTimestamp(execution.getTimestamp());
-        summary.setScenario(execution.getScenario());
-        summary.setResult(execution.getResult());
-        summary.setResultDetails(execution.getResultDetails());
-        summary.setContractPath(execution.getContractPath());
-        summary.setHttpMethod(execution.getHttpMethod());
-        return summary;
-    }
-
     @Override
     public TestExecution getTestCaseDetail(String reportId, String testCaseId) {
         log.info("Fetching test case detail for report ID: {} and test case ID: {}", reportId, testCaseId);
 
-        TestResult testResult = testResultRepository.findById(reportId)
-                .orElseThrow(() -> new RuntimeException("Report not found with ID: " + reportId));
+        TestExecution testExecution = testExecutionRecordRepository.findByResultIdAndTestCaseId(reportId, testCaseId)
+                .map(TestExecutionRecord::getExecution)
+                .orElseThrow(() -> testResultRepository.existsById(reportId)
+                        ? new RuntimeException("Test case not found with ID: " + testCaseId + " in report: " + reportId)
+                        : new RuntimeException("Report not found with ID: " + reportId));
+
+        log.info("Test case detail retrieved successfully for ID: {}", testCaseId);
+        return testExecution;
+    }
 
-        if (testResult.getExecutions() == null || testResult.getExecutions().isEmpty()) {
-            throw new RuntimeException("No executions found for report ID: " + reportId);
+    @Override
+    public String getResponseBody(String reportId, String testCaseId) {
+        TestExecution testExecution = getTestCaseDetail(reportId, testCaseId);
+        if (testExecution.getResponseDetails() == null) {
+            return null;
         }
+        return responseCapture.fullBody(testExecution.getResponseDetails());
+    }
 
-        TestExecution testExecution = testResult.getExecutions().stream()
-                .filter(execution -> testCaseId.equals(execution.getId()))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("Test case not found with ID: " + testCaseId + " in report: " + reportId));
+    /** Deletes a finished run: its spilled response bodies, executions, header and stored request. */
+    @Override
+    public void deleteReport(String reportId) {
+        TestResult testResult = testResultRepository.findHeaderById(reportId)
+                .orElseThrow(() -> new RuntimeException("Report not found with ID: " + reportId));
+        if ("PENDING".equals(testResult.getStatus()) || "PROCESSING".equals(testResult.getStatus())) {
+            throw new IllegalStateException("Report " + reportId + " is still " + testResult.getStatus());
+        }
 
-        log.info("Test case detail retrieved successfully for ID: {}", testCaseId);
-        return testExecution;
+        // Bodies go first, so a failed delete leaves records that still point at what remains
+        List<TestExecutionRecord> spilled = testExecutionRecordRepository.findSpilledBodiesByResultId(reportId);
+        spilled.forEach(record -> responseCapture.discard(record.getExecution().getResponseDetails()));
+        testExecutionRecordRepository.deleteByResultId(reportId);
+        testResultRepository.deleteById(reportId);
+        testExecutionRequestRepository.deleteById(reportId);
+        log.info("Deleted report {} with {} spilled response bodies", reportId, spilled.size());
     }
 
 }
\ No newline at end of file
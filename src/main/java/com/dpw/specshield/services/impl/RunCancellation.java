@@ -0,0 +1,132 @@
+package com.dpw.specshield.services.impl;
+
+import com.dpw.specshield.execution.RunControl;
+import com.dpw.specshield.execution.RunStop;
+import com.dpw.specshield.model.TestResult;
+import com.dpw.specshield.model.TestSuite;
+import com.mongodb.client.result.UpdateResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands out the {@link RunControl} of every chunk running on this node and stops them on a cancel
+ * request or at the run's deadline. A cancel is recorded as {@code cancelRequested} on the run, so
+ * chunks on other nodes pick it up on their next poll and chunks that have not started yet are
+ * stopped as soon as they open.
+ */
+@Slf4j
+@Component
+public class RunCancellation implements DisposableBean {
+
+    private final MongoTemplate mongoTemplate;
+    private final Map<String, Set<RunControl>> active = new ConcurrentHashMap<>();
+    private final Map<RunControl, ScheduledFuture<?>> deadlineTimers = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("run-cancellation").daemon().factory());
+    private final ScheduledThreadPoolExecutor deadlines = new ScheduledThreadPoolExecutor(1,
+            Thread.ofPlatform().name("run-deadlines").daemon().factory());
+
+    public RunCancellation(MongoTemplate mongoTemplate,
+                           @Value("${specshield.cancellation.poll-interval:2s}") Duration pollInterval) {
+        this.mongoTemplate = mongoTemplate;
+        // A chunk finishing before its deadline cancels the timer, which must not wait in the queue until then
+        deadlines.setRemoveOnCancelPolicy(true);
+        poller.scheduleWithFixedDelay(this::poll, pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /** Opens the control of a chunk starting here; it is already stopped when the run was cancelled or is past its deadline. */
+    public RunControl open(TestResult testResult, TestSuite testSuite) {
+        LocalDateTime deadlineAt = testResult.getDeadlineAt();
+        if (deadlineAt == null && testSuite.getDeadlineMs() != null) {
+            deadlineAt = LocalDateTime.now().plus(Duration.ofMillis(testSuite.getDeadlineMs()));
+        }
+        Instant deadline = deadlineAt != null ? deadlineAt.atZone(ZoneId.systemDefault()).toInstant() : null;
+        Duration testTimeout = testSuite.getTestTimeoutMs() != null ? Duration.ofMillis(testSuite.getTestTimeoutMs()) : null;
+
+        RunControl control = new RunControl(testResult.getId(), deadline, testTimeout);
+        active.computeIfAbsent(testResult.getId(), id -> ConcurrentHashMap.newKeySet()).add(control);
+        if (Boolean.TRUE.equals(testResult.getCancelRequested())) {
+            control.stop(RunStop.CANCELLED);
+        }
+        if (deadline != null) {
+            long delay = Math.max(0, Duration.between(Instant.now(), deadline).toMillis());
+            deadlineTimers.put(control, deadlines.schedule(() -> {
+                if (!control.isStopped()) {
+                    log.info("Run {} reached its deadline, stopping its cases on this node", control.getRunId());
+                    control.stop(RunStop.TIMED_OUT);
+                }
+            }, delay, TimeUnit.MILLISECONDS));
+        }
+        return control;
+    }
+
+    public void close(RunControl control) {
+        ScheduledFuture<?> deadlineTimer = deadlineTimers.remove(control);
+        if (deadlineTimer != null) {
+            deadlineTimer.cancel(false);
+        }
+        active.computeIfPresent(control.getRunId(), (id, controls) -> {
+            controls.remove(control);
+            return controls.isEmpty() ? null : controls;
+        });
+    }
+
+    /** Requests cancellation of a run; false when no such run is pending or processing. */
+    public boolean cancel(String resultId) {
+        UpdateResult update = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(resultId).and("status").in("PENDING", "PROCESSING")),
+                Update.update("cancelRequested", true), TestResult.class);
+        if (update.getMatchedCount() == 0) {
+            return false;
+        }
+        log.info("Cancellation requested for run {}", resultId);
+        stopLocally(resultId);
+        return true;
+    }
+
+    @Override
+    public void destroy() {
+        poller.shutdownNow();
+        deadlines.shutdownNow();
+    }
+
+    /** Stops chunks here whose run was cancelled through another node. */
+    private void poll() {
+        if (active.isEmpty()) {
+            return;
+        }
+        try {
+            Query query = Query.query(Criteria.where("_id").in(active.keySet()).and("cancelRequested").is(true));
+            query.fields().include("_id");
+            mongoTemplate.find(query, TestResult.class).forEach(result -> stopLocally(result.getId()));
+        } catch (Exception e) {
+            log.warn("Failed to check {} runs for cancellation: {}", active.size(), e.getMessage());
+        }
+    }
+
+    private void stopLocally(String resultId) {
+        Set<RunControl> controls = active.get(resultId);
+        if (controls != null) {
+            controls.forEach(control -> control.stop(RunStop.CANCELLED));
+        }
+    }
+}
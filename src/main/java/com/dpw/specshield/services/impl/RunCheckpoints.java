@@ -0,0 +1,44 @@
+package com.dpw.specshield.services.impl;
+
+import com.dpw.specshield.model.TestCase;
+import com.dpw.specshield.model.TestExecutionRecord;
+import com.dpw.specshield.model.TestSuite;
+import com.dpw.specshield.repository.TestExecutionRecordRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Every flushed execution in {@code test_executions} is a checkpoint. A redelivered chunk or a
+ * recovered run only executes the cases that have none yet; the recount at completion still
+ * covers the checkpointed ones.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RunCheckpoints {
+
+    private final TestExecutionRecordRepository testExecutionRecordRepository;
+
+    public TestSuite pendingOnly(String resultId, TestSuite testSuite) {
+        List<String> testCaseIds = testSuite.getTestCases().stream()
+                .map(TestCase::getTestCaseId)
+                .toList();
+        Set<String> completed = testExecutionRecordRepository.findCompletedIn(resultId, testCaseIds).stream()
+                .map(TestExecutionRecord::getTestCaseId)
+                .collect(Collectors.toSet());
+        if (completed.isEmpty()) {
+            return testSuite;
+        }
+
+        log.info("Resuming result {}: {} of {} test cases already executed", resultId, completed.size(), testCaseIds.size());
+        return testSuite.withTestCases(testSuite.getTestCases().stream()
+                .filter(testCase -> !completed.contains(testCase.getTestCaseId()))
+                .collect(Collectors.toCollection(ArrayList::new)));
+    }
+}
@@ -0,0 +1,142 @@
+package com.dpw.specshield.services.impl;
+
+import com.dpw.specshield.config.KafkaConfig;
+import com.dpw.specshield.dto.RunProgressEvent;
+import com.dpw.specshield.dto.TestExecutionSummary;
+import com.dpw.specshield.model.TestExecution;
+import com.dpw.specshield.model.TestResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * In-process event bus for live run progress. The {@link TestResultRecorder} publishes each batch
+ * of executions once it is persisted, and the run's final counts once it finishes. Events reach
+ * listeners on this node directly and every other node through the run progress topic, so a live
+ * view served by any node follows all chunks of a run without reading the database.
+ */
+@Slf4j
+@Component
+public class RunProgressBus implements DisposableBean {
+
+    private static final String LISTENER_ID = "run-progress";
+
+    private final KafkaTemplate<String, RunProgressEvent> progressKafkaTemplate;
+    private final KafkaConfig kafkaConfig;
+    private final boolean fanOut;
+    private final int maxExecutionsPerEvent;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, Set<Consumer<RunProgressEvent>>> listeners = new ConcurrentHashMap<>();
+    // One thread keeps a run's events in order and keeps a slow broker away from the result flusher
+    private final ExecutorService publisher = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("run-progress").daemon().factory());
+
+    public RunProgressBus(KafkaTemplate<String, RunProgressEvent> progressKafkaTemplate,
+                          KafkaConfig kafkaConfig,
+                          @Value("${specshield.progress.kafka.enabled:true}") boolean fanOut,
+                          @Value("${specshield.progress.max-executions-per-event:500}") int maxExecutionsPerEvent) {
+        this.progressKafkaTemplate = progressKafkaTemplate;
+        this.kafkaConfig = kafkaConfig;
+        this.fanOut = fanOut;
+        this.maxExecutionsPerEvent = maxExecutionsPerEvent;
+    }
+
+    /** Calls the listener with every event of the run until the returned handle is run. */
+    public Runnable subscribe(String runId, Consumer<RunProgressEvent> listener) {
+        listeners.computeIfAbsent(runId, id -> new CopyOnWriteArraySet<>()).add(listener);
+        return () -> listeners.computeIfPresent(runId, (id, runListeners) -> {
+            runListeners.remove(listener);
+            return runListeners.isEmpty() ? null : runListeners;
+        });
+    }
+
+    /** A batch of executions of the run was persisted. */
+    public void executionsRecorded(String runId, List<TestExecution> executions) {
+        if (!fanOut && !listeners.containsKey(runId)) {
+            return;
+        }
+        Map<String, Integer> results = new HashMap<>();
+        executions.forEach(execution -> results.merge(String.valueOf(execution.getResult()), 1, Integer::sum));
+
+        RunProgressEvent event = newEvent(runId);
+        event.setResults(results);
+        event.setExecutions(executions.stream().limit(maxExecutionsPerEvent).map(TestExecutionSummary::of).toList());
+        if (executions.size() > maxExecutionsPerEvent) {
+            event.setDroppedExecutions(executions.size() - maxExecutionsPerEvent);
+        }
+        publish(event);
+    }
+
+    /** The run reached its final status; the counts are the run's totals by result, or null when unknown. */
+    public void runFinished(TestResult testResult, Map<String, Integer> counts) {
+        RunProgressEvent event = newEvent(testResult.getId());
+        event.setResults(counts);
+        event.setExecutions(List.of());
+        event.setStatus(testResult.getStatus());
+        event.setExecutionTime(testResult.getExecutionDuration());
+        publish(event);
+    }
+
+    @KafkaListener(id = LISTENER_ID, topics = "${specshield.kafka.topics.run-progress:run-progress}",
+            containerFactory = "progressListenerContainerFactory", autoStartup = "${specshield.progress.kafka.enabled:true}")
+    public void onRemoteEvent(@Payload RunProgressEvent event) {
+        // Events published here were delivered locally already
+        if (!nodeId.equals(event.getOrigin())) {
+            deliver(event);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        publisher.shutdown();
+    }
+
+    private RunProgressEvent newEvent(String runId) {
+        RunProgressEvent event = new RunProgressEvent();
+        event.setRunId(runId);
+        event.setOrigin(nodeId);
+        return event;
+    }
+
+    private void publish(RunProgressEvent event) {
+        publisher.execute(() -> {
+            deliver(event);
+            if (fanOut) {
+                try {
+                    progressKafkaTemplate.send(kafkaConfig.getRunProgressTopic(), event.getRunId(), event);
+                } catch (Exception e) {
+                    log.warn("Failed to publish progress of run {}: {}", event.getRunId(), e.getMessage());
+                }
+            }
+        });
+    }
+
+    private void deliver(RunProgressEvent event) {
+        Set<Consumer<RunProgressEvent>> runListeners = listeners.get(event.getRunId());
+        if (runListeners == null) {
+            return;
+        }
+        for (Consumer<RunProgressEvent> listener : runListeners) {
+            try {
+                listener.accept(event);
+            } catch (Exception e) {
+                log.debug("Progress listener of run {} failed: {}", event.getRunId(), e.getMessage());
+            }
+        }
+    }
+}
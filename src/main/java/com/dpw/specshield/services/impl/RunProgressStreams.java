@@ -0,0 +1,142 @@
+package com.dpw.specshield.services.impl;
+
+import com.dpw.specshield.dto.RunProgressEvent;
+import com.dpw.specshield.dto.TestExecutionSummary;
+import com.dpw.specshield.dto.TestReportResponse;
+import com.dpw.specshield.execution.RunStop;
+import com.dpw.specshield.model.TestResult;
+import com.dpw.specshield.repository.TestResultRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves live views of runs as Server-Sent Events. A view starts from the run's header, read once,
+ * and then follows the {@link RunProgressBus}: every event carries the updated overview and the
+ * executions completed since the previous one. While the run is in progress the counters can be
+ * a batch off; the {@code finished} event carries the run's exact totals.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RunProgressStreams {
+
+    private static final List<String> FINAL_STATUSES = List.of("COMPLETED", "CANCELLED", "TIMED_OUT", "FAILED");
+
+    private final TestResultRepository testResultRepository;
+    private final RunProgressBus progressBus;
+
+    @Value("${specshield.progress.stream-timeout:30m}")
+    private Duration streamTimeout;
+
+    public SseEmitter open(String runId) {
+        TestResult header = testResultRepository.findHeaderById(runId)
+                .orElseThrow(() -> new RuntimeException("Report not found with ID: " + runId));
+
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        LiveView view = new LiveView(emitter, ReportCollectorImpl.overviewOf(header));
+        if (FINAL_STATUSES.contains(header.getStatus())) {
+            view.send("finished", List.of());
+            emitter.complete();
+            return emitter;
+        }
+
+        // Each view sends in order on a thread of its own, so a slow client holds up no other view
+        ExecutorService sender = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("progress-" + runId).factory());
+        sender.execute(() -> view.send("overview", List.of()));
+        Runnable unsubscribe = progressBus.subscribe(runId, event -> sender.execute(() -> view.apply(event)));
+
+        Runnable close = () -> {
+            unsubscribe.run();
+            sender.shutdown();
+        };
+        emitter.onCompletion(close);
+        emitter.onError(e -> close.run());
+        return emitter;
+    }
+
+    private static final class LiveView {
+        private final SseEmitter emitter;
+        private final TestReportResponse.Overview overview;
+        private final Map<String, Integer> counts = new HashMap<>();
+        private boolean finished;
+
+        private LiveView(SseEmitter emitter, TestReportResponse.Overview overview) {
+            this.emitter = emitter;
+            this.overview = overview;
+            counts.put("success", valueOf(overview.getSuccessful()));
+            counts.put("error", valueOf(overview.getErrors()));
+            counts.put("warning", valueOf(overview.getWarnings()));
+            counts.put(TestExecutionAssembler.SHORT_CIRCUITED, valueOf(overview.getShortCircuited()));
+            counts.put(RunStop.CANCELLED.executionResult(), valueOf(overview.getCancelled()));
+            counts.put(RunStop.TIMED_OUT.executionResult(), valueOf(overview.getTimedOut()));
+        }
+
+        private void apply(RunProgressEvent event) {
+            if (finished) {
+                return;
+            }
+            if (event.getStatus() == null) {
+                if (event.getResults() != null) {
+                    event.getResults().forEach((result, count) -> counts.merge(result, count, Integer::sum));
+                    refresh();
+                }
+                send("progress", event.getExecutions() != null ? event.getExecutions() : List.of());
+                return;
+            }
+
+            finished = true;
+            if (event.getResults() != null) {
+                counts.clear();
+                counts.putAll(event.getResults());
+                refresh();
+            }
+            overview.setStatus(event.getStatus());
+            if (event.getExecutionTime() != null) {
+                overview.setExecutionTime(event.getExecutionTime());
+            }
+            send("finished", List.of());
+            emitter.complete();
+        }
+
+        private void refresh() {
+            overview.setSuccessful(counts.getOrDefault("success", 0));
+            overview.setErrors(counts.getOrDefault("error", 0));
+            overview.setWarnings(counts.getOrDefault("warning", 0));
+            overview.setShortCircuited(counts.getOrDefault(TestExecutionAssembler.SHORT_CIRCUITED, 0));
+            overview.setCancelled(counts.getOrDefault(RunStop.CANCELLED.executionResult(), 0));
+            overview.setTimedOut(counts.getOrDefault(RunStop.TIMED_OUT.executionResult(), 0));
+            if (overview.getTotal() != null) {
+                int recorded = counts.values().stream().mapToInt(Integer::intValue).sum();
+                overview.setPending(Math.max(0, overview.getTotal() - recorded));
+            }
+        }
+
+        private void send(String name, List<TestExecutionSummary> executions) {
+            TestReportResponse update = new TestReportResponse();
+            update.setOverview(overview);
+            update.setExecutionDetails(executions);
+            try {
+                emitter.send(SseEmitter.event().name(name).data(update));
+            } catch (Exception e) {
+                // The client went away; completing the emitter unsubscribes the view
+                log.debug("Closing live view: {}", e.getMessage());
+                finished = true;
+                emitter.completeWithError(e);
+            }
+        }
+
+        private static int valueOf(Integer count) {
+            return count != null ? count : 0;
+        }
+    }
+}
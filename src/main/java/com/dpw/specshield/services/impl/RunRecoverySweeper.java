@@ -0,0 +1,191 @@
+package com.dpw.specshield.services.impl;
+
+import com.dpw.specshield.execution.AdmissionController;
+import com.dpw.specshield.execution.PriorityClass;
+import com.dpw.specshield.execution.SuiteChunk;
+import com.dpw.specshield.model.TestExecutionRequest;
+import com.dpw.specshield.model.TestResult;
+import com.dpw.specshield.model.TestSuite;
+import com.dpw.specshield.repository.TestExecutionRequestRepository;
+import com.dpw.specshield.services.IExecutorService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.MongoExpression;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picks up runs left PROCESSING although no chunk message of theirs is left in Kafka: a chunk whose
+ * message was acknowledged after failing, or a run whose last chunk stopped before finishing it.
+ * Chunks still unacknowledged are left alone, however long they wait for a node; Kafka redelivers
+ * them, including those of a node that crashed. A run whose heartbeat is older than {@code stale-after}
+ * is claimed by refreshing the heartbeat with a conditional update, so only one node takes it over;
+ * the claiming node executes the checkpointed remainder of the acknowledged but unfinished chunks,
+ * each as its own chunk, and completes the run. Runs the first sweep at startup, then every
+ * {@code sweep-interval}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "specshield.recovery.enabled", havingValue = "true", matchIfMissing = true)
+public class RunRecoverySweeper implements ApplicationRunner, DisposableBean {
+
+    private final MongoTemplate mongoTemplate;
+    private final TestExecutionRequestRepository testExecutionRequestRepository;
+    private final RunCheckpoints runCheckpoints;
+    private final IExecutorService executorService;
+    private final TestResultRecorder resultRecorder;
+    private final AdmissionController admissionController;
+    private final Duration sweepInterval;
+    private final Duration staleAfter;
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("run-recovery").daemon().factory());
+
+    public RunRecoverySweeper(MongoTemplate mongoTemplate,
+                              TestExecutionRequestRepository testExecutionRequestRepository,
+                              RunCheckpoints runCheckpoints,
+                              IExecutorService executorService,
+                              TestResultRecorder resultRecorder,
+                              AdmissionController admissionController,
+                              @Value("${specshield.recovery.sweep-interval:1m}") Duration sweepInterval,
+                              @Value("${specshield.recovery.stale-after:3m}") Duration staleAfter) {
+        this.mongoTemplate = mongoTemplate;
+        this.testExecutionRequestRepository = testExecutionRequestRepository;
+        this.runCheckpoints = runCheckpoints;
+        this.executorService = executorService;
+        this.resultRecorder = resultRecorder;
+        this.admissionController = admissionController;
+        this.sweepInterval = sweepInterval;
+        this.staleAfter = staleAfter;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        sweeper.scheduleWithFixedDelay(this::sweep, 0, sweepInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        sweeper.shutdownNow();
+    }
+
+    private void sweep() {
+        try {
+            TestResult stale;
+            while (admissionController.hasCapacity(PriorityClass.NORMAL) && (stale = claimStaleRun()) != null) {
+                resume(stale);
+            }
+        } catch (Exception e) {
+            log.error("Recovery sweep failed: {}", e.getMessage());
+        }
+    }
+
+    private TestResult claimStaleRun() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(staleAfter);
+        Query staleRun = Query.query(Criteria.where("status").is("PROCESSING").andOperator(
+                new Criteria().orOperator(
+                        Criteria.where("heartbeatAt").lt(cutoff),
+                        Criteria.where("heartbeatAt").exists(false).and("executionStartTime").lt(cutoff)),
+                // Every chunk message acknowledged: nothing of the run is waiting in Kafka
+                Criteria.expr(MongoExpression.create(
+                        "{ $gte: [ { $size: { $ifNull: ['$ackedChunks', []] } }, { $ifNull: ['$chunkCount', 1] } ] }"))));
+        staleRun.fields().exclude("executions");
+
+        return mongoTemplate.findAndModify(staleRun, Update.update("heartbeatAt", LocalDateTime.now()),
+                FindAndModifyOptions.options().returnNew(true), TestResult.class);
+    }
+
+    private void resume(TestResult testResult) {
+        TestExecutionRequest request = testExecutionRequestRepository.findById(testResult.getId()).orElse(null);
+        if (request == null || request.getTestSuite() == null) {
+            log.warn("Stale result {} has no stored request to resume from, marking it failed", testResult.getId());
+            resultRecorder.markFailed(testResult);
+            return;
+        }
+
+        int chunkCount = testResult.getChunkCount() != null ? testResult.getChunkCount() : 1;
+        List<Integer> completed = testResult.getCompletedChunks() != null ? testResult.getCompletedChunks() : List.of();
+        List<SuiteChunk> missing = IntStream.range(0, chunkCount)
+                .filter(index -> !completed.contains(index))
+                .mapToObj(index -> new SuiteChunk(index, chunkCount))
+                .toList();
+        PriorityClass parsedPriority = PriorityClass.parse(request.getPriority());
+        PriorityClass priority = parsedPriority != null ? parsedPriority : PriorityClass.NORMAL;
+
+        if (missing.isEmpty()) {
+            // Every chunk ran, only the completion was lost; an empty pass over all chunks finishes the run
+            log.info("Finishing stale result {}, all {} chunks already completed", testResult.getId(), chunkCount);
+            execute(request, testResult, request.getTestSuite().withTestCases(new ArrayList<>()), SuiteChunk.allOf(chunkCount), priority);
+            return;
+        }
+        log.info("Recovering stale result {}: chunks {} of {} acknowledged without completing", testResult.getId(),
+                missing.stream().map(SuiteChunk::index).toList(), chunkCount);
+        for (SuiteChunk chunk : missing) {
+            TestSuite slice = chunk.isWhole() || testResult.getChunkSize() == null
+                    ? request.getTestSuite()
+                    : chunk.sliceOf(request.getTestSuite(), testResult.getChunkSize());
+            execute(request, testResult, runCheckpoints.pendingOnly(testResult.getId(), slice), chunk, priority);
+        }
+    }
+
+    private void execute(TestExecutionRequest request, TestResult testResult, TestSuite pending, SuiteChunk chunk,
+                         PriorityClass priority) {
+        int testCases = pending.getTestCases().size();
+        admissionController.admit(testCases, priority);
+        try {
+            executorService.executeTestSuiteWithRealTimeUpdates(pending, testResult, chunk)
+                    .whenComplete((resultId, e) -> {
+                        try {
+                            if (e == null) {
+                                // Only the chunk that finished the run finds a final status
+                                String status = finalStatusOf(resultId);
+                                if (status != null) {
+                                    updateRequestStatus(request, status);
+                                    log.info("Recovered result {}", resultId);
+                                }
+                            } else {
+                                log.error("Recovery of result {} failed: {}", testResult.getId(), e.getMessage());
+                                resultRecorder.markFailed(testResult);
+                                updateRequestStatus(request, "FAILED");
+                            }
+                        } finally {
+                            admissionController.release(testCases, priority);
+                        }
+                    });
+        } catch (Exception e) {
+            admissionController.release(testCases, priority);
+            throw e;
+        }
+    }
+
+    /** The run's status once it is finished, or null while chunks are still running. */
+    private String finalStatusOf(String resultId) {
+        Query query = Query.query(Criteria.where("_id").is(resultId));
+        query.fields().include("status");
+        TestResult header = mongoTemplate.findOne(query, TestResult.class);
+        return header != null && !"PENDING".equals(header.getStatus()) && !"PROCESSING".equals(header.getStatus())
+                ? header.getStatus()
+                : null;
+    }
+
+    private void updateRequestStatus(TestExecutionRequest request, String status) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(request.getId())),
+                Update.update("status", status), TestExecutionRequest.class);
+    }
+}
@@ -0,0 +1,148 @@
+package com.dpw.specshield.services.impl;
+
+import com.dpw.specshield.execution.CapturedResponse;
+import com.dpw.specshield.execution.CircuitOpenException;
+import com.dpw.specshield.execution.PreparedRequest;
+import com.dpw.specshield.execution.RequestFlight;
+import com.dpw.specshield.execution.ResponseCapture;
+import com.dpw.specshield.execution.RetentionPolicy;
+import com.dpw.specshield.execution.RunStop;
+import com.dpw.specshield.execution.RunStoppedException;
+import com.dpw.specshield.model.TestCase;
+import com.dpw.specshield.model.TestExecution;
+import com.dpw.specshield.validation.CompiledExpectation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+
+/**
+ * Builds {@link TestExecution} records and validates responses against the expected result,
+ * independent of the transport used to call the target.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TestExecutionAssembler {
+
+    public static final String SHORT_CIRCUITED = "short-circuited";
+
+    private final ResponseCapture responseCapture;
+
+    public TestExecution newExecution(TestCase testCase) {
+        TestExecution execution = new TestExecution();
+        execution.setId(testCase.getTestCaseId());
+        execution.setTimestamp(LocalDateTime.now());
+        execution.setScenario(buildScenario(testCase));
+        execution.setExpectedResult(testCase.getExpected());
+        execution.setContractPath(testCase.getEndpoint().getUrl());
+        execution.setHttpMethod(testCase.getEndpoint().getMethod().toLowerCase());
+        return execution;
+    }
+
+    public void applyResponse(TestExecution execution, TestCase testCase, PreparedRequest request, CapturedResponse response,
+                              CompiledExpectation expectation, RetentionPolicy retention) {
+        execution.setFullRequestPath(request.url());
+
+        boolean testPassed = expectation.matches(response.toDocument());
+
+        if (testPassed) {
+            execution.setResult("success");
+            execution.setResultDetails(String.format("Response matched expected: actual [%d]",
+                    response.statusCode()));
+        } else {
+            execution.setResult("error");
+            Integer expectedStatus = testCase.getExpected() != null ? testCase.getExpected().getStatusCode() : null;
+            execution.setResultDetails(expectedStatus == null
+                    ? String.format("Configuration Error: test case has no expected status code, actual [%d]", response.statusCode())
+                    : String.format("Unexpected behaviour: expected [%d], actual [%d]", expectedStatus, response.statusCode()));
+        }
+
+        // Unretained executions only keep the status; payload, curl, body and headers are never built
+        if (retention.retainsDetails(testCase.getTestCaseId(), testPassed)) {
+            execution.setResponseDetails(responseCapture.capture(testCase.getTestCaseId(), response));
+            execution.setRequestDetails(buildRequestDetails(request));
+        } else {
+            TestExecution.ResponseDetails details = new TestExecution.ResponseDetails();
+            details.setResponseStatus(response.statusCode());
+            execution.setResponseDetails(details);
+        }
+    }
+
+    /** Validates a call's outcome for one of the cases that share it. */
+    public void applyFlight(TestExecution execution, TestCase testCase, PreparedRequest request, RequestFlight flight,
+                            CompiledExpectation expectation, RetentionPolicy retention) {
+        execution.setResponseTimeMs(flight.responseTimeMs());
+        execution.setAttempts(flight.attempts().size());
+        execution.setAttemptDetails(flight.attempts());
+        if (!testCase.getTestCaseId().equals(flight.testCaseId())) {
+            execution.setCoalescedWith(flight.testCaseId());
+        }
+
+        if (flight.response() != null) {
+            try {
+                applyResponse(execution, testCase, request, flight.response(), expectation, retention);
+            } catch (Exception e) {
+                applyError(execution, testCase, e);
+            }
+        } else if (flight.error() instanceof CircuitOpenException) {
+            applyShortCircuit(execution, testCase, request.host());
+        } else if (flight.error() instanceof RunStoppedException stopped) {
+            applyStop(execution, testCase, stopped.getReason());
+        } else {
+            applyError(execution, testCase, flight.error());
+        }
+    }
+
+    public void applyError(TestExecution execution, TestCase testCase, Throwable e) {
+        log.error("Error executing test case {}: {}", testCase.getTestCaseId(), e.getMessage());
+        execution.setResult("error");
+        execution.setResultDetails(String.format("Execution Error: %s", e.getMessage()));
+
+        // Set empty response details for general exceptions
+        TestExecution.ResponseDetails details = new TestExecution.ResponseDetails();
+        details.setResponseStatus(null);
+        details.setResponseBody("Error occurred before receiving response: " + e.getMessage());
+        details.setResponseHeaders(new HashMap<>());
+        execution.setResponseDetails(details);
+    }
+
+    /** A case that was never sent because its host's circuit is open. */
+    public void applyShortCircuit(TestExecution execution, TestCase testCase, String host) {
+        log.debug("Short-circuited test case {}: circuit open for {}", testCase.getTestCaseId(), host);
+        execution.setResult(SHORT_CIRCUITED);
+        execution.setResultDetails(String.format("Short-circuited: circuit open for %s", host));
+
+        TestExecution.ResponseDetails details = new TestExecution.ResponseDetails();
+        details.setResponseStatus(null);
+        execution.setResponseDetails(details);
+    }
+
+    /** A case cut short, or never sent, because its run was stopped or its own time budget ran out. */
+    public void applyStop(TestExecution execution, TestCase testCase, RunStop reason) {
+        log.debug("Stopped test case {}: {}", testCase.getTestCaseId(), reason);
+        execution.setResult(reason.executionResult());
+        execution.setResultDetails(reason == RunStop.CANCELLED
+                ? "Cancelled: the run was cancelled before this case finished"
+                : "Timed out: the time budget ran out before this case finished");
+
+        TestExecution.ResponseDetails details = new TestExecution.ResponseDetails();
+        details.setResponseStatus(null);
+        execution.setResponseDetails(details);
+    }
+
+    private String buildScenario(TestCase testCase) {
+        return String.format("Execute %s request to %s",
+                testCase.getEndpoint().getMethod(), testCase.getEndpoint().getUrl());
+    }
+
+    public TestExecution.RequestDetails buildRequestDetails(PreparedRequest request) {
+        TestExecution.RequestDetails details = new TestExecution.RequestDetails();
+        details.setHeaders(request.headerValues());
+        details.setPayload(request.payload());
+        details.setCurl(request.curl());
+        return details;
+    }
+}
@@ -0,0 +1,192 @@
+package com.dpw.specshield.services.impl;
+
+import com.dpw.specshield.execution.AdmissionController;
+import com.dpw.specshield.execution.PriorityClass;
+import com.dpw.specshield.execution.SuiteChunk;
+import com.dpw.specshield.model.TestExecutionRequest;
+import com.dpw.specshield.model.TestResult;
+import com.dpw.specshield.model.TestSuite;
+import com.dpw.specshield.repository.TestResultRepository;
+import com.dpw.specshield.services.IExecutorService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+/**
+ * Consumes test execution requests from Kafka and hands them to whichever
+ * {@link IExecutorService} is active for this deployment. A message carries either
+ * a whole suite or one chunk of it; chunks of the same run may land on different nodes.
+ * <p>
+ * Work is admitted through the {@link AdmissionController}: the listener container is paused
+ * while the node is full and resumed as chunks finish, so idle nodes pick up the backlog. High priority
+ * runs arrive on their own topic, whose container keeps consuming into the admission headroom.
+ * A message is acknowledged only once its chunk is completed and flushed, so a node dying
+ * mid-run leaves the chunk to be redelivered elsewhere, where it resumes from its checkpoints.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TestExecutionRequestListener {
+
+    static final String LISTENER_ID = "test-execution-listener";
+    static final String PRIORITY_LISTENER_ID = "test-execution-priority-listener";
+
+    private final IExecutorService executorService;
+    private final TestResultRepository testResultRepository;
+    private final TestResultRecorder resultRecorder;
+    private final MongoTemplate mongoTemplate;
+    private final ExecutionPlanStore executionPlanStore;
+    private final RunCheckpoints runCheckpoints;
+    private final AdmissionController admissionController;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+
+    @KafkaListener(id = LISTENER_ID, idIsGroup = false, topics = "${specshield.kafka.topics.test-execution}")
+    public void processTestExecutionRequest(@Header(KafkaHeaders.RECEIVED_KEY) String messageKey,
+                                          @Payload TestExecutionRequest request,
+                                          Acknowledgment acknowledgment) {
+        process(messageKey, request, acknowledgment);
+    }
+
+    @KafkaListener(id = PRIORITY_LISTENER_ID, idIsGroup = false, topics = "${specshield.kafka.topics.test-execution-priority}")
+    public void processPriorityTestExecutionRequest(@Header(KafkaHeaders.RECEIVED_KEY) String messageKey,
+                                                    @Payload TestExecutionRequest request,
+                                                    Acknowledgment acknowledgment) {
+        process(messageKey, request, acknowledgment);
+    }
+
+    private void process(String messageKey, TestExecutionRequest request, Acknowledgment acknowledgment) {
+        String executionId = request.getTestResultId() != null ? request.getTestResultId() : messageKey;
+        SuiteChunk chunk = request.getChunkCount() != null
+                ? new SuiteChunk(request.getChunkIndex(), request.getChunkCount())
+                : SuiteChunk.WHOLE;
+        PriorityClass parsedPriority = PriorityClass.parse(request.getPriority());
+        PriorityClass priority = parsedPriority != null ? parsedPriority : PriorityClass.NORMAL;
+        log.info("Received {} priority test execution request from Kafka with ID: {} (chunk {}/{})",
+                priority.label(), executionId, chunk.index() + 1, chunk.count());
+
+        int admittedTestCases = 0;
+        boolean testSuiteAdmitted = false;
+        try {
+            // Status only: a chunk message carries part of the suite and must not overwrite the stored request
+            updateRequestStatus(request, "PROCESSING");
+
+            TestResult initialResult = testResultRepository.findHeaderById(executionId)
+                    .orElseThrow(() -> new RuntimeException("Test result not found with ID: " + executionId));
+            // A redelivered chunk skips the cases a previous attempt already persisted
+            TestSuite testSuite = runCheckpoints.pendingOnly(executionId, executionPlanStore.suiteFor(request, chunk));
+
+            admittedTestCases = testSuite.getTestCases().size();
+            admit(admittedTestCases, priority);
+            testSuiteAdmitted = true;
+            executeTestSuiteAsync(request, testSuite, initialResult, chunk, admittedTestCases, priority, acknowledgment);
+
+        } catch (Exception e) {
+            log.error("Error processing test execution request {}: {}", executionId, e.getMessage());
+            try {
+                updateRequestStatus(request, "FAILED");
+                acknowledge(executionId, chunk, acknowledgment);
+                log.debug("Message acknowledged after failure for execution ID: {}", executionId);
+            } catch (Exception saveException) {
+                log.error("Failed to save error status for execution {}: {}", executionId, saveException.getMessage());
+                throw saveException;
+            } finally {
+                if (testSuiteAdmitted) {
+                    release(admittedTestCases, priority);
+                }
+            }
+        }
+    }
+
+    private void executeTestSuiteAsync(TestExecutionRequest request, TestSuite testSuite, TestResult testResult, SuiteChunk chunk,
+                                       int admittedTestCases, PriorityClass priority, Acknowledgment acknowledgment) {
+        log.info("Starting asynchronous test suite execution: {}", request.getTestSuiteName());
+
+        executorService.executeTestSuiteWithRealTimeUpdates(testSuite, testResult, chunk)
+                .whenComplete((resultId, e) -> {
+                    try {
+                        if (e == null) {
+                            // Only the chunk that finished the run finds it COMPLETED, CANCELLED or TIMED_OUT
+                            testResultRepository.findHeaderById(resultId)
+                                    .map(TestResult::getStatus)
+                                    .filter(status -> !"PENDING".equals(status) && !"PROCESSING".equals(status))
+                                    .ifPresent(status -> updateRequestStatus(request, status));
+
+                            log.info("Completed asynchronous test suite execution: {} with result ID: {}",
+                                    request.getTestSuiteName(), resultId);
+                        } else {
+                            log.error("Error in asynchronous test execution for request {}: {}",
+                                     request.getId(), e.getMessage());
+
+                            resultRecorder.markFailed(testResult);
+                            updateRequestStatus(request, "FAILED");
+                        }
+
+                        // The chunk's executions are persisted by now, it is safe to commit past it
+                        acknowledge(testResult.getId(), chunk, acknowledgment);
+                        log.debug("Message acknowledged for execution ID: {}", testResult.getId());
+                    } finally {
+                        release(admittedTestCases, priority);
+                    }
+                });
+    }
+
+    private void admit(int testCases, PriorityClass priority) {
+        admissionController.admit(testCases, priority);
+        pauseIfFull(LISTENER_ID, PriorityClass.NORMAL);
+        pauseIfFull(PRIORITY_LISTENER_ID, PriorityClass.HIGH);
+    }
+
+    private void release(int testCases, PriorityClass priority) {
+        admissionController.release(testCases, priority);
+        resumeIfFree(LISTENER_ID, PriorityClass.NORMAL);
+        resumeIfFree(PRIORITY_LISTENER_ID, PriorityClass.HIGH);
+    }
+
+    private void pauseIfFull(String listenerId, PriorityClass priority) {
+        if (!admissionController.hasCapacity(priority)) {
+            MessageListenerContainer container = listenerRegistry.getListenerContainer(listenerId);
+            if (container != null && !container.isPauseRequested()) {
+                log.info("Node at capacity for {} priority work with {} suites and {} test cases in flight, pausing {}",
+                        priority.label(), admissionController.getInFlightSuites(), admissionController.getInFlightTestCases(), listenerId);
+                container.pause();
+            }
+        }
+    }
+
+    private void resumeIfFree(String listenerId, PriorityClass priority) {
+        if (admissionController.hasCapacity(priority)) {
+            MessageListenerContainer container = listenerRegistry.getListenerContainer(listenerId);
+            if (container != null && container.isPauseRequested()) {
+                log.info("Capacity freed, resuming {}", listenerId);
+                container.resume();
+            }
+        }
+    }
+
+    /**
+     * Records the chunk as acknowledged before committing past it. Until every chunk of a run is
+     * recorded here, Kafka still holds a message that will run the rest, so the recovery sweeper leaves it alone.
+     */
+    private void acknowledge(String executionId, SuiteChunk chunk, Acknowledgment acknowledgment) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(executionId)),
+                new Update().addToSet("ackedChunks").each(chunk.indexes().toArray()), TestResult.class);
+        acknowledgment.acknowledge();
+    }
+
+    private void updateRequestStatus(TestExecutionRequest request, String status) {
+        request.setStatus(status);
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(request.getId())),
+                Update.update("status", status), TestExecutionRequest.class);
+    }
+}
@@ -0,0 +1,420 @@
+package com.dpw.specshield.services.impl;
+
+import com.dpw.specshield.execution.RunStop;
+import com.dpw.specshield.execution.SuiteChunk;
+import com.dpw.specshield.model.CircuitBreakerState;
+import com.dpw.specshield.model.ConcurrencyLimitState;
+import com.dpw.specshield.model.TestExecution;
+import com.dpw.specshield.model.TestExecutionRecord;
+import com.dpw.specshield.model.TestResult;
+import com.dpw.specshield.model.TestSuite;
+import com.dpw.specshield.repository.TestResultRepository;
+import com.mongodb.client.result.UpdateResult;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Persists the lifecycle of a suite run: start, each completed execution and completion.
+ * Shared by every {@link com.dpw.specshield.services.IExecutorService} implementation.
+ * <p>
+ * Executions are buffered per run and written behind, either when a batch fills up or on the
+ * periodic flush: one bulk write into {@code test_executions} plus a single {@code $inc} on the
+ * {@link TestResult} header, so the header is never read back and runs never contend with each other.
+ * <p>
+ * A sharded run is recorded by every node executing one of its chunks. Each finished chunk is added
+ * to the header's {@code completedChunks}; the node that adds the last one recounts the run from
+ * {@code test_executions} and makes the one PROCESSING to COMPLETED transition.
+ * <p>
+ * While a run has executions buffered here its {@code heartbeatAt} is refreshed, so the
+ * {@link RunRecoverySweeper} only picks up runs whose nodes have gone away.
+ * <p>
+ * A node may execute several chunks of one run at once, so the run's buffer is shared: each chunk
+ * opens it in {@link #startRun} and closes it in {@link #completeRun} or {@link #abandonChunk}, and
+ * the buffer goes away with the last chunk to close.
+ * <p>
+ * Every persisted batch and every finished run is also published on the {@link RunProgressBus}.
+ */
+@Slf4j
+@Component
+public class TestResultRecorder implements DisposableBean {
+
+    private static final int MAX_FINAL_FLUSH_ATTEMPTS = 3;
+
+    private final TestResultRepository testResultRepository;
+    private final MongoTemplate mongoTemplate;
+    private final RunProgressBus progressBus;
+    private final int flushBatchSize;
+    private final Map<String, RunBuffer> buffers = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("result-flusher").daemon().factory());
+
+    public TestResultRecorder(TestResultRepository testResultRepository,
+                              MongoTemplate mongoTemplate,
+                              RunProgressBus progressBus,
+                              @Value("${specshield.results.flush-interval:500ms}") Duration flushInterval,
+                              @Value("${specshield.results.flush-batch-size:100}") int flushBatchSize,
+                              @Value("${specshield.recovery.heartbeat-interval:30s}") Duration heartbeatInterval) {
+        this.testResultRepository = testResultRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.progressBus = progressBus;
+        this.flushBatchSize = flushBatchSize;
+        flusher.scheduleWithFixedDelay(this::flushAll, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        flusher.scheduleWithFixedDelay(this::heartbeat, heartbeatInterval.toMillis(), heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public TestResult startRun(TestSuite testSuite, TestResult existingResult, LocalDateTime startTime) {
+        TestResult testResult;
+        if (existingResult != null) {
+            testResult = existingResult;
+            testResult.setExecutionStartTime(startTime);
+            testResult.setStatus("PROCESSING");
+            // The first chunk to start opens the run; later chunks join it without touching the counters
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(testResult.getId()).and("status").is("PENDING")),
+                    new Update().set("status", "PROCESSING").set("executionStartTime", startTime), TestResult.class);
+            mongoTemplate.updateFirst(byId(testResult.getId()), Update.update("heartbeatAt", LocalDateTime.now()), TestResult.class);
+        } else {
+            testResult = new TestResult();
+            testResult.setTestSuiteName(testSuite.getTestSuiteName());
+            testResult.setExecutionStartTime(startTime);
+            testResult.setStatus("PROCESSING");
+            testResult.setTotalTests(testSuite.getTestCases().size());
+            testResult.setPendingTests(testSuite.getTestCases().size());
+            testResult.setSuccessfulTests(0);
+            testResult.setErrorTests(0);
+            testResult.setWarningTests(0);
+            testResult.setShortCircuitedTests(0);
+            testResult.setCancelledTests(0);
+            testResult.setTimedOutTests(0);
+            testResult.setHeartbeatAt(startTime);
+
+            if (testSuite.getId() != null) {
+                testResult.setId(testSuite.getId());
+            }
+            testResult = testResultRepository.save(testResult);
+        }
+
+        buffers.compute(testResult.getId(), (id, buffer) -> (buffer != null ? buffer : new RunBuffer(id)).open());
+        return testResult;
+    }
+
+    /** Buffers one execution of an open run; one arriving after every chunk of the run closed here is dropped. */
+    public void recordExecution(TestResult testResult, TestExecution execution) {
+        RunBuffer buffer = buffers.get(testResult.getId());
+        if (buffer == null) {
+            log.warn("Dropping execution {} of result {}: the run is not open on this node", execution.getId(), testResult.getId());
+            return;
+        }
+        if (buffer.add(execution) >= flushBatchSize) {
+            flush(buffer);
+        }
+    }
+
+    /**
+     * Persists a finished chunk. A chunk cut short by the run's deadline marks the run as timed out;
+     * the run then finishes as CANCELLED, TIMED_OUT or COMPLETED once its last chunk is in.
+     * A chunk that is no longer open here, having been completed or abandoned already, changes nothing.
+     */
+    public TestResult completeRun(TestResult testResult, List<TestExecution> allExecutions, LocalDateTime startTime, SuiteChunk chunk,
+                                  RunStop stop) {
+        RunBuffer buffer = buffers.get(testResult.getId());
+        if (buffer == null) {
+            log.warn("Ignoring completion of chunk {} of result {}: the run is not open on this node", chunk.indexes(), testResult.getId());
+            return testResult;
+        }
+        allExecutions.forEach(buffer::add);
+        flushFully(buffer);
+        close(testResult.getId());
+
+        Query headerQuery = byId(testResult.getId());
+        headerQuery.fields().include("completedChunks", "totalTests", "executionStartTime", "cancelRequested", "timedOut");
+        Update chunkDone = new Update().addToSet("completedChunks").each(chunk.indexes().toArray());
+        if (stop == RunStop.TIMED_OUT) {
+            chunkDone.set("timedOut", true);
+        }
+        TestResult header = mongoTemplate.findAndModify(headerQuery, chunkDone,
+                FindAndModifyOptions.options().returnNew(true), TestResult.class);
+        if (header == null) {
+            throw new RuntimeException("Test result not found with ID: " + testResult.getId());
+        }
+
+        if (header.getCompletedChunks().size() < chunk.count()) {
+            log.info("Chunk {} of result {} completed, {}/{} chunks done", chunk.indexes(),
+                    testResult.getId(), header.getCompletedChunks().size(), chunk.count());
+            return testResult;
+        }
+        return finishRun(testResult, header, startTime);
+    }
+
+    private TestResult finishRun(TestResult testResult, TestResult header, LocalDateTime startTime) {
+        Map<String, Integer> counts = countResults(testResult.getId());
+        int successful = counts.getOrDefault("success", 0);
+        int errors = counts.getOrDefault("error", 0);
+        int warnings = counts.getOrDefault("warning", 0);
+        int shortCircuited = counts.getOrDefault(TestExecutionAssembler.SHORT_CIRCUITED, 0);
+        int cancelled = counts.getOrDefault(RunStop.CANCELLED.executionResult(), 0);
+        int timedOut = counts.getOrDefault(RunStop.TIMED_OUT.executionResult(), 0);
+        int recorded = counts.values().stream().mapToInt(Integer::intValue).sum();
+        int total = header.getTotalTests() != null ? header.getTotalTests() : recorded;
+
+        LocalDateTime runStart = header.getExecutionStartTime() != null ? header.getExecutionStartTime() : startTime;
+        LocalDateTime endTime = LocalDateTime.now();
+        Duration duration = Duration.between(runStart, endTime);
+
+        testResult.setExecutionEndTime(endTime);
+        testResult.setExecutionDuration(formatDuration(duration));
+        String status = Boolean.TRUE.equals(header.getCancelRequested()) ? RunStop.CANCELLED.runStatus()
+                : Boolean.TRUE.equals(header.getTimedOut()) ? RunStop.TIMED_OUT.runStatus()
+                : "COMPLETED";
+        testResult.setStatus(status);
+        testResult.setSuccessfulTests(successful);
+        testResult.setErrorTests(errors);
+        testResult.setWarningTests(warnings);
+        testResult.setShortCircuitedTests(shortCircuited);
+        testResult.setCancelledTests(cancelled);
+        testResult.setTimedOutTests(timedOut);
+        testResult.setPendingTests(Math.max(0, total - recorded));
+
+        // Counters are overwritten with exact totals, so a replayed chunk cannot leave them skewed
+        UpdateResult update = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(testResult.getId()).and("status").in("PENDING", "PROCESSING")),
+                new Update()
+                        .set("executionEndTime", endTime)
+                        .set("executionDuration", testResult.getExecutionDuration())
+                        .set("status", status)
+                        .set("successfulTests", successful)
+                        .set("errorTests", errors)
+                        .set("warningTests", warnings)
+                        .set("shortCircuitedTests", shortCircuited)
+                        .set("cancelledTests", cancelled)
+                        .set("timedOutTests", timedOut)
+                        .set("pendingTests", testResult.getPendingTests()),
+                TestResult.class);
+        if (update.getModifiedCount() == 0) {
+            log.info("Result {} was already finished or failed, keeping its final state", testResult.getId());
+        } else {
+            progressBus.runFinished(testResult, counts);
+        }
+        return testResult;
+    }
+
+    private Map<String, Integer> countResults(String resultId) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("resultId").is(resultId)),
+                Aggregation.group("execution.result").count().as("count"));
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (Document group : mongoTemplate.aggregate(aggregation, TestExecutionRecord.class, Document.class)) {
+            counts.put(String.valueOf(group.get("_id")), ((Number) group.get("count")).intValue());
+        }
+        return counts;
+    }
+
+    /** Stores the circuit breaker state and concurrency limits of the hosts a chunk called, shown in the report overview. */
+    public void recordHostStates(TestResult testResult, List<CircuitBreakerState> circuitBreakers,
+                                 List<ConcurrencyLimitState> concurrencyLimits) {
+        if (circuitBreakers.isEmpty() && concurrencyLimits.isEmpty()) {
+            return;
+        }
+        testResult.setCircuitBreakers(circuitBreakers);
+        testResult.setConcurrencyLimits(concurrencyLimits);
+        mongoTemplate.updateFirst(byId(testResult.getId()),
+                new Update().set("circuitBreakers", circuitBreakers).set("concurrencyLimits", concurrencyLimits),
+                TestResult.class);
+    }
+
+    /** Closes the share of a chunk that started but failed before it could complete, keeping what it recorded. */
+    public void abandonChunk(TestResult testResult) {
+        RunBuffer buffer = buffers.get(testResult.getId());
+        if (buffer != null) {
+            flushFully(buffer);
+        }
+        close(testResult.getId());
+    }
+
+    public void markFailed(TestResult testResult) {
+        // Chunks still running on this node close the buffer themselves
+        RunBuffer buffer = buffers.get(testResult.getId());
+        if (buffer != null) {
+            flushFully(buffer);
+        }
+        testResult.setStatus("FAILED");
+        mongoTemplate.updateFirst(byId(testResult.getId()), Update.update("status", "FAILED"), TestResult.class);
+        progressBus.runFinished(testResult, null);
+    }
+
+    @Override
+    public void destroy() {
+        flusher.shutdown();
+        buffers.values().forEach(this::flushFully);
+    }
+
+    private void flushAll() {
+        buffers.values().forEach(this::flush);
+    }
+
+    /** Marks every run active on this node as alive, keeping the recovery sweeper away from it. */
+    private void heartbeat() {
+        if (buffers.isEmpty()) {
+            return;
+        }
+        try {
+            mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(buffers.keySet())),
+                    Update.update("heartbeatAt", LocalDateTime.now()), TestResult.class);
+        } catch (Exception e) {
+            log.warn("Failed to record heartbeat for {} runs: {}", buffers.size(), e.getMessage());
+        }
+    }
+
+    private void close(String resultId) {
+        buffers.computeIfPresent(resultId, (id, buffer) -> buffer.close() > 0 ? buffer : null);
+    }
+
+    private void flushFully(RunBuffer buffer) {
+        for (int attempt = 0; attempt < MAX_FINAL_FLUSH_ATTEMPTS && buffer.hasPending(); attempt++) {
+            flush(buffer);
+        }
+        if (buffer.hasPending()) {
+            log.error("Could not persist all executions for result {}", buffer.resultId);
+        }
+    }
+
+    private void flush(RunBuffer buffer) {
+        // Per-run lock only: keeps completion from overtaking an in-flight batch of the same run
+        buffer.flushLock.lock();
+        try {
+            List<TestExecution> batch = buffer.drain();
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            int successful = 0;
+            int errors = 0;
+            int warnings = 0;
+            int shortCircuited = 0;
+            int cancelled = 0;
+            int timedOut = 0;
+            for (TestExecution execution : batch) {
+                if ("success".equals(execution.getResult())) {
+                    successful++;
+                } else if ("error".equals(execution.getResult())) {
+                    errors++;
+                } else if ("warning".equals(execution.getResult())) {
+                    warnings++;
+                } else if (TestExecutionAssembler.SHORT_CIRCUITED.equals(execution.getResult())) {
+                    shortCircuited++;
+                } else if (RunStop.CANCELLED.executionResult().equals(execution.getResult())) {
+                    cancelled++;
+                } else if (RunStop.TIMED_OUT.executionResult().equals(execution.getResult())) {
+                    timedOut++;
+                }
+            }
+
+            Update counters = new Update()
+                    .inc("successfulTests", successful)
+                    .inc("errorTests", errors)
+                    .inc("warningTests", warnings)
+                    .inc("shortCircuitedTests", shortCircuited)
+                    .inc("cancelledTests", cancelled)
+                    .inc("timedOutTests", timedOut)
+                    .inc("pendingTests", -(successful + errors + warnings + shortCircuited + cancelled + timedOut));
+
+            try {
+                // Records are upserted by their deterministic id, so replaying a requeued batch is harmless
+                BulkOperations records = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TestExecutionRecord.class);
+                for (TestExecution execution : batch) {
+                    TestExecutionRecord record = TestExecutionRecord.of(buffer.resultId, execution);
+                    records.replaceOne(byId(record.getId()), record, FindAndReplaceOptions.options().upsert());
+                }
+                records.execute();
+                mongoTemplate.updateFirst(byId(buffer.resultId), counters, TestResult.class);
+                log.debug("Flushed {} executions for result {}", batch.size(), buffer.resultId);
+                progressBus.executionsRecorded(buffer.resultId, batch);
+            } catch (Exception e) {
+                buffer.requeue(batch);
+                log.warn("Failed to flush {} executions for result {}, will retry: {}",
+                        batch.size(), buffer.resultId, e.getMessage());
+            }
+        } finally {
+            buffer.flushLock.unlock();
+        }
+    }
+
+    private Query byId(String resultId) {
+        return Query.query(Criteria.where("_id").is(resultId));
+    }
+
+    private String formatDuration(Duration duration) {
+        return duration.toMillis() + "ms";
+    }
+
+    private static final class RunBuffer {
+        private final String resultId;
+        private final Set<String> recordedIds = ConcurrentHashMap.newKeySet();
+        private final List<TestExecution> pending = new ArrayList<>();
+        private final ReentrantLock flushLock = new ReentrantLock();
+        private int openChunks; // only changed inside the buffers map's compute functions
+
+        private RunBuffer(String resultId) {
+            this.resultId = resultId;
+        }
+
+        private RunBuffer open() {
+            openChunks++;
+            return this;
+        }
+
+        private int close() {
+            return --openChunks;
+        }
+
+        private synchronized int add(TestExecution execution) {
+            if (!recordedIds.add(execution.getId())) {
+                log.debug("Execution {} already recorded, skipping duplicate update", execution.getId());
+                return pending.size();
+            }
+            pending.add(execution);
+            return pending.size();
+        }
+
+        private synchronized boolean hasPending() {
+            return !pending.isEmpty();
+        }
+
+        private synchronized List<TestExecution> drain() {
+            if (pending.isEmpty()) {
+                return List.of();
+            }
+            List<TestExecution> batch = new ArrayList<>(pending);
+            pending.clear();
+            return batch;
+        }
+
+        private synchronized void requeue(List<TestExecution> batch) {
+            pending.addAll(0, batch);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.dpw.specshield.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * Keeps spilled bodies as files in a local or mounted directory, one file per body.
+ */
+@Component
+@ConditionalOnProperty(name = "specshield.results.capture.store", havingValue = "file")
+public class FileResponseBodyStore implements ResponseBodyStore {
+
+    private final Path directory;
+
+    public FileResponseBodyStore(@Value("${specshield.results.capture.directory:${java.io.tmpdir}/specshield-bodies}") Path directory)
+            throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    @Override
+    public String store(String name, byte[] content) {
+        String reference = UUID.randomUUID().toString();
+        try {
+            Files.write(directory.resolve(reference), content);
+            return reference;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store response body for " + name, e);
+        }
+    }
+
+    @Override
+    public byte[] load(String reference) {
+        try {
+            // References are generated UUIDs, anything else cannot name a stored body
+            return Files.readAllBytes(directory.resolve(UUID.fromString(reference).toString()));
+        } catch (NoSuchFileException | IllegalArgumentException e) {
+            throw new RuntimeException("Response body not found: " + reference);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read response body " + reference, e);
+        }
+    }
+
+    @Override
+    public void delete(String reference) {
+        try {
+            Files.deleteIfExists(directory.resolve(UUID.fromString(reference).toString()));
+        } catch (IllegalArgumentException e) {
+            // not a reference this store generated
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to delete response body " + reference, e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.dpw.specshield.storage;
+
+import com.mongodb.client.gridfs.model.GridFSFile;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "specshield.results.capture.store", havingValue = "gridfs", matchIfMissing = true)
+public class GridFsResponseBodyStore implements ResponseBodyStore {
+
+    private final GridFsTemplate gridFsTemplate;
+
+    @Override
+    public String store(String name, byte[] content) {
+        return gridFsTemplate.store(new ByteArrayInputStream(content), name).toHexString();
+    }
+
+    @Override
+    public byte[] load(String reference) {
+        GridFSFile file = gridFsTemplate.findOne(Query.query(Criteria.where("_id").is(new ObjectId(reference))));
+        if (file == null) {
+            throw new RuntimeException("Response body not found: " + reference);
+        }
+        try (InputStream in = gridFsTemplate.getResource(file).getInputStream()) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read response body " + reference, e);
+        }
+    }
+
+    @Override
+    public void delete(String reference) {
+        gridFsTemplate.delete(Query.query(Criteria.where("_id").is(new ObjectId(reference))));
+    }
+}
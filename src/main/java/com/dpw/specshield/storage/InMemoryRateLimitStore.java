@@ -0,0 +1,36 @@
+package com.dpw.specshield.storage;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps token buckets in this node's memory. Limits then apply per node, which is right for a
+ * single-node deployment and a stand-in for tests.
+ */
+@Component
+@ConditionalOnProperty(name = "specshield.executor.rate-limit.store", havingValue = "memory")
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    @Override
+    public long tryAcquire(String host, double permitsPerSecond, double burst) {
+        long now = System.currentTimeMillis();
+        long[] waitMillis = new long[1];
+        buckets.compute(host, (key, bucket) -> {
+            TokenBucket.Take take = (bucket != null ? bucket : TokenBucket.full(burst, now)).take(now, permitsPerSecond, burst);
+            waitMillis[0] = take.waitMillis();
+            return take.bucket();
+        });
+        return waitMillis[0];
+    }
+
+    @Override
+    public void blockUntil(String host, long until) {
+        long now = System.currentTimeMillis();
+        buckets.compute(host, (key, bucket) -> (bucket != null ? bucket : TokenBucket.full(0, now)).blockedUntil(until));
+    }
+}
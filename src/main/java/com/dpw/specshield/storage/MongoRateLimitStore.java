@@ -0,0 +1,89 @@
+package com.dpw.specshield.storage;
+
+import com.dpw.specshield.model.RateLimitBucket;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * Keeps token buckets in the {@code rate_limit_buckets} collection, one document per host, so every
+ * executor node draws from the same bucket. Updates are compare-and-set on a revision number;
+ * a node that loses the race re-reads the bucket and tries again. Refills are computed from each
+ * node's clock, so nodes are expected to keep their clocks synchronised.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "specshield.executor.rate-limit.store", havingValue = "mongo", matchIfMissing = true)
+public class MongoRateLimitStore implements RateLimitStore {
+
+    private static final int MAX_ATTEMPTS = 16;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public long tryAcquire(String host, double permitsPerSecond, double burst) {
+        long[] waitMillis = new long[1];
+        boolean written = update(host, burst, bucket -> {
+            TokenBucket.Take take = bucket.take(System.currentTimeMillis(), permitsPerSecond, burst);
+            waitMillis[0] = take.waitMillis();
+            return take.bucket();
+        });
+        // Under heavy contention, back off briefly rather than spin on the document
+        return written ? waitMillis[0] : Math.max(1, (long) (1000.0 / permitsPerSecond));
+    }
+
+    @Override
+    public void blockUntil(String host, long until) {
+        if (!update(host, 0, bucket -> bucket.blockedUntil(until))) {
+            log.warn("Could not record Retry-After for {} under contention", host);
+        }
+    }
+
+    private boolean update(String host, double initialTokens, UnaryOperator<TokenBucket> change) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            RateLimitBucket stored = mongoTemplate.findById(host, RateLimitBucket.class);
+            if (stored == null) {
+                RateLimitBucket created = toDocument(host, change.apply(TokenBucket.full(initialTokens, System.currentTimeMillis())), 0);
+                try {
+                    mongoTemplate.insert(created);
+                    return true;
+                } catch (DuplicateKeyException e) {
+                    continue; // another node created it first
+                }
+            }
+
+            TokenBucket next = change.apply(new TokenBucket(stored.getTokens(), stored.getRefilledAt(), stored.getBlockedUntil()));
+            long written = mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(host).and("revision").is(stored.getRevision())),
+                    new Update()
+                            .set("tokens", next.tokens())
+                            .set("refilledAt", next.refilledAt())
+                            .set("blockedUntil", next.blockedUntil())
+                            .inc("revision", 1),
+                    RateLimitBucket.class).getModifiedCount();
+            if (written == 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private RateLimitBucket toDocument(String host, TokenBucket bucket, long revision) {
+        RateLimitBucket document = new RateLimitBucket();
+        document.setHost(host);
+        document.setTokens(bucket.tokens());
+        document.setRefilledAt(bucket.refilledAt());
+        document.setBlockedUntil(bucket.blockedUntil());
+        document.setRevision(revision);
+        return document;
+    }
+}
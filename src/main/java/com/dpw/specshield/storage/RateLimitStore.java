@@ -0,0 +1,13 @@
+package com.dpw.specshield.storage;
+
+/**
+ * Holds the per-host token buckets that rate limit calls to target hosts.
+ */
+public interface RateLimitStore {
+
+    /** Takes a token from the host's bucket; returns 0 when one was taken, otherwise the milliseconds to wait before asking again. */
+    long tryAcquire(String host, double permitsPerSecond, double burst);
+
+    /** Holds back every call to the host until the given epoch millisecond, as asked by a {@code Retry-After}. */
+    void blockUntil(String host, long until);
+}
@@ -0,0 +1,15 @@
+package com.dpw.specshield.storage;
+
+/**
+ * Holds response bodies too large to keep inline in a {@code TestExecution}.
+ */
+public interface ResponseBodyStore {
+
+    /** Stores the content and returns the reference to keep in the response details. */
+    String store(String name, byte[] content);
+
+    byte[] load(String reference);
+
+    /** Removes a stored body; a reference that names nothing is ignored. */
+    void delete(String reference);
+}
@@ -0,0 +1,37 @@
+package com.dpw.specshield.storage;
+
+/**
+ * State of one host's token bucket as kept by a {@link RateLimitStore}. Tokens refill continuously
+ * at the host's rate up to the burst size; {@code blockedUntil} holds every request back after a
+ * {@code Retry-After}.
+ */
+public record TokenBucket(double tokens, long refilledAt, long blockedUntil) {
+
+    public static TokenBucket full(double burst, long now) {
+        return new TokenBucket(burst, now, 0);
+    }
+
+    /** The bucket after trying to take one token at {@code now}, and how long to wait if none was available. */
+    public Take take(long now, double permitsPerSecond, double burst) {
+        if (blockedUntil > now) {
+            return new Take(this, blockedUntil - now);
+        }
+        double refilled = Math.min(burst, tokens + Math.max(0, now - refilledAt) * permitsPerSecond / 1000.0);
+        if (refilled >= 1) {
+            return new Take(new TokenBucket(refilled - 1, now, blockedUntil), 0);
+        }
+        long waitMillis = (long) Math.ceil((1 - refilled) * 1000.0 / permitsPerSecond);
+        return new Take(new TokenBucket(refilled, now, blockedUntil), Math.max(1, waitMillis));
+    }
+
+    public TokenBucket blockedUntil(long until) {
+        return new TokenBucket(tokens, refilledAt, Math.max(blockedUntil, until));
+    }
+
+    public record Take(TokenBucket bucket, long waitMillis) {
+
+        public boolean granted() {
+            return waitMillis == 0;
+        }
+    }
+}
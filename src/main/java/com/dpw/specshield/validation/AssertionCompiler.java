@@ -0,0 +1,179 @@
+package com.dpw.specshield.validation;
+
+import com.dpw.specshield.model.ExpectedResult;
+import com.dpw.specshield.model.TestAssertion;
+import com.dpw.specshield.model.TestCase;
+import com.dpw.specshield.model.TestSuite;
+import com.jayway.jsonpath.JsonPath;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves assertion conditions into evaluator objects once per suite run and keeps
+ * compiled JsonPath expressions cached by their source string. Simple paths are also
+ * recorded as stream targets so large bodies can be checked without being buffered.
+ */
+@Slf4j
+@Component
+public class AssertionCompiler {
+
+    private static final int MAX_CACHED_PATHS = 10_000;
+
+    private final Map<String, JsonPath> compiledPaths = new ConcurrentHashMap<>();
+
+    public Map<TestCase, CompiledExpectation> compile(TestSuite testSuite) {
+        Map<TestCase, CompiledExpectation> expectations = new IdentityHashMap<>();
+        for (TestCase testCase : testSuite.getTestCases()) {
+            expectations.put(testCase, compile(testCase.getExpected()));
+        }
+        return expectations;
+    }
+
+    /**
+     * A case without an expected result, or without an expected status, compiles to an expectation
+     * no response matches, so it fails as a configuration error instead of failing the whole suite.
+     */
+    public CompiledExpectation compile(ExpectedResult expectedResult) {
+        if (expectedResult == null) {
+            return new CompiledExpectation(null, List.of(), List.of());
+        }
+        List<CompiledAssertion> assertions = new ArrayList<>();
+        Map<String, StreamTarget> streamTargets = new LinkedHashMap<>();
+        boolean streamable = true;
+        if (expectedResult.getAssertions() != null) {
+            for (TestAssertion assertion : expectedResult.getAssertions()) {
+                assertions.add(compile(assertion));
+                if (!"statusCode".equals(assertion.getType())) {
+                    StreamTarget target = toStreamTarget(assertion);
+                    if (target == null) {
+                        streamable = false;
+                    } else {
+                        streamTargets.merge(target.path().getExpression(), target, StreamTarget::merge);
+                    }
+                }
+            }
+        }
+        return new CompiledExpectation(expectedResult.getStatusCode(), List.copyOf(assertions),
+                streamable ? List.copyOf(streamTargets.values()) : null);
+    }
+
+    private StreamTarget toStreamTarget(TestAssertion assertion) {
+        SimpleJsonPath path = SimpleJsonPath.parse(assertion.getJsonPath());
+        if (path == null) {
+            return null;
+        }
+        // Comparisons stringify the value, so containers must be read as JsonPath would return them
+        String condition = String.valueOf(assertion.getCondition());
+        return new StreamTarget(path, "EQUALS".equals(condition) || "IN_RANGE".equals(condition));
+    }
+
+    private CompiledAssertion compile(TestAssertion assertion) {
+        if ("statusCode".equals(assertion.getType())) {
+            return compileStatusAssertion(assertion);
+        }
+
+        CompiledAssertion bodyAssertion = compileBodyAssertion(assertion);
+        // Body assertions pass when there is no body to check
+        return response -> !response.hasBody() || bodyAssertion.test(response);
+    }
+
+    private CompiledAssertion compileStatusAssertion(TestAssertion assertion) {
+        switch (String.valueOf(assertion.getCondition())) {
+            case "EQUALS":
+                String expectedValue = assertion.getExpectedValue();
+                return response -> Objects.equals(String.valueOf(response.getStatusCode()), expectedValue);
+            case "IN_RANGE":
+                Integer min = assertion.getMin();
+                Integer max = assertion.getMax();
+                return response -> min != null && max != null
+                        && response.getStatusCode() >= min && response.getStatusCode() <= max;
+            default:
+                log.warn("Unknown status code assertion condition: {}", assertion.getCondition());
+                return response -> true;
+        }
+    }
+
+    private CompiledAssertion compileBodyAssertion(TestAssertion assertion) {
+        // For body assertions, we need a jsonPath
+        if (assertion.getJsonPath() == null || assertion.getJsonPath().isEmpty()) {
+            log.warn("JsonPath is required for non-statusCode assertion type: {} with condition: {}",
+                     assertion.getType(), assertion.getCondition());
+            return response -> false;
+        }
+
+        JsonPath path;
+        try {
+            path = compilePath(assertion.getJsonPath());
+        } catch (Exception e) {
+            log.warn("Invalid JsonPath {} for assertion {}: {}", assertion.getJsonPath(), assertion.getCondition(), e.getMessage());
+            return response -> false;
+        }
+
+        ValueCondition condition = compileCondition(assertion);
+        String expression = assertion.getJsonPath();
+        return response -> {
+            try {
+                return condition.test(response.read(path, expression));
+            } catch (Exception e) {
+                log.warn("Failed to validate test assertion {} with path {}: {}",
+                         assertion.getCondition(), assertion.getJsonPath(), e.getMessage());
+                return false;
+            }
+        };
+    }
+
+    private ValueCondition compileCondition(TestAssertion assertion) {
+        switch (String.valueOf(assertion.getCondition())) {
+            case "NOT_EMPTY":
+                return value -> value != null && !value.toString().isEmpty();
+            case "NOT_NULL":
+                return Objects::nonNull;
+            case "NOT_NULL_OR_EMPTY":
+                return value -> value != null && !value.toString().trim().isEmpty();
+            case "EQUALS":
+                String expectedValue = assertion.getExpectedValue();
+                return value -> Objects.equals(value != null ? value.toString() : null, expectedValue);
+            case "IN_RANGE":
+                Integer min = assertion.getMin();
+                Integer max = assertion.getMax();
+                return value -> {
+                    if (value == null || min == null || max == null) return false;
+                    try {
+                        int intValue = Integer.parseInt(value.toString());
+                        return intValue >= min && intValue <= max;
+                    } catch (NumberFormatException e) {
+                        log.warn("Cannot convert value {} to integer for IN_RANGE assertion", value);
+                        return false;
+                    }
+                };
+            default:
+                log.warn("Unknown assertion condition: {}", assertion.getCondition());
+                return value -> true;
+        }
+    }
+
+    private JsonPath compilePath(String expression) {
+        JsonPath path = compiledPaths.get(expression);
+        if (path != null) {
+            return path;
+        }
+        path = JsonPath.compile(expression);
+        if (compiledPaths.size() < MAX_CACHED_PATHS) {
+            compiledPaths.putIfAbsent(expression, path);
+        }
+        return path;
+    }
+
+    @FunctionalInterface
+    private interface ValueCondition {
+        boolean test(Object value);
+    }
+}
@@ -0,0 +1,6 @@
+package com.dpw.specshield.validation;
+
+@FunctionalInterface
+public interface CompiledAssertion {
+    boolean test(ResponseDocument response);
+}
@@ -0,0 +1,64 @@
+package com.dpw.specshield.validation;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The expected result of one test case with its assertions already resolved.
+ */
+public class CompiledExpectation {
+
+    private final Integer statusCode; // null when the case names none, which never matches
+    private final List<CompiledAssertion> assertions;
+    private final List<StreamTarget> streamTargets; // null when some body path needs the full document
+
+    public CompiledExpectation(Integer statusCode, List<CompiledAssertion> assertions, List<StreamTarget> streamTargets) {
+        this.statusCode = statusCode;
+        this.assertions = assertions;
+        this.streamTargets = streamTargets;
+    }
+
+    /**
+     * What must be captured from a response several cases will validate: the stream targets of
+     * all of them, or the whole body when any one needs it. Only used for reading, never matched.
+     */
+    public static CompiledExpectation forReading(List<CompiledExpectation> expectations) {
+        if (expectations.size() == 1) {
+            return expectations.get(0);
+        }
+        Map<String, StreamTarget> targets = new LinkedHashMap<>();
+        for (CompiledExpectation expectation : expectations) {
+            if (!expectation.isStreamable()) {
+                return new CompiledExpectation(expectation.statusCode, List.of(), null);
+            }
+            for (StreamTarget target : expectation.streamTargets) {
+                targets.merge(target.path().getExpression(), target, StreamTarget::merge);
+            }
+        }
+        return new CompiledExpectation(expectations.get(0).statusCode, List.of(), List.copyOf(targets.values()));
+    }
+
+    /** True when every body assertion can be decided by {@link StreamingJsonEvaluator}. */
+    public boolean isStreamable() {
+        return streamTargets != null;
+    }
+
+    public List<StreamTarget> getStreamTargets() {
+        return streamTargets;
+    }
+
+    public boolean matches(ResponseDocument response) {
+        // First validate the primary status code expectation
+        if (statusCode == null || response.getStatusCode() != statusCode) {
+            return false;
+        }
+
+        for (CompiledAssertion assertion : assertions) {
+            if (!assertion.test(response)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
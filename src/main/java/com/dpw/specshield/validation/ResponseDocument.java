@@ -0,0 +1,73 @@
+package com.dpw.specshield.validation;
+
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.PathNotFoundException;
+
+import java.util.Map;
+
+/**
+ * A response as seen by assertions. The body is parsed at most once, on first use,
+ * and the parsed document is shared by every assertion of the execution. When the
+ * body was streamed, simple paths are answered from the values resolved on the way.
+ */
+public class ResponseDocument {
+
+    private static final Object UNPARSEABLE = new Object();
+
+    private final int statusCode;
+    private final String body;
+    private final Map<String, Object> streamedValues;
+    private Object document;
+    private RuntimeException parseFailure;
+
+    public ResponseDocument(int statusCode, String body) {
+        this(statusCode, body, null);
+    }
+
+    public ResponseDocument(int statusCode, String body, Map<String, Object> streamedValues) {
+        this.statusCode = statusCode;
+        this.body = body;
+        this.streamedValues = streamedValues;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public boolean hasBody() {
+        return body != null;
+    }
+
+    /** Returns the parsed JSON document, rethrowing the original parse failure on every call if the body is not JSON. */
+    public Object getDocument() {
+        if (document == null) {
+            try {
+                document = Configuration.defaultConfiguration().jsonProvider().parse(body);
+            } catch (RuntimeException e) {
+                document = UNPARSEABLE;
+                parseFailure = e;
+            }
+        }
+        if (document == UNPARSEABLE) {
+            throw parseFailure;
+        }
+        return document;
+    }
+
+    /** Reads a path, preferring a value resolved while streaming over parsing the whole body. */
+    public Object read(JsonPath path, String expression) {
+        if (streamedValues != null && streamedValues.containsKey(expression)) {
+            Object value = streamedValues.get(expression);
+            if (value == StreamingJsonEvaluator.MISSING) {
+                throw new PathNotFoundException("No results for path: " + expression);
+            }
+            return value;
+        }
+        return path.read(getDocument());
+    }
+}
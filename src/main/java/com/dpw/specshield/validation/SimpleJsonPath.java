@@ -0,0 +1,74 @@
+package com.dpw.specshield.validation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A definite JsonPath made only of property names and array indexes, optionally ending in
+ * {@code .length()}: {@code $}, {@code $.a.b}, {@code $.items[0].id}, {@code $.items.length()}.
+ * These can be resolved while streaming; anything else needs the full document.
+ */
+public final class SimpleJsonPath {
+
+    private static final Pattern SEGMENT = Pattern.compile("\\.([A-Za-z_$][A-Za-z0-9_$-]*)|\\[(\\d+)]|\\['([^']+)']");
+    private static final String LENGTH_SUFFIX = ".length()";
+
+    private final String expression;
+    private final List<Object> segments; // String property names and Integer indexes
+    private final boolean length;
+
+    private SimpleJsonPath(String expression, List<Object> segments, boolean length) {
+        this.expression = expression;
+        this.segments = segments;
+        this.length = length;
+    }
+
+    /** Returns the parsed path, or null when the expression is not a simple path. */
+    public static SimpleJsonPath parse(String expression) {
+        if (expression == null || !expression.startsWith("$")) {
+            return null;
+        }
+
+        String body = expression.substring(1);
+        boolean length = body.endsWith(LENGTH_SUFFIX);
+        if (length) {
+            body = body.substring(0, body.length() - LENGTH_SUFFIX.length());
+        }
+
+        List<Object> segments = new ArrayList<>();
+        Matcher matcher = SEGMENT.matcher(body);
+        int position = 0;
+        while (position < body.length()) {
+            if (!matcher.find(position) || matcher.start() != position) {
+                return null;
+            }
+            if (matcher.group(1) != null) {
+                segments.add(matcher.group(1));
+            } else if (matcher.group(2) != null) {
+                segments.add(Integer.valueOf(matcher.group(2)));
+            } else {
+                segments.add(matcher.group(3));
+            }
+            position = matcher.end();
+        }
+        return new SimpleJsonPath(expression, List.copyOf(segments), length);
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    public int depth() {
+        return segments.size();
+    }
+
+    public Object segment(int index) {
+        return segments.get(index);
+    }
+
+    public boolean isLength() {
+        return length;
+    }
+}
@@ -0,0 +1,12 @@
+package com.dpw.specshield.validation;
+
+/**
+ * A path to resolve while streaming. Presence checks only need to know that a value exists,
+ * while value comparisons need containers materialised like a full JsonPath read would.
+ */
+public record StreamTarget(SimpleJsonPath path, boolean needsFullValue) {
+
+    public StreamTarget merge(StreamTarget other) {
+        return needsFullValue || !other.needsFullValue ? this : other;
+    }
+}
@@ -0,0 +1,195 @@
+package com.dpw.specshield.validation;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.jayway.jsonpath.Configuration;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves {@link SimpleJsonPath}s in a single forward pass over a streaming parser and stops
+ * as soon as every path has a value. Subtrees nobody asked for are skipped, not materialised.
+ */
+public final class StreamingJsonEvaluator {
+
+    /** Marks a path that does not exist in the document. */
+    public static final Object MISSING = new Object();
+
+    private final JsonParser parser;
+    private final int targetCount;
+    private final Map<String, Object> values = new HashMap<>();
+
+    private StreamingJsonEvaluator(JsonParser parser, int targetCount) {
+        this.parser = parser;
+        this.targetCount = targetCount;
+    }
+
+    /**
+     * Returns the value of each target keyed by expression, or null when the body is empty.
+     * Values use the same Java types a JsonPath read would produce.
+     */
+    public static Map<String, Object> evaluate(JsonParser parser, Collection<StreamTarget> targets) throws IOException {
+        JsonToken root = parser.nextToken();
+        if (root == null) {
+            return null;
+        }
+
+        StreamingJsonEvaluator evaluator = new StreamingJsonEvaluator(parser, targets.size());
+        evaluator.visit(root, new ArrayList<>(targets), 0);
+        for (StreamTarget target : targets) {
+            evaluator.resolve(target, MISSING);
+        }
+        return evaluator.values;
+    }
+
+    private boolean visit(JsonToken token, List<StreamTarget> here, int depth) throws IOException {
+        List<StreamTarget> exact = new ArrayList<>();
+        List<StreamTarget> deeper = new ArrayList<>();
+        for (StreamTarget target : here) {
+            (target.path().depth() == depth ? exact : deeper).add(target);
+        }
+
+        if (!token.isStructStart()) {
+            Object value = scalarValue(token);
+            exact.forEach(target -> resolve(target, target.path().isLength() ? MISSING : value));
+            deeper.forEach(target -> resolve(target, MISSING));
+            return isDone();
+        }
+
+        if (exact.stream().anyMatch(target -> target.needsFullValue() && !target.path().isLength())) {
+            JsonNode node = parser.readValueAsTree();
+            here.forEach(target -> resolve(target, valueAt(node, target.path(), depth)));
+            return isDone();
+        }
+
+        List<StreamTarget> lengths = new ArrayList<>();
+        for (StreamTarget target : exact) {
+            if (target.path().isLength()) {
+                lengths.add(target);
+            } else {
+                resolve(target, token == JsonToken.START_OBJECT ? ContainerValue.OBJECT : ContainerValue.ARRAY);
+            }
+        }
+        if (isDone()) {
+            return true;
+        }
+        if (deeper.isEmpty() && lengths.isEmpty()) {
+            parser.skipChildren();
+            return false;
+        }
+
+        JsonToken end = token == JsonToken.START_OBJECT ? JsonToken.END_OBJECT : JsonToken.END_ARRAY;
+        int count = 0;
+        for (JsonToken next = parser.nextToken(); next != null && next != end; next = parser.nextToken()) {
+            Object key = count;
+            if (token == JsonToken.START_OBJECT) {
+                key = parser.currentName();
+                next = parser.nextToken();
+            }
+            count++;
+
+            List<StreamTarget> matching = new ArrayList<>();
+            for (StreamTarget target : deeper) {
+                if (!values.containsKey(target.path().getExpression()) && key.equals(target.path().segment(depth))) {
+                    matching.add(target);
+                }
+            }
+            if (!matching.isEmpty()) {
+                if (visit(next, matching, depth + 1)) {
+                    return true;
+                }
+            } else if (next.isStructStart()) {
+                parser.skipChildren();
+            }
+        }
+
+        int length = count;
+        lengths.forEach(target -> resolve(target, length));
+        deeper.forEach(target -> resolve(target, MISSING));
+        return isDone();
+    }
+
+    private Object scalarValue(JsonToken token) throws IOException {
+        switch (token) {
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+                return parser.getNumberValue();
+            case VALUE_NUMBER_FLOAT:
+                return parser.getDoubleValue();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            default:
+                return null;
+        }
+    }
+
+    private Object valueAt(JsonNode node, SimpleJsonPath path, int fromDepth) {
+        JsonNode current = node;
+        for (int i = fromDepth; i < path.depth(); i++) {
+            Object segment = path.segment(i);
+            if (segment instanceof Integer index && current.isArray() && index < current.size()) {
+                current = current.get(index);
+            } else if (segment instanceof String name && current.isObject() && current.has(name)) {
+                current = current.get(name);
+            } else {
+                return MISSING;
+            }
+        }
+
+        if (path.isLength()) {
+            return current.isContainerNode() ? current.size() : MISSING;
+        }
+        if (current.isContainerNode()) {
+            return Configuration.defaultConfiguration().jsonProvider().parse(current.toString());
+        }
+        if (current.isTextual()) {
+            return current.textValue();
+        }
+        if (current.isIntegralNumber()) {
+            return current.numberValue();
+        }
+        if (current.isNumber()) {
+            return current.doubleValue();
+        }
+        if (current.isBoolean()) {
+            return current.booleanValue();
+        }
+        return null;
+    }
+
+    // Not putIfAbsent: a JSON null is a resolved value and must not be replaced by MISSING
+    private void resolve(StreamTarget target, Object value) {
+        if (!values.containsKey(target.path().getExpression())) {
+            values.put(target.path().getExpression(), value);
+        }
+    }
+
+    private boolean isDone() {
+        return values.size() >= targetCount;
+    }
+
+    /** Stands in for an object or array whose contents no assertion needs. */
+    private enum ContainerValue {
+        OBJECT("{...}"), ARRAY("[...]");
+
+        private final String text;
+
+        ContainerValue(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+}
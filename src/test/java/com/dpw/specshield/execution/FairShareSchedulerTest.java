@@ -0,0 +1,138 @@
+package com.dpw.specshield.execution;
+
+import com.dpw.specshield.config.SchedulerProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FairShareSchedulerTest {
+
+    private final SchedulerProperties properties = new SchedulerProperties();
+    private final List<String> served = new CopyOnWriteArrayList<>();
+
+    @Test
+    void grantsFreePermitsWithoutWaiting() throws InterruptedException {
+        FairShareScheduler scheduler = new FairShareScheduler(2, properties);
+
+        scheduler.acquire("a", PriorityClass.NORMAL);
+        scheduler.acquire("b", PriorityClass.LOW);
+
+        assertEquals(0, scheduler.getAvailable());
+        scheduler.release("a");
+        assertEquals(1, scheduler.getAvailable());
+    }
+
+    @Test
+    void servesHigherPriorityFirst() throws Exception {
+        FairShareScheduler scheduler = new FairShareScheduler(1, properties);
+        scheduler.acquire("holder", PriorityClass.NORMAL);
+
+        Thread low = waiter(scheduler, "low", PriorityClass.LOW);
+        awaitWaiting(scheduler, 1);
+        Thread high = waiter(scheduler, "high", PriorityClass.HIGH);
+        awaitWaiting(scheduler, 2);
+
+        scheduler.release("holder");
+        join(low, high);
+
+        assertEquals(List.of("high", "low"), served);
+    }
+
+    @Test
+    void servesTheTenantWithTheSmallestShareFirst() throws Exception {
+        FairShareScheduler scheduler = new FairShareScheduler(2, properties);
+        scheduler.acquire("heavy", PriorityClass.NORMAL);
+        scheduler.acquire("heavy", PriorityClass.NORMAL);
+
+        Thread heavy = waiter(scheduler, "heavy", PriorityClass.NORMAL);
+        awaitWaiting(scheduler, 1);
+        Thread light = waiter(scheduler, "light", PriorityClass.NORMAL);
+        awaitWaiting(scheduler, 2);
+
+        scheduler.release("heavy");
+        join(heavy, light);
+        scheduler.release("heavy");
+
+        assertEquals(List.of("light", "heavy"), served);
+        assertEquals(2, scheduler.getAvailable());
+    }
+
+    @Test
+    void starvedWaiterIsServedAheadOfPriority() throws Exception {
+        properties.setMaxWait(Duration.ZERO);
+        FairShareScheduler scheduler = new FairShareScheduler(1, properties);
+        scheduler.acquire("holder", PriorityClass.NORMAL);
+
+        Thread low = waiter(scheduler, "low", PriorityClass.LOW);
+        awaitWaiting(scheduler, 1);
+        Thread high = waiter(scheduler, "high", PriorityClass.HIGH);
+        awaitWaiting(scheduler, 2);
+
+        scheduler.release("holder");
+        join(low, high);
+
+        assertEquals(List.of("low", "high"), served);
+    }
+
+    @Test
+    void interruptedWaiterLeavesTheQueue() throws Exception {
+        FairShareScheduler scheduler = new FairShareScheduler(1, properties);
+        scheduler.acquire("holder", PriorityClass.NORMAL);
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+
+        Thread waiter = Thread.ofPlatform().start(() -> {
+            try {
+                scheduler.acquire("b", PriorityClass.NORMAL);
+            } catch (InterruptedException e) {
+                errors.add(e);
+            }
+        });
+        awaitWaiting(scheduler, 1);
+        waiter.interrupt();
+        join(waiter);
+
+        assertEquals(1, errors.size());
+        assertInstanceOf(InterruptedException.class, errors.get(0));
+        assertEquals(0, waitingIn(scheduler));
+        scheduler.release("holder");
+        assertEquals(1, scheduler.getAvailable());
+    }
+
+    private Thread waiter(FairShareScheduler scheduler, String tenant, PriorityClass priority) {
+        return Thread.ofPlatform().start(() -> {
+            try {
+                scheduler.acquire(tenant, priority);
+                served.add(tenant);
+                scheduler.release(tenant);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    private static void awaitWaiting(FairShareScheduler scheduler, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (waitingIn(scheduler) < expected) {
+            assertTrue(System.nanoTime() < deadline, "waiters did not queue in time");
+            Thread.sleep(5);
+        }
+    }
+
+    private static int waitingIn(FairShareScheduler scheduler) {
+        return scheduler.getTenantStats().values().stream().mapToInt(stats -> stats.get("waiting")).sum();
+    }
+
+    private static void join(Thread... threads) throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.join(Duration.ofSeconds(5));
+            assertFalse(thread.isAlive(), thread.getName() + " was never served");
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.dpw.specshield.execution;
+
+import com.dpw.specshield.config.AdaptiveLimitProperties;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GradientLimitTest {
+
+    private final AdaptiveLimitProperties properties = new AdaptiveLimitProperties();
+
+    @Test
+    void startsAtTheInitialLimit() {
+        GradientLimit limit = new GradientLimit(properties, 64);
+
+        assertEquals(16, limit.getLimit());
+        assertEquals(0, limit.getBaselineRttMillis());
+    }
+
+    @Test
+    void growsWhileLatencyStaysAtTheBaseline() {
+        GradientLimit limit = new GradientLimit(properties, 32);
+
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(10, limit.getLimit());
+        }
+
+        assertEquals(32, limit.getLimit(), "growth stops at the host's maximum");
+        assertEquals(10, limit.getBaselineRttMillis(), 0.001);
+    }
+
+    @Test
+    void shrinksAsLatencyInflates() {
+        GradientLimit limit = new GradientLimit(properties, 64);
+        limit.onSample(10, 16);
+        int before = limit.getLimit();
+
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(200, limit.getLimit());
+        }
+
+        assertTrue(limit.getLimit() < before, "limit " + limit.getLimit() + " should be below " + before);
+    }
+
+    @Test
+    void ignoresSamplesWhileTheLimitIsUnderused() {
+        GradientLimit limit = new GradientLimit(properties, 64);
+
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(10, 2);
+        }
+
+        assertEquals(16, limit.getLimit());
+    }
+
+    @Test
+    void backsOffOnDropsDownToTheMinimum() {
+        GradientLimit limit = new GradientLimit(properties, 64);
+
+        limit.onDropped();
+        assertEquals(14, limit.getLimit());
+
+        for (int i = 0; i < 100; i++) {
+            limit.onDropped();
+        }
+        assertEquals(2, limit.getLimit());
+    }
+
+    @Test
+    void maximumBelowTheMinimumWins() {
+        GradientLimit limit = new GradientLimit(properties, 1);
+
+        limit.onDropped();
+        limit.onSample(1, 1);
+
+        assertEquals(1, limit.getLimit());
+    }
+}
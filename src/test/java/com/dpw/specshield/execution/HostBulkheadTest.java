@@ -0,0 +1,97 @@
+package com.dpw.specshield.execution;
+
+import com.dpw.specshield.config.AdaptiveLimitProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HostBulkheadTest {
+
+    @Test
+    void admissionBlocksOnceConcurrencyAndQueueAreFull() throws Exception {
+        HostBulkhead bulkhead = new HostBulkhead("api.example.com", 1, 1, null);
+        bulkhead.admit();
+        bulkhead.admit();
+
+        CountDownLatch admitted = new CountDownLatch(1);
+        Thread submitter = Thread.ofPlatform().start(() -> {
+            try {
+                bulkhead.admit();
+                admitted.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertFalse(admitted.await(100, TimeUnit.MILLISECONDS), "a third case was admitted past the queue");
+        bulkhead.release();
+        assertTrue(admitted.await(5, TimeUnit.SECONDS));
+        submitter.join(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void attemptsWaitForAFreeSlot() throws Exception {
+        HostBulkhead bulkhead = new HostBulkhead("api.example.com", 1, 4, null);
+        bulkhead.enter();
+
+        CountDownLatch entered = new CountDownLatch(1);
+        Thread attempt = Thread.ofPlatform().start(() -> {
+            try {
+                bulkhead.enter();
+                entered.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        awaitWaiting(bulkhead, 1);
+        assertEquals(1, bulkhead.getActive());
+
+        bulkhead.exit();
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        attempt.join(Duration.ofSeconds(5));
+        assertEquals(1, bulkhead.getActive());
+        assertEquals(0, bulkhead.getWaiting());
+        assertEquals(1, bulkhead.snapshot().getPeakActive());
+    }
+
+    @Test
+    void fixedLimitIgnoresResponses() {
+        HostBulkhead bulkhead = new HostBulkhead("api.example.com", 8, 0, null);
+
+        bulkhead.onResponse(5000, 503);
+        bulkhead.onFailure();
+
+        assertEquals(8, bulkhead.getLimit());
+        assertNull(bulkhead.snapshot().getBaselineRttMs());
+    }
+
+    @Test
+    void overloadResponsesShrinkTheAdaptiveLimit() {
+        HostBulkhead bulkhead = new HostBulkhead("api.example.com", 64, 0,
+                new GradientLimit(new AdaptiveLimitProperties(), 64));
+
+        bulkhead.onResponse(20, 429);
+        assertEquals(14, bulkhead.getLimit());
+
+        bulkhead.onResponse(20, 404);
+        assertEquals(14, bulkhead.getLimit(), "a client error is an ordinary response");
+        assertEquals(20L, bulkhead.snapshot().getBaselineRttMs());
+        assertEquals(64, bulkhead.snapshot().getMaxLimit());
+    }
+
+    private static void awaitWaiting(HostBulkhead bulkhead, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (bulkhead.getWaiting() < expected) {
+            assertTrue(System.nanoTime() < deadline, "attempt did not queue in time");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.dpw.specshield.execution;
+
+import com.dpw.specshield.config.CircuitBreakerProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HostCircuitBreakerTest {
+
+    private static CircuitBreakerProperties properties(Duration openDuration) {
+        CircuitBreakerProperties properties = new CircuitBreakerProperties();
+        properties.setConsecutiveConnectFailures(3);
+        properties.setFailureRateThreshold(50);
+        properties.setWindowSize(10);
+        properties.setMinimumCalls(4);
+        properties.setOpenDuration(openDuration);
+        properties.setHalfOpenProbes(2);
+        return properties;
+    }
+
+    @Test
+    void opensAfterConsecutiveConnectFailures() {
+        HostCircuitBreaker breaker = new HostCircuitBreaker("api.example.com", properties(Duration.ofMinutes(1)));
+
+        breaker.onFailure(true);
+        breaker.onFailure(true);
+        assertEquals(HostCircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.onFailure(true);
+        assertEquals(HostCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(1, breaker.snapshot().getTrips());
+        assertEquals(1L, breaker.snapshot().getShortCircuited());
+    }
+
+    @Test
+    void successResetsTheConnectFailureRun() {
+        CircuitBreakerProperties properties = properties(Duration.ofMinutes(1));
+        properties.setMinimumCalls(10);
+        HostCircuitBreaker breaker = new HostCircuitBreaker("api.example.com", properties);
+
+        breaker.onFailure(true);
+        breaker.onFailure(true);
+        breaker.onSuccess();
+        breaker.onFailure(true);
+
+        assertEquals(HostCircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void opensOnFailureRateOnceMinimumCallsAreSeen() {
+        HostCircuitBreaker breaker = new HostCircuitBreaker("api.example.com", properties(Duration.ofMinutes(1)));
+
+        breaker.onSuccess();
+        breaker.onFailure(false);
+        breaker.onSuccess();
+        assertEquals(HostCircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.onFailure(false);
+        assertEquals(HostCircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(50, breaker.snapshot().getFailureRate());
+    }
+
+    @Test
+    void halfOpenProbesCloseTheCircuit() {
+        HostCircuitBreaker breaker = new HostCircuitBreaker("api.example.com", properties(Duration.ZERO));
+        tripOpen(breaker);
+
+        assertTrue(breaker.tryAcquire());
+        assertEquals(HostCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire(), "only half-open-probes calls may be in flight");
+
+        breaker.onSuccess();
+        assertEquals(HostCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.onSuccess();
+        assertEquals(HostCircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.snapshot().getFailureRate());
+    }
+
+    @Test
+    void failedProbeReopensTheCircuit() {
+        HostCircuitBreaker breaker = new HostCircuitBreaker("api.example.com", properties(Duration.ZERO));
+        tripOpen(breaker);
+
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure(false);
+
+        assertEquals(HostCircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(2, breaker.snapshot().getTrips());
+    }
+
+    @Test
+    void abandonedProbeGivesBackItsSlot() {
+        HostCircuitBreaker breaker = new HostCircuitBreaker("api.example.com", properties(Duration.ZERO));
+        tripOpen(breaker);
+
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        breaker.onAbandoned();
+
+        assertTrue(breaker.tryAcquire());
+        assertEquals(HostCircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+
+    private static void tripOpen(HostCircuitBreaker breaker) {
+        for (int i = 0; i < 3; i++) {
+            breaker.onFailure(true);
+        }
+        assertEquals(HostCircuitBreaker.State.OPEN, breaker.getState());
+    }
+}
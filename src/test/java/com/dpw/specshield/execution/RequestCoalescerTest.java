@@ -0,0 +1,65 @@
+package com.dpw.specshield.execution;
+
+import com.dpw.specshield.model.TestSuite;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class RequestCoalescerTest {
+
+    @Test
+    void suiteSettingOverridesTheDefault() {
+        TestSuite suite = new TestSuite();
+        assertNull(RequestCoalescer.forRun(suite, false));
+        assertNotNull(RequestCoalescer.forRun(suite, true));
+
+        suite.setCoalesceRequests(false);
+        assertNull(RequestCoalescer.forRun(suite, true));
+        suite.setCoalesceRequests(true);
+        assertNotNull(RequestCoalescer.forRun(suite, false));
+    }
+
+    @Test
+    void identicalRequestsShareOneCall() {
+        RequestCoalescer<CompletableFuture<String>> coalescer = RequestCoalescer.forRun(new TestSuite(), true);
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> first = coalescer.join(request("GET /users"), () -> send(calls));
+        CompletableFuture<String> second = coalescer.join(request("GET /users"), () -> send(calls));
+        CompletableFuture<String> other = coalescer.join(request("GET /orders"), () -> send(calls));
+
+        assertSame(first, second);
+        assertNotSame(first, other);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void requestsWithoutAKeyAreAlwaysSent() {
+        RequestCoalescer<CompletableFuture<String>> coalescer = RequestCoalescer.forRun(new TestSuite(), true);
+        AtomicInteger calls = new AtomicInteger();
+
+        coalescer.join(request(null), () -> send(calls));
+        coalescer.join(request(null), () -> send(calls));
+
+        assertEquals(2, calls.get());
+    }
+
+    private static CompletableFuture<String> send(AtomicInteger calls) {
+        return CompletableFuture.completedFuture("call " + calls.incrementAndGet());
+    }
+
+    private static PreparedRequest request(String coalescingKey) {
+        return new PreparedRequest(HttpMethod.GET, "http://api.example.com/users", "api.example.com",
+                new HttpHeaders(), Map.of(), null, null, coalescingKey);
+    }
+}
@@ -0,0 +1,172 @@
+package com.dpw.specshield.execution;
+
+import com.dpw.specshield.model.TestExecution;
+import com.dpw.specshield.storage.ResponseBodyStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResponseCaptureTest {
+
+    private final MapBodyStore store = new MapBodyStore();
+
+    @Test
+    void smallBodyStaysInline() {
+        TestExecution.ResponseDetails details = capture(64, true).capture("tc-1", response("{\"id\":1}", false));
+
+        assertEquals("{\"id\":1}", details.getResponseBody());
+        assertNull(details.getResponseBodyRef());
+        assertNull(details.getResponseBodyTruncated());
+        assertTrue(store.bodies.isEmpty());
+    }
+
+    @Test
+    void largeBodyIsCutInlineAndSpilledCompressed() throws IOException {
+        String body = "x".repeat(1000);
+        ResponseCapture capture = capture(100, true);
+        TestExecution.ResponseDetails details = capture.capture("tc-1", response(body, false));
+
+        assertEquals("x".repeat(100), details.getResponseBody());
+        assertEquals(true, details.getResponseBodyTruncated());
+        assertEquals(1000L, details.getResponseBodySize());
+        assertEquals("gzip", details.getResponseBodyEncoding());
+        assertNull(details.getResponseBodyRefTruncated());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(store.bodies.get(details.getResponseBodyRef())))) {
+            assertArrayEquals(body.getBytes(StandardCharsets.UTF_8), in.readAllBytes());
+        }
+        assertEquals(body, capture.fullBody(details));
+    }
+
+    @Test
+    void uncompressedSpillKeepsTheRawBytes() {
+        String body = "y".repeat(500);
+        ResponseCapture capture = capture(100, false);
+        TestExecution.ResponseDetails details = capture.capture("tc-1", response(body, false));
+
+        assertNull(details.getResponseBodyEncoding());
+        assertArrayEquals(body.getBytes(StandardCharsets.UTF_8), store.bodies.get(details.getResponseBodyRef()));
+        assertEquals(body, capture.fullBody(details));
+    }
+
+    @Test
+    void streamedPrefixIsMarkedTruncatedWithoutASize() {
+        TestExecution.ResponseDetails details = capture(100, true).capture("tc-1", response("z".repeat(500), true));
+
+        assertEquals(true, details.getResponseBodyTruncated());
+        assertEquals(true, details.getResponseBodyRefTruncated());
+        assertNull(details.getResponseBodySize());
+    }
+
+    @Test
+    void failedSpillKeepsTheInlinePrefix() {
+        ResponseBodyStore failing = new MapBodyStore() {
+            @Override
+            public String store(String name, byte[] content) {
+                throw new IllegalStateException("store down");
+            }
+        };
+        ResponseCapture capture = new ResponseCapture(failing, DataSize.ofBytes(100), 4096, true);
+        TestExecution.ResponseDetails details = capture.capture("tc-1", response("x".repeat(1000), false));
+
+        assertEquals(100, details.getResponseBody().length());
+        assertEquals(true, details.getResponseBodyTruncated());
+        assertNull(details.getResponseBodyRef());
+        assertNull(details.getResponseBodyEncoding());
+    }
+
+    @Test
+    void inlinePrefixNeverSplitsACharacter() {
+        // 'é' takes two bytes, so a 101-byte cut would end halfway through one
+        TestExecution.ResponseDetails details = capture(101, false).capture("tc-1", response("é".repeat(200), false));
+
+        assertEquals("é".repeat(50), details.getResponseBody());
+    }
+
+    @Test
+    void longHeaderValuesAreCut() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("X-Trace", "a".repeat(50));
+        headers.add("X-Multi", "one");
+        headers.add("X-Multi", "two");
+        ResponseCapture capture = new ResponseCapture(store, DataSize.ofBytes(64), 10, true);
+        TestExecution.ResponseDetails details = capture.capture("tc-1", new CapturedResponse(200, headers, null, false, null));
+
+        assertEquals("a".repeat(10), details.getResponseHeaders().get("X-Trace"));
+        assertEquals("one, two", details.getResponseHeaders().get("X-Multi"));
+        assertEquals(200, details.getResponseStatus());
+    }
+
+    @Test
+    void discardDeletesTheSpilledBody() {
+        ResponseCapture capture = capture(100, true);
+        TestExecution.ResponseDetails details = capture.capture("tc-1", response("x".repeat(1000), false));
+        assertNotNull(details.getResponseBodyRef());
+
+        capture.discard(details);
+        capture.discard(null);
+        assertTrue(store.bodies.isEmpty());
+    }
+
+    @Test
+    void utf8BoundaryStepsBackOverAPartialCharacter() {
+        byte[] ascii = "abcdef".getBytes(StandardCharsets.UTF_8);
+        assertEquals(4, ResponseCapture.utf8Boundary(ascii, 4));
+        assertEquals(6, ResponseCapture.utf8Boundary(ascii, 10));
+
+        byte[] twoByte = "aé".getBytes(StandardCharsets.UTF_8);
+        assertEquals(1, ResponseCapture.utf8Boundary(twoByte, 2));
+        assertEquals(3, ResponseCapture.utf8Boundary(twoByte, 3));
+
+        byte[] threeByte = "a€".getBytes(StandardCharsets.UTF_8);
+        assertEquals(1, ResponseCapture.utf8Boundary(threeByte, 2));
+        assertEquals(1, ResponseCapture.utf8Boundary(threeByte, 3));
+        assertEquals(4, ResponseCapture.utf8Boundary(threeByte, 4));
+
+        byte[] fourByte = "a😀b".getBytes(StandardCharsets.UTF_8);
+        assertEquals(1, ResponseCapture.utf8Boundary(fourByte, 4));
+        assertEquals(5, ResponseCapture.utf8Boundary(fourByte, 5));
+        assertEquals(0, ResponseCapture.utf8Boundary(new byte[0], 4));
+    }
+
+    private ResponseCapture capture(int inlineLimit, boolean compress) {
+        return new ResponseCapture(store, DataSize.ofBytes(inlineLimit), 4096, compress);
+    }
+
+    private static CapturedResponse response(String body, boolean truncated) {
+        return new CapturedResponse(200, new HttpHeaders(), body, truncated, null);
+    }
+
+    private static class MapBodyStore implements ResponseBodyStore {
+        private final Map<String, byte[]> bodies = new HashMap<>();
+
+        @Override
+        public String store(String name, byte[] content) {
+            String reference = name + "-" + bodies.size();
+            bodies.put(reference, content);
+            return reference;
+        }
+
+        @Override
+        public byte[] load(String reference) {
+            return bodies.get(reference);
+        }
+
+        @Override
+        public void delete(String reference) {
+            bodies.remove(reference);
+        }
+    }
+}
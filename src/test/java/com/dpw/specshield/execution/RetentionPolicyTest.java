@@ -0,0 +1,67 @@
+package com.dpw.specshield.execution;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetentionPolicyTest {
+
+    @Test
+    void unsetOrAllKeepsEverything() {
+        assertSame(RetentionPolicy.ALL, RetentionPolicy.parse(null));
+        assertSame(RetentionPolicy.ALL, RetentionPolicy.parse("  "));
+        assertSame(RetentionPolicy.ALL, RetentionPolicy.parse(" ALL "));
+        assertTrue(RetentionPolicy.ALL.retainsDetails("tc-1", true));
+        assertTrue(RetentionPolicy.ALL.retainsDetails("tc-1", false));
+    }
+
+    @Test
+    void failuresOnlyKeepsFailures() {
+        RetentionPolicy policy = RetentionPolicy.parse("Failures-Only");
+        assertFalse(policy.retainsDetails("tc-1", true));
+        assertTrue(policy.retainsDetails("tc-1", false));
+    }
+
+    @Test
+    void summaryOnlyKeepsNothing() {
+        RetentionPolicy policy = RetentionPolicy.parse("summary-only");
+        assertFalse(policy.retainsDetails("tc-1", true));
+        assertFalse(policy.retainsDetails("tc-1", false));
+    }
+
+    @Test
+    void sampledKeepsFailuresAndAStableShareOfSuccesses() {
+        RetentionPolicy policy = RetentionPolicy.parse("sampled:10%");
+        assertTrue(policy.retainsDetails("tc-1", false));
+
+        long kept = IntStream.range(0, 10_000)
+                .filter(i -> policy.retainsDetails("tc-" + i, true))
+                .count();
+        assertTrue(kept > 800 && kept < 1200, "kept " + kept);
+        // Keyed on the test case id, so a rerun keeps the same cases
+        IntStream.range(0, 100).forEach(i -> assertEquals(policy.retainsDetails("tc-" + i, true),
+                RetentionPolicy.parse("sampled:10%").retainsDetails("tc-" + i, true)));
+    }
+
+    @Test
+    void sampledBoundsKeepNoneOrAllSuccesses() {
+        assertFalse(RetentionPolicy.parse("sampled:0%").retainsDetails("tc-1", true));
+        assertTrue(RetentionPolicy.parse("sampled:100%").retainsDetails("tc-1", true));
+        assertTrue(RetentionPolicy.parse("sampled:0.5%").retainsDetails("tc-1", false));
+    }
+
+    @Test
+    void rejectsUnknownValues() {
+        assertThrows(IllegalArgumentException.class, () -> RetentionPolicy.parse("failures"));
+        assertThrows(IllegalArgumentException.class, () -> RetentionPolicy.parse("sampled:10"));
+        assertThrows(IllegalArgumentException.class, () -> RetentionPolicy.parse("sampled:abc%"));
+        assertThrows(IllegalArgumentException.class, () -> RetentionPolicy.parse("sampled:150%"));
+        assertThrows(IllegalArgumentException.class, () -> RetentionPolicy.parse("sampled:-1%"));
+    }
+}
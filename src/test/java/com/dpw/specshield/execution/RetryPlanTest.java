@@ -0,0 +1,104 @@
+package com.dpw.specshield.execution;
+
+import com.dpw.specshield.config.RetryProperties;
+import com.dpw.specshield.model.RetryPolicy;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryPlanTest {
+
+    private final RetryProperties defaults = new RetryProperties();
+
+    @Test
+    void defaultsDoNotRetry() {
+        RetryPlan plan = RetryPlan.resolve(null, null, defaults);
+
+        assertEquals(1, plan.maxAttempts());
+        assertFalse(plan.retries("GET"));
+        assertNull(plan.hedgeAfter("GET"));
+    }
+
+    @Test
+    void casePolicyOverridesSuitePolicyFieldByField() {
+        RetryPolicy suite = new RetryPolicy();
+        suite.setMaxAttempts(3);
+        suite.setRetryOnStatuses(List.of(503));
+        RetryPolicy testCase = new RetryPolicy();
+        testCase.setMaxAttempts(5);
+
+        RetryPlan plan = RetryPlan.resolve(suite, testCase, defaults);
+
+        assertEquals(5, plan.maxAttempts());
+        assertTrue(plan.isRetryableStatus(503, null));
+        assertFalse(plan.isRetryableStatus(502, null), "the suite's statuses replace the defaults");
+    }
+
+    @Test
+    void onlyIdempotentMethodsRetryUnlessOptedIn() {
+        RetryPolicy policy = new RetryPolicy();
+        policy.setMaxAttempts(3);
+        RetryPlan plan = RetryPlan.resolve(policy, null, defaults);
+
+        assertTrue(plan.retries("GET"));
+        assertTrue(plan.retries("head"));
+        assertFalse(plan.retries("POST"));
+
+        policy.setRetryNonIdempotent(true);
+        assertTrue(RetryPlan.resolve(policy, null, defaults).retries("POST"));
+    }
+
+    @Test
+    void expectedStatusIsNotRetried() {
+        RetryPlan plan = RetryPlan.resolve(null, null, defaults);
+
+        assertTrue(plan.isRetryableStatus(503, 200));
+        assertTrue(plan.isRetryableStatus(503, null));
+        assertFalse(plan.isRetryableStatus(503, 503));
+        assertFalse(plan.isRetryableStatus(500, null));
+    }
+
+    @Test
+    void transientFailuresAreFoundInTheCauseChain() {
+        assertTrue(RetryPlan.isTransient(new ResourceAccessException("connect timed out")));
+        assertTrue(RetryPlan.isTransient(new RuntimeException(new IOException("reset"))));
+        assertTrue(RetryPlan.isTransient(new TimeoutException()));
+        assertFalse(RetryPlan.isTransient(new IllegalArgumentException("bad url")));
+    }
+
+    @Test
+    void backoffStaysWithinTheCappedExponentialBound() {
+        RetryPolicy policy = new RetryPolicy();
+        policy.setInitialBackoffMs(100L);
+        policy.setMultiplier(2.0);
+        policy.setMaxBackoffMs(300L);
+        RetryPlan plan = RetryPlan.resolve(policy, null, defaults);
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(plan.backoff(1).toMillis() <= 100);
+            assertTrue(plan.backoff(2).toMillis() <= 200);
+            long capped = plan.backoff(5).toMillis();
+            assertTrue(capped >= 0 && capped <= 300, "backoff " + capped + " exceeds the maximum");
+        }
+    }
+
+    @Test
+    void onlyGetIsHedged() {
+        RetryPolicy policy = new RetryPolicy();
+        policy.setHedgeAfterMs(50L);
+        RetryPlan plan = RetryPlan.resolve(policy, null, defaults);
+
+        assertEquals(Duration.ofMillis(50), plan.hedgeAfter("get"));
+        assertNull(plan.hedgeAfter("POST"));
+        assertNull(plan.hedgeAfter("HEAD"));
+    }
+}
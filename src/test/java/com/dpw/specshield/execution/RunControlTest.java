@@ -0,0 +1,110 @@
+package com.dpw.specshield.execution;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RunControlTest {
+
+    @Test
+    void stopInterruptsRegisteredWorkersAndKeepsTheFirstReason() throws Exception {
+        RunControl control = RunControl.unbounded("run-1");
+        CountDownLatch waiting = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        Thread worker = Thread.ofVirtual().start(() -> {
+            control.enter();
+            try {
+                waiting.countDown();
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            } finally {
+                control.exit();
+            }
+        });
+        assertTrue(waiting.await(5, TimeUnit.SECONDS));
+
+        control.stop(RunStop.CANCELLED);
+        control.stop(RunStop.TIMED_OUT);
+        worker.join(5_000);
+
+        assertTrue(interrupted.get());
+        assertEquals(RunStop.CANCELLED, control.stopReason());
+        assertEquals(RunStop.CANCELLED, control.whenStopped().getNow(null));
+    }
+
+    @Test
+    void stoppedRunAdmitsNoMoreWorkers() {
+        RunControl control = RunControl.unbounded("run-1");
+        assertNull(control.stopReason());
+        assertFalse(control.whenStopped().isDone());
+
+        control.stop(RunStop.TIMED_OUT);
+
+        assertFalse(control.enter());
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    void exitClearsAStopThatRacedTheEndOfTheWork() {
+        RunControl control = RunControl.unbounded("run-1");
+        assertTrue(control.enter());
+        control.stop(RunStop.CANCELLED);
+
+        control.exit();
+
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    void testDeadlineIsTheEarlierOfTheCaseBudgetAndTheRunDeadline() {
+        Instant start = Instant.parse("2024-01-01T00:00:00Z");
+        RunControl budgetOnly = new RunControl("run-1", null, Duration.ofSeconds(5));
+        RunControl runDeadlineFirst = new RunControl("run-1", start.plusSeconds(2), Duration.ofSeconds(5));
+        RunControl budgetFirst = new RunControl("run-1", start.plusSeconds(60), Duration.ofSeconds(5));
+        RunControl deadlineOnly = new RunControl("run-1", start.plusSeconds(60), null);
+
+        assertEquals(start.plusSeconds(5), budgetOnly.testDeadline(start));
+        assertEquals(start.plusSeconds(2), runDeadlineFirst.testDeadline(start));
+        assertEquals(start.plusSeconds(5), budgetFirst.testDeadline(start));
+        assertEquals(start.plusSeconds(60), deadlineOnly.testDeadline(start));
+        assertNull(RunControl.unbounded("run-1").testDeadline(start));
+    }
+
+    @Test
+    void interruptAtAbortsACallThatOutlivesItsDeadline() {
+        RunControl control = RunControl.unbounded("run-1");
+        Runnable disarm = control.interruptAt(Instant.now().plusMillis(50));
+        boolean interrupted = false;
+        try {
+            Thread.sleep(5_000);
+        } catch (InterruptedException e) {
+            interrupted = true;
+        } finally {
+            disarm.run();
+        }
+
+        assertTrue(interrupted);
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    void disarmedAlarmNeverFires() throws Exception {
+        RunControl control = RunControl.unbounded("run-1");
+        control.interruptAt(Instant.now().plusMillis(50)).run();
+        control.interruptAt(null).run();
+
+        Thread.sleep(200);
+
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+}
@@ -0,0 +1,54 @@
+package com.dpw.specshield.execution;
+
+import com.dpw.specshield.model.Endpoint;
+import com.dpw.specshield.model.TestCase;
+import com.dpw.specshield.model.TestSuite;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class SuiteRevisionTest {
+
+    @Test
+    void unchangedSuiteKeepsItsRevision() {
+        assertEquals(SuiteRevision.of(suite("http://api.example.com", "/users")),
+                SuiteRevision.of(suite("http://api.example.com", "/users")));
+        assertEquals(64, SuiteRevision.of(suite("http://api.example.com", "/users")).length());
+    }
+
+    @Test
+    void runSettingsDoNotChangeTheRevision() {
+        TestSuite tuned = suite("http://api.example.com", "/users");
+        tuned.setId("another-id");
+        tuned.setTestSuiteName("renamed");
+        tuned.setMaxConcurrency(8);
+        tuned.setRetention("failures-only");
+        assertEquals(SuiteRevision.of(suite("http://api.example.com", "/users")), SuiteRevision.of(tuned));
+    }
+
+    @Test
+    void baseUrlAndTestCasesChangeTheRevision() {
+        String revision = SuiteRevision.of(suite("http://api.example.com", "/users"));
+        assertNotEquals(revision, SuiteRevision.of(suite("http://staging.example.com", "/users")));
+        assertNotEquals(revision, SuiteRevision.of(suite("http://api.example.com", "/orders")));
+    }
+
+    private static TestSuite suite(String baseUrl, String url) {
+        Endpoint endpoint = new Endpoint();
+        endpoint.setMethod("GET");
+        endpoint.setUrl(url);
+        TestCase testCase = new TestCase();
+        testCase.setTestCaseId("tc-1");
+        testCase.setEndpoint(endpoint);
+
+        TestSuite testSuite = new TestSuite();
+        testSuite.setId("suite-1");
+        testSuite.setTestSuiteName("users");
+        testSuite.setBaseUrl(baseUrl);
+        testSuite.setTestCases(List.of(testCase));
+        return testSuite;
+    }
+}
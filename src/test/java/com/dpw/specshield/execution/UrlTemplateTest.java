@@ -0,0 +1,48 @@
+package com.dpw.specshield.execution;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UrlTemplateTest {
+
+    @Test
+    void expandsPlaceholders() {
+        assertEquals("/users/42/orders/7", expand("/users/{userId}/orders/{orderId}",
+                Map.of("userId", "42", "orderId", "7")));
+    }
+
+    @Test
+    void keepsPlaceholdersWithoutAValue() {
+        assertEquals("/users/42/orders/{orderId}", expand("/users/{userId}/orders/{orderId}", Map.of("userId", "42")));
+        assertEquals("/users/{userId}", expand("/users/{userId}", null));
+    }
+
+    @Test
+    void handlesAdjacentAndEdgePlaceholders() {
+        assertEquals("ab", expand("{a}{b}", Map.of("a", "a", "b", "b")));
+        assertEquals("/static/path", expand("/static/path", Map.of("a", "1")));
+        assertEquals("", expand("", Map.of()));
+    }
+
+    @Test
+    void unclosedBraceIsLiteralText() {
+        assertEquals("/users/1/{broken", expand("/users/{id}/{broken", Map.of("id", "1", "broken", "x")));
+    }
+
+    @Test
+    void appendsToTheGivenBuilder() {
+        StringBuilder out = new StringBuilder("http://api.example.com");
+        UrlTemplate.compile("/users/{id}").expand(Map.of("id", "1"), out);
+
+        assertEquals("http://api.example.com/users/1", out.toString());
+    }
+
+    private static String expand(String url, Map<String, String> params) {
+        StringBuilder out = new StringBuilder();
+        UrlTemplate.compile(url).expand(params, out);
+        return out.toString();
+    }
+}
@@ -0,0 +1,139 @@
+package com.dpw.specshield.services.impl;
+
+import com.dpw.specshield.execution.RunControl;
+import com.dpw.specshield.execution.RunStop;
+import com.dpw.specshield.model.TestResult;
+import com.dpw.specshield.model.TestSuite;
+import com.mongodb.client.result.UpdateResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RunCancellationTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private RunCancellation cancellation = new RunCancellation(mongoTemplate, Duration.ofHours(1));
+
+    @AfterEach
+    void shutDown() {
+        cancellation.destroy();
+    }
+
+    @Test
+    void chunkOfACancelledRunOpensStopped() {
+        TestResult result = result("run-1");
+        result.setCancelRequested(true);
+
+        RunControl control = cancellation.open(result, new TestSuite());
+
+        assertEquals(RunStop.CANCELLED, control.stopReason());
+    }
+
+    @Test
+    void cancelStopsEveryChunkOfTheRunOnThisNode() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(TestResult.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        RunControl first = cancellation.open(result("run-1"), new TestSuite());
+        RunControl second = cancellation.open(result("run-1"), new TestSuite());
+        RunControl other = cancellation.open(result("run-2"), new TestSuite());
+
+        assertTrue(cancellation.cancel("run-1"));
+
+        assertEquals(RunStop.CANCELLED, first.stopReason());
+        assertEquals(RunStop.CANCELLED, second.stopReason());
+        assertNull(other.stopReason());
+    }
+
+    @Test
+    void cancelOfAFinishedOrUnknownRunIsRefused() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(TestResult.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        RunControl control = cancellation.open(result("run-1"), new TestSuite());
+
+        assertFalse(cancellation.cancel("run-1"));
+        assertNull(control.stopReason());
+    }
+
+    @Test
+    void closedChunkIsNoLongerStopped() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(TestResult.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        RunControl control = cancellation.open(result("run-1"), new TestSuite());
+        cancellation.close(control);
+
+        cancellation.cancel("run-1");
+
+        assertNull(control.stopReason());
+    }
+
+    @Test
+    void suiteDeadlineTimesTheRunOut() throws Exception {
+        TestSuite testSuite = new TestSuite();
+        testSuite.setDeadlineMs(50L);
+        testSuite.setTestTimeoutMs(20L);
+
+        RunControl control = cancellation.open(result("run-1"), testSuite);
+
+        assertNotNull(control.getDeadline());
+        assertEquals(Duration.ofMillis(20), control.getTestTimeout());
+        assertEquals(RunStop.TIMED_OUT, control.whenStopped().get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void recordedDeadlineWinsOverTheSuiteDeadline() {
+        TestResult result = result("run-1");
+        result.setDeadlineAt(LocalDateTime.now().minusSeconds(1));
+        TestSuite testSuite = new TestSuite();
+        testSuite.setDeadlineMs(60_000L);
+
+        RunControl control = cancellation.open(result, testSuite);
+
+        assertEquals(RunStop.TIMED_OUT, control.whenStopped().orTimeout(5, TimeUnit.SECONDS).join());
+    }
+
+    @Test
+    void closingBeforeTheDeadlineDisarmsIt() throws Exception {
+        TestSuite testSuite = new TestSuite();
+        testSuite.setDeadlineMs(100L);
+        RunControl control = cancellation.open(result("run-1"), testSuite);
+
+        cancellation.close(control);
+        Thread.sleep(300);
+
+        assertNull(control.stopReason());
+    }
+
+    @Test
+    void pollPicksUpACancelRequestedThroughAnotherNode() {
+        cancellation.destroy();
+        cancellation = new RunCancellation(mongoTemplate, Duration.ofMillis(20));
+        when(mongoTemplate.find(any(Query.class), eq(TestResult.class))).thenReturn(List.of(result("run-1")));
+
+        RunControl control = cancellation.open(result("run-1"), new TestSuite());
+
+        assertEquals(RunStop.CANCELLED, control.whenStopped().orTimeout(5, TimeUnit.SECONDS).join());
+    }
+
+    private static TestResult result(String id) {
+        TestResult result = new TestResult();
+        result.setId(id);
+        return result;
+    }
+}
@@ -0,0 +1,169 @@
+package com.dpw.specshield.services.impl;
+
+import com.dpw.specshield.config.KafkaConfig;
+import com.dpw.specshield.dto.RunProgressEvent;
+import com.dpw.specshield.model.TestExecution;
+import com.dpw.specshield.model.TestResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings("unchecked")
+class RunProgressBusTest {
+
+    private final KafkaTemplate<String, RunProgressEvent> kafkaTemplate = mock(KafkaTemplate.class);
+    private final KafkaConfig kafkaConfig = mock(KafkaConfig.class);
+    private RunProgressBus bus;
+
+    @AfterEach
+    void shutDown() {
+        if (bus != null) {
+            bus.destroy();
+        }
+    }
+
+    @Test
+    void recordedBatchReachesTheRunsListenersWithCountsBySummary() throws Exception {
+        bus = new RunProgressBus(kafkaTemplate, kafkaConfig, false, 500);
+        BlockingQueue<RunProgressEvent> events = new LinkedBlockingQueue<>();
+        BlockingQueue<RunProgressEvent> otherRun = new LinkedBlockingQueue<>();
+        bus.subscribe("run-1", events::add);
+        bus.subscribe("run-2", otherRun::add);
+
+        bus.executionsRecorded("run-1", List.of(execution("a", "success"), execution("b", "success"), execution("c", "error")));
+
+        RunProgressEvent event = events.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event);
+        assertEquals("run-1", event.getRunId());
+        assertEquals(Map.of("success", 2, "error", 1), event.getResults());
+        assertEquals(List.of("a", "b", "c"), event.getExecutions().stream().map(summary -> summary.getId()).toList());
+        assertNull(event.getDroppedExecutions());
+        assertNull(event.getStatus());
+        assertTrue(otherRun.isEmpty());
+        verify(kafkaTemplate, never()).send(anyString(), anyString(), any(RunProgressEvent.class));
+    }
+
+    @Test
+    void largeBatchesKeepCountsButCapTheSummaries() throws Exception {
+        bus = new RunProgressBus(kafkaTemplate, kafkaConfig, false, 2);
+        BlockingQueue<RunProgressEvent> events = new LinkedBlockingQueue<>();
+        bus.subscribe("run-1", events::add);
+
+        bus.executionsRecorded("run-1", IntStream.range(0, 5).mapToObj(i -> execution("tc-" + i, "success")).toList());
+
+        RunProgressEvent event = events.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event);
+        assertEquals(Map.of("success", 5), event.getResults());
+        assertEquals(2, event.getExecutions().size());
+        assertEquals(3, event.getDroppedExecutions());
+    }
+
+    @Test
+    void finishedRunCarriesItsStatusAndTotals() throws Exception {
+        bus = new RunProgressBus(kafkaTemplate, kafkaConfig, false, 500);
+        BlockingQueue<RunProgressEvent> events = new LinkedBlockingQueue<>();
+        bus.subscribe("run-1", events::add);
+        TestResult result = new TestResult();
+        result.setId("run-1");
+        result.setStatus("COMPLETED");
+        result.setExecutionDuration("1200ms");
+
+        bus.runFinished(result, Map.of("success", 10));
+
+        RunProgressEvent event = events.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event);
+        assertEquals("COMPLETED", event.getStatus());
+        assertEquals("1200ms", event.getExecutionTime());
+        assertEquals(Map.of("success", 10), event.getResults());
+        assertTrue(event.getExecutions().isEmpty());
+    }
+
+    @Test
+    void unsubscribedListenerHearsNothingMore() throws Exception {
+        bus = new RunProgressBus(kafkaTemplate, kafkaConfig, false, 500);
+        BlockingQueue<RunProgressEvent> events = new LinkedBlockingQueue<>();
+        BlockingQueue<RunProgressEvent> remaining = new LinkedBlockingQueue<>();
+        Runnable unsubscribe = bus.subscribe("run-1", events::add);
+        bus.subscribe("run-1", remaining::add);
+
+        unsubscribe.run();
+        bus.executionsRecorded("run-1", List.of(execution("a", "success")));
+
+        assertNotNull(remaining.poll(5, TimeUnit.SECONDS));
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void failingListenerDoesNotStopTheOthers() throws Exception {
+        bus = new RunProgressBus(kafkaTemplate, kafkaConfig, false, 500);
+        BlockingQueue<RunProgressEvent> events = new LinkedBlockingQueue<>();
+        bus.subscribe("run-1", event -> {
+            throw new IllegalStateException("client gone");
+        });
+        bus.subscribe("run-1", events::add);
+
+        bus.executionsRecorded("run-1", List.of(execution("a", "success")));
+        bus.executionsRecorded("run-1", List.of(execution("b", "error")));
+
+        assertNotNull(events.poll(5, TimeUnit.SECONDS));
+        assertNotNull(events.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void eventsFanOutToOtherNodesKeyedByRun() {
+        when(kafkaConfig.getRunProgressTopic()).thenReturn("run-progress");
+        bus = new RunProgressBus(kafkaTemplate, kafkaConfig, true, 500);
+
+        bus.executionsRecorded("run-1", List.of(execution("a", "success")));
+
+        verify(kafkaTemplate, timeout(5_000)).send(eq("run-progress"), eq("run-1"), any(RunProgressEvent.class));
+    }
+
+    @Test
+    void remoteEventsAreDeliveredButOwnEchoesAreNot() throws Exception {
+        when(kafkaConfig.getRunProgressTopic()).thenReturn("run-progress");
+        bus = new RunProgressBus(kafkaTemplate, kafkaConfig, true, 500);
+        BlockingQueue<RunProgressEvent> events = new LinkedBlockingQueue<>();
+        bus.subscribe("run-1", events::add);
+
+        bus.executionsRecorded("run-1", List.of(execution("a", "success")));
+        RunProgressEvent local = events.poll(5, TimeUnit.SECONDS);
+        assertNotNull(local);
+        bus.onRemoteEvent(local);
+
+        RunProgressEvent remote = new RunProgressEvent();
+        remote.setRunId("run-1");
+        remote.setOrigin("another-node");
+        bus.onRemoteEvent(remote);
+
+        assertEquals(remote, events.poll(5, TimeUnit.SECONDS));
+        assertTrue(events.isEmpty());
+    }
+
+    private static TestExecution execution(String id, String result) {
+        TestExecution execution = new TestExecution();
+        execution.setId(id);
+        execution.setResult(result);
+        return execution;
+    }
+}
@@ -0,0 +1,123 @@
+package com.dpw.specshield.services.impl;
+
+import com.dpw.specshield.config.KafkaConfig;
+import com.dpw.specshield.controller.ReportController;
+import com.dpw.specshield.dto.RunProgressEvent;
+import com.dpw.specshield.model.TestExecution;
+import com.dpw.specshield.model.TestResult;
+import com.dpw.specshield.repository.TestResultRepository;
+import com.dpw.specshield.services.IReportCollector;
+import com.dpw.specshield.services.TestSuiteService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SuppressWarnings("unchecked")
+class RunProgressStreamsTest {
+
+    private final TestResultRepository testResultRepository = mock(TestResultRepository.class);
+    private final RunProgressBus progressBus = new RunProgressBus(mock(KafkaTemplate.class), mock(KafkaConfig.class), false, 500);
+    private final MockMvc mockMvc;
+
+    RunProgressStreamsTest() {
+        RunProgressStreams progressStreams = new RunProgressStreams(testResultRepository, progressBus);
+        ReflectionTestUtils.setField(progressStreams, "streamTimeout", Duration.ofSeconds(30));
+        mockMvc = MockMvcBuilders.standaloneSetup(new ReportController(mock(IReportCollector.class),
+                mock(TestSuiteService.class), progressStreams)).build();
+    }
+
+    @AfterEach
+    void shutDown() {
+        progressBus.destroy();
+    }
+
+    @Test
+    void finishedRunIsSentAsOneFinishedEvent() throws Exception {
+        when(testResultRepository.findHeaderById("run-1")).thenReturn(Optional.of(header("COMPLETED", 2, 2)));
+
+        MvcResult result = mockMvc.perform(get("/report/run-1/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult(5_000);
+
+        String body = result.getResponse().getContentAsString();
+        assertTrue(body.startsWith("event:finished"), body);
+        assertFalse(body.contains("event:overview"), body);
+    }
+
+    @Test
+    void liveRunFollowsTheBusUntilItFinishes() throws Exception {
+        when(testResultRepository.findHeaderById("run-1")).thenReturn(Optional.of(header("PROCESSING", 5, 1)));
+
+        MvcResult result = mockMvc.perform(get("/report/run-1/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        progressBus.executionsRecorded("run-1", List.of(execution("tc-2", "success"), execution("tc-3", "error")));
+        TestResult finished = new TestResult();
+        finished.setId("run-1");
+        finished.setStatus("COMPLETED");
+        finished.setExecutionDuration("900ms");
+        progressBus.runFinished(finished, Map.of("success", 3, "error", 2));
+        result.getAsyncResult(5_000);
+
+        List<String> events = result.getResponse().getContentAsString().lines()
+                .filter(line -> line.startsWith("event:") || line.startsWith("data:"))
+                .toList();
+        assertEquals(List.of("event:overview", "event:progress", "event:finished"),
+                events.stream().filter(line -> line.startsWith("event:")).toList());
+
+        String overview = events.get(1);
+        assertTrue(overview.contains("\"successful\":1") && overview.contains("\"pending\":4"), overview);
+        String progress = events.get(3);
+        assertTrue(progress.contains("\"successful\":2") && progress.contains("\"errors\":1")
+                && progress.contains("\"pending\":2") && progress.contains("\"tc-3\""), progress);
+        String done = events.get(5);
+        assertTrue(done.contains("\"status\":\"COMPLETED\"") && done.contains("\"successful\":3")
+                && done.contains("\"errors\":2") && done.contains("\"pending\":0")
+                && done.contains("\"executionTime\":\"900ms\""), done);
+    }
+
+    @Test
+    void unknownRunIsNotFound() throws Exception {
+        when(testResultRepository.findHeaderById("missing")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/report/missing/stream")).andExpect(status().isNotFound());
+    }
+
+    private static TestResult header(String status, int total, int successful) {
+        TestResult header = new TestResult();
+        header.setId("run-1");
+        header.setStatus(status);
+        header.setTotalTests(total);
+        header.setSuccessfulTests(successful);
+        header.setErrorTests(0);
+        header.setWarningTests(0);
+        header.setPendingTests(total - successful);
+        return header;
+    }
+
+    private static TestExecution execution(String id, String result) {
+        TestExecution execution = new TestExecution();
+        execution.setId(id);
+        execution.setResult(result);
+        return execution;
+    }
+}
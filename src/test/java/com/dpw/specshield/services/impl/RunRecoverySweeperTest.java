@@ -0,0 +1,232 @@
+package com.dpw.specshield.services.impl;
+
+import com.dpw.specshield.execution.AdmissionController;
+import com.dpw.specshield.execution.PriorityClass;
+import com.dpw.specshield.execution.SuiteChunk;
+import com.dpw.specshield.model.TestCase;
+import com.dpw.specshield.model.TestExecutionRequest;
+import com.dpw.specshield.model.TestResult;
+import com.dpw.specshield.model.TestSuite;
+import com.dpw.specshield.repository.TestExecutionRequestRepository;
+import com.dpw.specshield.services.IExecutorService;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RunRecoverySweeperTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final TestExecutionRequestRepository testExecutionRequestRepository = mock(TestExecutionRequestRepository.class);
+    private final RunCheckpoints runCheckpoints = mock(RunCheckpoints.class);
+    private final IExecutorService executorService = mock(IExecutorService.class);
+    private final TestResultRecorder resultRecorder = mock(TestResultRecorder.class);
+    private final AdmissionController admissionController = new AdmissionController(1, 100, 1);
+    private final RunRecoverySweeper sweeper = new RunRecoverySweeper(mongoTemplate, testExecutionRequestRepository,
+            runCheckpoints, executorService, resultRecorder, admissionController, Duration.ofHours(1), Duration.ofMinutes(3));
+
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(TestExecutionRequest.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        when(runCheckpoints.pendingOnly(anyString(), any(TestSuite.class))).thenAnswer(invocation -> invocation.getArgument(1));
+    }
+
+    @AfterEach
+    void shutDown() {
+        sweeper.destroy();
+    }
+
+    @Test
+    void staleRunResumesOnlyItsUnfinishedChunksFromTheirCheckpoints() {
+        TestResult stale = stale("run-1", 3, List.of(1));
+        stale.setChunkSize(2);
+        staleRuns(stale);
+        stored("run-1", suite(6));
+        when(runCheckpoints.pendingOnly(eq("run-1"), any(TestSuite.class))).thenAnswer(invocation -> {
+            TestSuite slice = invocation.getArgument(1);
+            return slice.withTestCases(new ArrayList<>(slice.getTestCases().subList(1, 2)));
+        });
+        when(executorService.executeTestSuiteWithRealTimeUpdates(any(TestSuite.class), eq(stale), any(SuiteChunk.class)))
+                .thenReturn(new CompletableFuture<>());
+
+        sweeper.run(null);
+
+        ArgumentCaptor<TestSuite> suites = ArgumentCaptor.forClass(TestSuite.class);
+        ArgumentCaptor<SuiteChunk> chunks = ArgumentCaptor.forClass(SuiteChunk.class);
+        verify(executorService, timeout(5_000).times(2)).executeTestSuiteWithRealTimeUpdates(suites.capture(), eq(stale),
+                chunks.capture());
+        assertEquals(List.of(new SuiteChunk(0, 3), new SuiteChunk(2, 3)), chunks.getAllValues());
+        assertEquals(List.of(List.of("tc-1"), List.of("tc-5")), suites.getAllValues().stream().map(RunRecoverySweeperTest::ids).toList());
+    }
+
+    @Test
+    void runWithoutAStoredRequestIsMarkedFailed() {
+        TestResult stale = stale("run-1", 1, List.of());
+        staleRuns(stale);
+        when(testExecutionRequestRepository.findById("run-1")).thenReturn(Optional.empty());
+
+        sweeper.run(null);
+
+        verify(resultRecorder, timeout(5_000)).markFailed(stale);
+        verify(executorService, never()).executeTestSuiteWithRealTimeUpdates(any(TestSuite.class), any(TestResult.class),
+                any(SuiteChunk.class));
+    }
+
+    @Test
+    void runWhoseChunksAllCompletedIsFinishedInOneEmptyPass() {
+        TestResult stale = stale("run-1", 2, List.of(0, 1));
+        staleRuns(stale);
+        stored("run-1", suite(4));
+        when(executorService.executeTestSuiteWithRealTimeUpdates(any(TestSuite.class), eq(stale), any(SuiteChunk.class)))
+                .thenReturn(new CompletableFuture<>());
+
+        sweeper.run(null);
+
+        ArgumentCaptor<TestSuite> suite = ArgumentCaptor.forClass(TestSuite.class);
+        verify(executorService, timeout(5_000)).executeTestSuiteWithRealTimeUpdates(suite.capture(), eq(stale),
+                eq(SuiteChunk.allOf(2)));
+        assertTrue(suite.getValue().getTestCases().isEmpty());
+        verify(runCheckpoints, never()).pendingOnly(anyString(), any(TestSuite.class));
+    }
+
+    @Test
+    void recoveredRunWritesItsFinalStatusToTheRequest() {
+        TestResult stale = stale("run-1", 1, List.of());
+        staleRuns(stale);
+        stored("run-1", suite(2));
+        when(executorService.executeTestSuiteWithRealTimeUpdates(any(TestSuite.class), eq(stale), any(SuiteChunk.class)))
+                .thenReturn(CompletableFuture.completedFuture("run-1"));
+        TestResult finished = new TestResult();
+        finished.setStatus("COMPLETED");
+        when(mongoTemplate.findOne(any(Query.class), eq(TestResult.class))).thenReturn(finished);
+
+        sweeper.run(null);
+
+        assertEquals("COMPLETED", requestStatus());
+        sweepFinished();
+        assertEquals(0, admissionController.getInFlightSuites());
+    }
+
+    @Test
+    void failedRecoveryMarksTheRunAndRequestFailed() {
+        TestResult stale = stale("run-1", 1, List.of());
+        staleRuns(stale);
+        stored("run-1", suite(2));
+        when(executorService.executeTestSuiteWithRealTimeUpdates(any(TestSuite.class), eq(stale), any(SuiteChunk.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("executor crashed")));
+
+        sweeper.run(null);
+
+        verify(resultRecorder, timeout(5_000)).markFailed(stale);
+        assertEquals("FAILED", requestStatus());
+        sweepFinished();
+        assertEquals(0, admissionController.getInFlightSuites());
+    }
+
+    @Test
+    void fullNodeStopsClaimingStaleRuns() {
+        TestResult first = stale("run-1", 1, List.of());
+        TestResult second = stale("run-2", 1, List.of());
+        staleRuns(first, second);
+        stored("run-1", suite(2));
+        stored("run-2", suite(2));
+        when(executorService.executeTestSuiteWithRealTimeUpdates(any(TestSuite.class), any(TestResult.class), any(SuiteChunk.class)))
+                .thenReturn(new CompletableFuture<>());
+
+        sweeper.run(null);
+
+        verify(executorService, timeout(5_000)).executeTestSuiteWithRealTimeUpdates(any(TestSuite.class), eq(first),
+                any(SuiteChunk.class));
+        verify(mongoTemplate, after(300).times(1)).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(TestResult.class));
+        assertEquals(1, admissionController.getInFlightBulkSuites());
+    }
+
+    @Test
+    void nodeWithoutCapacityClaimsNothing() {
+        admissionController.admit(10, PriorityClass.NORMAL);
+
+        sweeper.run(null);
+
+        verify(mongoTemplate, after(300).never()).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(TestResult.class));
+    }
+
+    private void staleRuns(TestResult... runs) {
+        List<TestResult> claims = new ArrayList<>(List.of(runs));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(TestResult.class)))
+                .thenAnswer(invocation -> claims.isEmpty() ? null : claims.remove(0));
+    }
+
+    private void stored(String id, TestSuite testSuite) {
+        TestExecutionRequest request = new TestExecutionRequest();
+        request.setId(id);
+        request.setPriority("normal");
+        request.setTestSuite(testSuite);
+        when(testExecutionRequestRepository.findById(id)).thenReturn(Optional.of(request));
+    }
+
+    /** The sweep claims again once the resumed run released its capacity, and finds nothing left. */
+    private void sweepFinished() {
+        verify(mongoTemplate, timeout(5_000).times(2)).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(TestResult.class));
+    }
+
+    private String requestStatus() {
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, timeout(5_000)).updateFirst(any(Query.class), update.capture(), eq(TestExecutionRequest.class));
+        return ((Document) update.getValue().getUpdateObject().get("$set")).getString("status");
+    }
+
+    private static TestResult stale(String id, int chunkCount, List<Integer> completedChunks) {
+        TestResult stale = new TestResult();
+        stale.setId(id);
+        stale.setStatus("PROCESSING");
+        stale.setChunkCount(chunkCount);
+        stale.setCompletedChunks(completedChunks);
+        return stale;
+    }
+
+    private static TestSuite suite(int testCases) {
+        TestSuite testSuite = new TestSuite();
+        testSuite.setTestSuiteName("users");
+        testSuite.setTestCases(IntStream.range(0, testCases).mapToObj(i -> {
+            TestCase testCase = new TestCase();
+            testCase.setTestCaseId("tc-" + i);
+            return testCase;
+        }).collect(Collectors.toCollection(ArrayList::new)));
+        return testSuite;
+    }
+
+    private static List<String> ids(TestSuite testSuite) {
+        return testSuite.getTestCases().stream().map(TestCase::getTestCaseId).toList();
+    }
+}
@@ -0,0 +1,198 @@
+package com.dpw.specshield.services.impl;
+
+import com.dpw.specshield.execution.AdmissionController;
+import com.dpw.specshield.execution.SuiteChunk;
+import com.dpw.specshield.model.TestCase;
+import com.dpw.specshield.model.TestExecutionRequest;
+import com.dpw.specshield.model.TestResult;
+import com.dpw.specshield.model.TestSuite;
+import com.dpw.specshield.repository.TestResultRepository;
+import com.dpw.specshield.services.IExecutorService;
+import com.mongodb.client.result.UpdateResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TestExecutionRequestListenerTest {
+
+    private final IExecutorService executorService = mock(IExecutorService.class);
+    private final TestResultRepository testResultRepository = mock(TestResultRepository.class);
+    private final TestResultRecorder resultRecorder = mock(TestResultRecorder.class);
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final ExecutionPlanStore executionPlanStore = mock(ExecutionPlanStore.class);
+    private final RunCheckpoints runCheckpoints = mock(RunCheckpoints.class);
+    private final KafkaListenerEndpointRegistry listenerRegistry = mock(KafkaListenerEndpointRegistry.class);
+    private final AdmissionController admissionController = new AdmissionController(1, 100, 1);
+    private final AtomicBoolean normalPaused = new AtomicBoolean();
+    private final AtomicBoolean priorityPaused = new AtomicBoolean();
+    private final TestExecutionRequestListener listener = new TestExecutionRequestListener(executorService, testResultRepository,
+            resultRecorder, mongoTemplate, executionPlanStore, runCheckpoints, admissionController, listenerRegistry);
+
+    @BeforeEach
+    void setUp() {
+        MessageListenerContainer normal = container(normalPaused);
+        MessageListenerContainer priority = container(priorityPaused);
+        when(listenerRegistry.getListenerContainer(TestExecutionRequestListener.LISTENER_ID)).thenReturn(normal);
+        when(listenerRegistry.getListenerContainer(TestExecutionRequestListener.PRIORITY_LISTENER_ID)).thenReturn(priority);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), any(Class.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        when(testResultRepository.findHeaderById(anyString())).thenAnswer(invocation -> Optional.of(header(invocation.getArgument(0))));
+        when(runCheckpoints.pendingOnly(anyString(), any(TestSuite.class))).thenAnswer(invocation -> invocation.getArgument(1));
+    }
+
+    @Test
+    void fullNodePausesBulkConsumptionUntilTheChunkFinishes() {
+        CompletableFuture<String> execution = new CompletableFuture<>();
+        when(executionPlanStore.suiteFor(any(TestExecutionRequest.class), any(SuiteChunk.class))).thenReturn(suite(3));
+        when(executorService.executeTestSuiteWithRealTimeUpdates(any(TestSuite.class), any(TestResult.class), any(SuiteChunk.class)))
+                .thenReturn(execution);
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+
+        listener.processTestExecutionRequest("run-1", request("run-1", "normal"), acknowledgment);
+
+        assertTrue(normalPaused.get());
+        assertFalse(priorityPaused.get());
+        assertEquals(3, admissionController.getInFlightTestCases());
+        verify(acknowledgment, never()).acknowledge();
+
+        execution.complete("run-1");
+
+        assertFalse(normalPaused.get());
+        assertEquals(0, admissionController.getInFlightSuites());
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void priorityWorkUsesTheHeadroomBeforeItPausesToo() {
+        when(executionPlanStore.suiteFor(any(TestExecutionRequest.class), any(SuiteChunk.class))).thenReturn(suite(1));
+        when(executorService.executeTestSuiteWithRealTimeUpdates(any(TestSuite.class), any(TestResult.class), any(SuiteChunk.class)))
+                .thenReturn(new CompletableFuture<>());
+
+        listener.processTestExecutionRequest("run-1", request("run-1", "low"), mock(Acknowledgment.class));
+        assertTrue(normalPaused.get());
+        assertFalse(priorityPaused.get());
+
+        listener.processPriorityTestExecutionRequest("run-2", request("run-2", "high"), mock(Acknowledgment.class));
+        assertTrue(priorityPaused.get());
+        assertEquals(2, admissionController.getInFlightSuites());
+        assertEquals(1, admissionController.getInFlightBulkSuites());
+    }
+
+    @Test
+    void failedExecutionIsMarkedFailedAcknowledgedAndReleased() {
+        CompletableFuture<String> execution = new CompletableFuture<>();
+        when(executionPlanStore.suiteFor(any(TestExecutionRequest.class), any(SuiteChunk.class))).thenReturn(suite(2));
+        when(executorService.executeTestSuiteWithRealTimeUpdates(any(TestSuite.class), any(TestResult.class), any(SuiteChunk.class)))
+                .thenReturn(execution);
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+        TestExecutionRequest request = request("run-1", "normal");
+
+        listener.processTestExecutionRequest("run-1", request, acknowledgment);
+        execution.completeExceptionally(new IllegalStateException("executor crashed"));
+
+        verify(resultRecorder).markFailed(any(TestResult.class));
+        assertEquals("FAILED", request.getStatus());
+        verify(acknowledgment).acknowledge();
+        assertEquals(0, admissionController.getInFlightTestCases());
+        assertFalse(normalPaused.get());
+    }
+
+    @Test
+    void requestThatCannotStartIsAcknowledgedWithoutTakingCapacity() {
+        when(testResultRepository.findHeaderById("missing")).thenReturn(Optional.empty());
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+        TestExecutionRequest request = request("missing", "normal");
+
+        listener.processTestExecutionRequest("missing", request, acknowledgment);
+
+        assertEquals("FAILED", request.getStatus());
+        verify(acknowledgment).acknowledge();
+        assertEquals(0, admissionController.getInFlightSuites());
+        verify(executorService, never()).executeTestSuiteWithRealTimeUpdates(any(TestSuite.class), any(TestResult.class),
+                any(SuiteChunk.class));
+    }
+
+    @Test
+    void redeliveredChunkRunsOnlyItsPendingCases() {
+        TestSuite chunkSuite = suite(4);
+        TestSuite pending = chunkSuite.withTestCases(new ArrayList<>(chunkSuite.getTestCases().subList(2, 4)));
+        when(executionPlanStore.suiteFor(any(TestExecutionRequest.class), eq(new SuiteChunk(1, 3)))).thenReturn(chunkSuite);
+        when(runCheckpoints.pendingOnly("run-1", chunkSuite)).thenReturn(pending);
+        when(executorService.executeTestSuiteWithRealTimeUpdates(any(TestSuite.class), any(TestResult.class), any(SuiteChunk.class)))
+                .thenReturn(new CompletableFuture<>());
+        TestExecutionRequest request = request("run-1", "normal");
+        request.setChunkIndex(1);
+        request.setChunkCount(3);
+
+        listener.processTestExecutionRequest("run-1", request, mock(Acknowledgment.class));
+
+        verify(executorService).executeTestSuiteWithRealTimeUpdates(eq(pending), any(TestResult.class), eq(new SuiteChunk(1, 3)));
+        assertEquals(2, admissionController.getInFlightTestCases());
+    }
+
+    private static MessageListenerContainer container(AtomicBoolean paused) {
+        MessageListenerContainer container = mock(MessageListenerContainer.class);
+        when(container.isPauseRequested()).thenAnswer(invocation -> paused.get());
+        doAnswer(invocation -> {
+            paused.set(true);
+            return null;
+        }).when(container).pause();
+        doAnswer(invocation -> {
+            paused.set(false);
+            return null;
+        }).when(container).resume();
+        return container;
+    }
+
+    private static TestExecutionRequest request(String id, String priority) {
+        TestExecutionRequest request = new TestExecutionRequest();
+        request.setId(id);
+        request.setTestResultId(id);
+        request.setTestSuiteName("users");
+        request.setPriority(priority);
+        return request;
+    }
+
+    private static TestResult header(String id) {
+        TestResult header = new TestResult();
+        header.setId(id);
+        header.setStatus("PENDING");
+        return header;
+    }
+
+    private static TestSuite suite(int testCases) {
+        TestSuite testSuite = new TestSuite();
+        testSuite.setTestSuiteName("users");
+        testSuite.setTestCases(IntStream.range(0, testCases).mapToObj(i -> {
+            TestCase testCase = new TestCase();
+            testCase.setTestCaseId("tc-" + i);
+            return testCase;
+        }).collect(Collectors.toCollection(ArrayList::new)));
+        return testSuite;
+    }
+}
@@ -0,0 +1,325 @@
+package com.dpw.specshield.services.impl;
+
+import com.dpw.specshield.execution.RunStop;
+import com.dpw.specshield.execution.SuiteChunk;
+import com.dpw.specshield.model.ConcurrencyLimitState;
+import com.dpw.specshield.model.TestCase;
+import com.dpw.specshield.model.TestExecution;
+import com.dpw.specshield.model.TestExecutionRecord;
+import com.dpw.specshield.model.TestResult;
+import com.dpw.specshield.model.TestSuite;
+import com.dpw.specshield.repository.TestResultRepository;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TestResultRecorderTest {
+
+    private final TestResultRepository testResultRepository = mock(TestResultRepository.class);
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final RunProgressBus progressBus = mock(RunProgressBus.class);
+    private final BulkOperations bulkOps = mock(BulkOperations.class);
+    private TestResultRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TestExecutionRecord.class)).thenReturn(bulkOps);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(TestResult.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        recorder = recorder(Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void shutDown() {
+        recorder.destroy();
+    }
+
+    @Test
+    void newRunIsSavedWithEveryCasePending() {
+        when(testResultRepository.save(any(TestResult.class))).thenAnswer(invocation -> {
+            TestResult saved = invocation.getArgument(0);
+            saved.setId("run-1");
+            return saved;
+        });
+        TestSuite testSuite = new TestSuite();
+        testSuite.setTestSuiteName("users");
+        testSuite.setTestCases(List.of(new TestCase(), new TestCase(), new TestCase()));
+
+        TestResult result = recorder.startRun(testSuite, null, LocalDateTime.now());
+
+        assertEquals("run-1", result.getId());
+        assertEquals("PROCESSING", result.getStatus());
+        assertEquals(3, result.getTotalTests());
+        assertEquals(3, result.getPendingTests());
+        assertEquals(0, result.getSuccessfulTests());
+    }
+
+    @Test
+    void fullBatchIsWrittenInOneBulkAndOneCounterIncrement() {
+        TestResult result = start("run-1");
+
+        recorder.recordExecution(result, execution("tc-1", "success"));
+        verify(bulkOps, never()).execute();
+        recorder.recordExecution(result, execution("tc-2", "error"));
+
+        verify(bulkOps, times(2)).replaceOne(any(Query.class), any(TestExecutionRecord.class), any(FindAndReplaceOptions.class));
+        verify(bulkOps).execute();
+        Document increments = lastIncrement();
+        assertEquals(1, increments.get("successfulTests"));
+        assertEquals(1, increments.get("errorTests"));
+        assertEquals(0, increments.get("warningTests"));
+        assertEquals(-2, increments.get("pendingTests"));
+        verify(progressBus).executionsRecorded(eq("run-1"), anyList());
+    }
+
+    @Test
+    void periodicFlushWritesAPartialBatch() {
+        recorder.destroy();
+        recorder = recorder(Duration.ofMillis(20));
+        TestResult result = start("run-1");
+
+        recorder.recordExecution(result, execution("tc-1", RunStop.CANCELLED.executionResult()));
+
+        verify(bulkOps, timeout(5_000)).execute();
+        verify(progressBus, timeout(5_000)).executionsRecorded(eq("run-1"), anyList());
+        assertEquals(1, lastIncrement().get("cancelledTests"));
+    }
+
+    @Test
+    void executionRecordedTwiceIsWrittenOnce() {
+        TestResult result = start("run-1");
+        finalHeader("run-1", List.of(0), 2);
+        counts(Map.of("success", 2));
+
+        recorder.recordExecution(result, execution("tc-1", "success"));
+        recorder.completeRun(result, List.of(execution("tc-1", "success"), execution("tc-2", "success")),
+                LocalDateTime.now(), SuiteChunk.WHOLE, null);
+
+        verify(bulkOps, times(2)).replaceOne(any(Query.class), any(TestExecutionRecord.class), any(FindAndReplaceOptions.class));
+    }
+
+    @Test
+    void failedBatchIsRetriedWithoutCountingItTwice() {
+        TestResult result = start("run-1");
+        finalHeader("run-1", List.of(0), 2);
+        counts(Map.of("success", 1, "warning", 1));
+        when(bulkOps.execute()).thenThrow(new IllegalStateException("primary stepped down")).thenReturn(null);
+
+        recorder.completeRun(result, List.of(execution("tc-1", "success"), execution("tc-2", "warning")),
+                LocalDateTime.now(), SuiteChunk.WHOLE, null);
+
+        verify(bulkOps, times(2)).execute();
+        List<Document> increments = increments();
+        assertEquals(1, increments.size());
+        assertEquals(-2, increments.get(0).get("pendingTests"));
+    }
+
+    @Test
+    void lastChunkRecountsTheRunAndCompletesIt() {
+        TestResult result = start("run-1");
+        finalHeader("run-1", List.of(0, 1), 4);
+        counts(Map.of("success", 3, "error", 1));
+
+        TestResult completed = recorder.completeRun(result, List.of(), LocalDateTime.now(), new SuiteChunk(1, 2), null);
+
+        assertEquals("COMPLETED", completed.getStatus());
+        assertEquals(3, completed.getSuccessfulTests());
+        assertEquals(1, completed.getErrorTests());
+        assertEquals(0, completed.getPendingTests());
+        Document finish = lastSet();
+        assertEquals("COMPLETED", finish.get("status"));
+        assertEquals(3, finish.get("successfulTests"));
+        verify(progressBus).runFinished(completed, Map.of("success", 3, "error", 1));
+    }
+
+    @Test
+    void earlierChunkLeavesTheRunProcessing() {
+        TestResult result = start("run-1");
+        finalHeader("run-1", List.of(0), 4);
+
+        TestResult returned = recorder.completeRun(result, List.of(), LocalDateTime.now(), new SuiteChunk(0, 2), null);
+
+        assertSame(result, returned);
+        verify(mongoTemplate, never()).aggregate(any(Aggregation.class), eq(TestExecutionRecord.class), eq(Document.class));
+        verify(progressBus, never()).runFinished(any(TestResult.class), anyMap());
+    }
+
+    @Test
+    void cancelledAndTimedOutRunsFinishWithTheirStopStatus() {
+        TestResult cancelled = start("run-1");
+        TestResult header = finalHeader("run-1", List.of(0), 2);
+        header.setCancelRequested(true);
+        counts(Map.of(RunStop.CANCELLED.executionResult(), 2));
+        assertEquals("CANCELLED", recorder.completeRun(cancelled, List.of(), LocalDateTime.now(), SuiteChunk.WHOLE,
+                RunStop.CANCELLED).getStatus());
+
+        TestResult timedOut = start("run-2");
+        finalHeader("run-2", List.of(0), 2).setTimedOut(true);
+        counts(Map.of("success", 1, RunStop.TIMED_OUT.executionResult(), 1));
+        TestResult finished = recorder.completeRun(timedOut, List.of(), LocalDateTime.now(), SuiteChunk.WHOLE, RunStop.TIMED_OUT);
+        assertEquals("TIMED_OUT", finished.getStatus());
+        assertEquals(1, finished.getTimedOutTests());
+    }
+
+    @Test
+    void runFinishedElsewhereIsNotAnnouncedAgain() {
+        TestResult result = start("run-1");
+        finalHeader("run-1", List.of(0), 1);
+        counts(Map.of("success", 1));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(TestResult.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        recorder.completeRun(result, List.of(), LocalDateTime.now(), SuiteChunk.WHOLE, null);
+
+        verify(progressBus, never()).runFinished(any(TestResult.class), anyMap());
+    }
+
+    @Test
+    void lateWritesForAClosedRunAreDropped() {
+        TestResult result = start("run-1");
+        finalHeader("run-1", List.of(0), 1);
+        counts(Map.of("success", 1));
+        recorder.completeRun(result, List.of(), LocalDateTime.now(), SuiteChunk.WHOLE, null);
+
+        recorder.recordExecution(result, execution("tc-1", "success"));
+        recorder.recordExecution(result, execution("tc-2", "success"));
+        recorder.completeRun(result, List.of(execution("tc-3", "success")), LocalDateTime.now(), SuiteChunk.WHOLE, null);
+
+        verify(bulkOps, never()).execute();
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(TestResult.class));
+    }
+
+    @Test
+    void chunksOfOneRunShareItsBufferUntilTheLastCloses() {
+        TestResult first = start("run-1");
+        TestResult second = start("run-1");
+        finalHeader("run-1", List.of(0), 2);
+        recorder.completeRun(first, List.of(), LocalDateTime.now(), new SuiteChunk(0, 2), null);
+
+        recorder.recordExecution(second, execution("tc-1", "success"));
+        recorder.recordExecution(second, execution("tc-2", "success"));
+        verify(bulkOps).execute();
+
+        recorder.abandonChunk(second);
+        recorder.recordExecution(second, execution("tc-3", "success"));
+        recorder.recordExecution(second, execution("tc-4", "success"));
+        verify(bulkOps).execute();
+    }
+
+    @Test
+    void heartbeatCoversOnlyRunsOpenHere() {
+        recorder.destroy();
+        recorder = new TestResultRecorder(testResultRepository, mongoTemplate, progressBus,
+                Duration.ofHours(1), 2, Duration.ofMillis(20));
+        start("run-1");
+
+        verify(mongoTemplate, timeout(5_000).atLeastOnce()).updateMulti(any(Query.class), any(Update.class), eq(TestResult.class));
+    }
+
+    @Test
+    void hostStatesAreStoredOnlyWhenThereAreAny() {
+        TestResult result = start("run-1");
+
+        recorder.recordHostStates(result, List.of(), List.of());
+        assertNull(result.getCircuitBreakers());
+
+        recorder.recordHostStates(result, List.of(), List.of(new ConcurrencyLimitState()));
+        assertEquals(1, result.getConcurrencyLimits().size());
+        verify(mongoTemplate, atLeastOnce()).updateFirst(any(Query.class), any(Update.class), eq(TestResult.class));
+        assertEquals(1, ((List<?>) lastSet().get("concurrencyLimits")).size());
+    }
+
+    private TestResultRecorder recorder(Duration flushInterval) {
+        return new TestResultRecorder(testResultRepository, mongoTemplate, progressBus, flushInterval, 2, Duration.ofHours(1));
+    }
+
+    private TestResult start(String id) {
+        TestResult existing = new TestResult();
+        existing.setId(id);
+        return recorder.startRun(new TestSuite(), existing, LocalDateTime.now());
+    }
+
+    private TestResult finalHeader(String id, List<Integer> completedChunks, int totalTests) {
+        TestResult header = new TestResult();
+        header.setId(id);
+        header.setCompletedChunks(completedChunks);
+        header.setTotalTests(totalTests);
+        header.setExecutionStartTime(LocalDateTime.now().minusSeconds(1));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(TestResult.class)))
+                .thenReturn(header);
+        return header;
+    }
+
+    private void counts(Map<String, Integer> counts) {
+        List<Document> groups = new ArrayList<>();
+        counts.forEach((result, count) -> groups.add(new Document("_id", result).append("count", count)));
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(TestExecutionRecord.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(groups, new Document()));
+    }
+
+    private List<Document> increments() {
+        return updates().stream()
+                .map(update -> update.getUpdateObject().get("$inc", Document.class))
+                .filter(increment -> increment != null)
+                .toList();
+    }
+
+    private Document lastIncrement() {
+        List<Document> increments = increments();
+        return increments.get(increments.size() - 1);
+    }
+
+    private Document lastSet() {
+        List<Document> sets = updates().stream()
+                .map(update -> update.getUpdateObject().get("$set", Document.class))
+                .filter(set -> set != null)
+                .toList();
+        return sets.get(sets.size() - 1);
+    }
+
+    private List<Update> updates() {
+        ArgumentCaptor<Update> captor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, atLeastOnce()).updateFirst(any(Query.class), captor.capture(), eq(TestResult.class));
+        return captor.getAllValues();
+    }
+
+    private static TestExecution execution(String id, String result) {
+        TestExecution execution = new TestExecution();
+        execution.setId(id);
+        execution.setResult(result);
+        return execution;
+    }
+}
@@ -0,0 +1,37 @@
+package com.dpw.specshield.storage;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryRateLimitStoreTest {
+
+    private final InMemoryRateLimitStore store = new InMemoryRateLimitStore();
+
+    @Test
+    void grantsTheBurstThenAsksToWait() {
+        assertEquals(0, store.tryAcquire("api.example.com", 1, 2));
+        assertEquals(0, store.tryAcquire("api.example.com", 1, 2));
+
+        long wait = store.tryAcquire("api.example.com", 1, 2);
+        assertTrue(wait > 0 && wait <= 1000, "wait " + wait + " should be up to one token's refill");
+    }
+
+    @Test
+    void hostsHaveTheirOwnBuckets() {
+        assertEquals(0, store.tryAcquire("a.example.com", 1, 1));
+        assertTrue(store.tryAcquire("a.example.com", 1, 1) > 0);
+
+        assertEquals(0, store.tryAcquire("b.example.com", 1, 1));
+    }
+
+    @Test
+    void blockedHostWaitsForTheBlockToEnd() {
+        store.blockUntil("api.example.com", System.currentTimeMillis() + 60_000);
+
+        long wait = store.tryAcquire("api.example.com", 100, 10);
+        assertTrue(wait > 59_000 && wait <= 60_000, "wait " + wait + " should last until the block ends");
+        assertEquals(0, store.tryAcquire("other.example.com", 100, 10));
+    }
+}
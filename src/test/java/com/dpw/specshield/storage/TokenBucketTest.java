@@ -0,0 +1,64 @@
+package com.dpw.specshield.storage;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    @Test
+    void burstIsAvailableAtOnce() {
+        TokenBucket bucket = TokenBucket.full(2, 0);
+
+        TokenBucket.Take first = bucket.take(0, 10, 2);
+        TokenBucket.Take second = first.bucket().take(0, 10, 2);
+
+        assertTrue(first.granted());
+        assertTrue(second.granted());
+        assertEquals(0, second.bucket().tokens(), 0.0001);
+    }
+
+    @Test
+    void emptyBucketReportsTheTimeToTheNextToken() {
+        TokenBucket empty = new TokenBucket(0, 0, 0);
+
+        TokenBucket.Take take = empty.take(0, 10, 2);
+        assertFalse(take.granted());
+        assertEquals(100, take.waitMillis());
+
+        TokenBucket.Take partial = take.bucket().take(50, 10, 2);
+        assertEquals(50, partial.waitMillis());
+
+        assertTrue(partial.bucket().take(100, 10, 2).granted());
+    }
+
+    @Test
+    void refillIsCappedAtTheBurst() {
+        TokenBucket bucket = new TokenBucket(0, 0, 0);
+
+        TokenBucket.Take take = bucket.take(60_000, 10, 3);
+
+        assertTrue(take.granted());
+        assertEquals(2, take.bucket().tokens(), 0.0001);
+    }
+
+    @Test
+    void blockHoldsBackRequestsUntilItEnds() {
+        TokenBucket bucket = TokenBucket.full(5, 0).blockedUntil(1000);
+
+        TokenBucket.Take blocked = bucket.take(400, 10, 5);
+        assertFalse(blocked.granted());
+        assertEquals(600, blocked.waitMillis());
+
+        assertTrue(blocked.bucket().take(1000, 10, 5).granted());
+    }
+
+    @Test
+    void earlierBlockDoesNotShortenALaterOne() {
+        TokenBucket bucket = TokenBucket.full(1, 0).blockedUntil(2000).blockedUntil(500);
+
+        assertEquals(2000, bucket.blockedUntil());
+    }
+}
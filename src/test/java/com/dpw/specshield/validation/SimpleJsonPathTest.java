@@ -0,0 +1,61 @@
+package com.dpw.specshield.validation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SimpleJsonPathTest {
+
+    @Test
+    void parsesPropertiesAndIndexes() {
+        SimpleJsonPath path = SimpleJsonPath.parse("$.items[0].id");
+
+        assertNotNull(path);
+        assertEquals("$.items[0].id", path.getExpression());
+        assertEquals(3, path.depth());
+        assertEquals("items", path.segment(0));
+        assertEquals(0, path.segment(1));
+        assertEquals("id", path.segment(2));
+        assertFalse(path.isLength());
+    }
+
+    @Test
+    void parsesBracketedNames() {
+        SimpleJsonPath path = SimpleJsonPath.parse("$['first name'].value");
+
+        assertNotNull(path);
+        assertEquals("first name", path.segment(0));
+        assertEquals("value", path.segment(1));
+    }
+
+    @Test
+    void parsesLengthSuffix() {
+        SimpleJsonPath path = SimpleJsonPath.parse("$.items.length()");
+
+        assertNotNull(path);
+        assertTrue(path.isLength());
+        assertEquals(1, path.depth());
+    }
+
+    @Test
+    void rootIsASimplePath() {
+        SimpleJsonPath path = SimpleJsonPath.parse("$");
+
+        assertNotNull(path);
+        assertEquals(0, path.depth());
+    }
+
+    @Test
+    void rejectsPathsThatNeedTheFullDocument() {
+        assertNull(SimpleJsonPath.parse(null));
+        assertNull(SimpleJsonPath.parse("items.id"));
+        assertNull(SimpleJsonPath.parse("$..id"));
+        assertNull(SimpleJsonPath.parse("$.items[*].id"));
+        assertNull(SimpleJsonPath.parse("$.items[?(@.id > 1)]"));
+        assertNull(SimpleJsonPath.parse("$.items[0:2]"));
+    }
+}
@@ -0,0 +1,91 @@
+package com.dpw.specshield.validation;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class StreamingJsonEvaluatorTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    void resolvesScalarsWithJsonPathTypes() throws IOException {
+        Map<String, Object> values = evaluate("{\"user\":{\"name\":\"ann\",\"age\":41,\"score\":1.5,\"active\":true,\"nick\":null}}",
+                presence("$.user.name"), presence("$.user.age"), presence("$.user.score"),
+                presence("$.user.active"), presence("$.user.nick"));
+
+        assertEquals("ann", values.get("$.user.name"));
+        assertEquals(41, values.get("$.user.age"));
+        assertEquals(1.5, values.get("$.user.score"));
+        assertEquals(true, values.get("$.user.active"));
+        assertNull(values.get("$.user.nick"));
+        assertEquals(5, values.size());
+    }
+
+    @Test
+    void marksMissingPaths() throws IOException {
+        Map<String, Object> values = evaluate("{\"user\":{\"name\":\"ann\"},\"items\":[1]}",
+                presence("$.user.email"), presence("$.user.name.first"), presence("$.items[3]"));
+
+        assertSame(StreamingJsonEvaluator.MISSING, values.get("$.user.email"));
+        assertSame(StreamingJsonEvaluator.MISSING, values.get("$.user.name.first"));
+        assertSame(StreamingJsonEvaluator.MISSING, values.get("$.items[3]"));
+    }
+
+    @Test
+    void resolvesArrayIndexesAndLengths() throws IOException {
+        Map<String, Object> values = evaluate("{\"items\":[{\"id\":1},{\"id\":2},{\"id\":3}],\"name\":\"x\"}",
+                presence("$.items[1].id"), presence("$.items.length()"), presence("$.name.length()"));
+
+        assertEquals(2, values.get("$.items[1].id"));
+        assertEquals(3, values.get("$.items.length()"));
+        assertSame(StreamingJsonEvaluator.MISSING, values.get("$.name.length()"));
+    }
+
+    @Test
+    void materialisesContainersOnlyWhenTheValueIsCompared() throws IOException {
+        String json = "{\"user\":{\"name\":\"ann\",\"tags\":[\"a\",\"b\"]}}";
+
+        Map<String, Object> compared = evaluate(json, new StreamTarget(SimpleJsonPath.parse("$.user"), true));
+        assertEquals(Map.of("name", "ann", "tags", List.of("a", "b")), compared.get("$.user"));
+
+        Map<String, Object> present = evaluate(json, presence("$.user"), presence("$.user.tags"));
+        assertEquals("{...}", String.valueOf(present.get("$.user")));
+    }
+
+    @Test
+    void stopsReadingOnceEveryPathIsResolved() throws IOException {
+        try (JsonParser parser = MAPPER.createParser("{\"id\":7,\"rest\":[1,2,3]}")) {
+            Map<String, Object> values = StreamingJsonEvaluator.evaluate(parser, List.of(presence("$.id")));
+
+            assertEquals(7, values.get("$.id"));
+            assertEquals(JsonToken.FIELD_NAME, parser.nextToken());
+            assertEquals("rest", parser.currentName());
+        }
+    }
+
+    @Test
+    void emptyBodyHasNoValues() throws IOException {
+        assertNull(evaluate("", presence("$.id")));
+    }
+
+    private static StreamTarget presence(String expression) {
+        return new StreamTarget(SimpleJsonPath.parse(expression), false);
+    }
+
+    private static Map<String, Object> evaluate(String json, StreamTarget... targets) throws IOException {
+        try (JsonParser parser = MAPPER.createParser(json)) {
+            return StreamingJsonEvaluator.evaluate(parser, Arrays.asList(targets));
+        }
+    }
+}